@@ -0,0 +1,44 @@
+package jpabook.jpashop;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 벤치마크용 스프링 컨텍스트
+ * 외부 H2 서버 대신 메모리 H2를 쓰고, SQL 로그와 p6spy 로그는 끈다.(로그 출력이 측정값을 왜곡한다)
+ */
+public class BenchmarkApplication {
+
+    private static final String[] DEFAULT_PROPERTIES = {
+            "spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1",
+            "spring.jpa.hibernate.ddl-auto=create",
+            "spring.main.banner-mode=off",
+            "decorator.datasource.p6spy.enable-logging=false",
+            "logging.level.root=warn",
+            "logging.level.org.hibernate.SQL=warn",
+            "logging.level.org.hibernate.type=warn"
+    };
+
+    public static ConfigurableApplicationContext start(String... properties) {
+        return start(WebApplicationType.NONE, properties);
+    }
+
+    public static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... properties) {
+        //application.yml 보다 우선하도록 기본 속성(properties())이 아닌 커맨드라인 인자로 넘긴다.
+        List<String> args = new ArrayList<>();
+        for (String property : DEFAULT_PROPERTIES) {
+            args.add("--" + property);
+        }
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+
+        return new SpringApplicationBuilder(JpashopApplication.class)
+                .web(webApplicationType)
+                .run(args.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,143 @@
+package jpabook.jpashop.domain.api;
+
+import jpabook.jpashop.BenchmarkApplication;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.item.Book;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청 처리 스레드 모드(jpashop.execution.mode) 별 동시 요청 처리 시간 측정
+ * 클라이언트 clients 명이 동시에 /api/v3.1/orders 를 한번씩 요청하고 모두 응답받을 때까지를 한 op 로 측정한다.
+ *   platform : 톰캣 스레드 200개(server.tomcat.threads.max 기본값), 나머지 요청은 연결 큐에서 기다린다.
+ *   virtual  : 요청마다 가상 스레드, DB 커넥션(풀 10개)은 세마포어에서 기다린다.
+ *
+ * 실행: ./gradlew jmh -Pjmh.includes=ExecutionMode
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExecutionModeBenchmark {
+
+    private static final int ORDER_COUNT = 1000;
+
+    @Param({"platform", "virtual"})
+    String mode;
+
+    @Param({"1000", "2000"})
+    int clients;
+
+    ConfigurableApplicationContext context;
+    HttpClient httpClient;
+    ExecutorService clientExecutor;
+    HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(WebApplicationType.SERVLET,
+                "server.port=0",
+                "server.tomcat.accept-count=" + clients,
+                "jpashop.execution.mode=" + mode,
+                "spring.datasource.hikari.maximum-pool-size=10",
+                "spring.datasource.hikari.connection-timeout=60000");
+
+        seed(context.getBean(EntityManager.class), new TransactionTemplate(context.getBean(PlatformTransactionManager.class)));
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        //클라이언트 쪽이 병목이 되지 않도록 클라이언트도 가상 스레드로 보낸다.
+        clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        httpClient = HttpClient.newBuilder()
+                .executor(clientExecutor)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v3.1/orders?offset=0&limit=20"))
+                .timeout(Duration.ofSeconds(60))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        clientExecutor.close();
+        context.close();
+    }
+
+
+    /**
+     * @return 200 응답 수
+     */
+    @Benchmark
+    public int concurrentRequests() throws Exception {
+        List<Future<Integer>> responses = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            responses.add(clientExecutor.submit(() -> httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode()));
+        }
+
+        int ok = 0;
+        for (Future<Integer> response : responses) {
+            if (response.get() == 200) {
+                ok++;
+            }
+        }
+        if (ok != clients) {
+            throw new IllegalStateException("실패한 요청이 있습니다. 성공 " + ok + " / " + clients);
+        }
+        return ok;
+    }
+
+
+    /**
+     * 회원 100명, 상품 20개, 주문마다 상품 2개
+     */
+    private void seed(EntityManager em, TransactionTemplate transactionTemplate) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Member> members = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                Member member = new Member();
+                member.setName("member" + i);
+                member.setAddress(new Address("서울", "강가" + i, "123-123"));
+                em.persist(member);
+                members.add(member);
+            }
+            List<Book> books = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                Book book = new Book();
+                book.setName("JPA BOOK " + i);
+                book.setPrice(10000 + i);
+                book.setStockQuantity(Integer.MAX_VALUE / 2);
+                em.persist(book);
+                books.add(book);
+            }
+            for (int i = 0; i < ORDER_COUNT; i++) {
+                Member member = members.get(i % members.size());
+                Delivery delivery = new Delivery();
+                delivery.setAddress(member.getAddress());
+                Book first = books.get(i % books.size());
+                Book second = books.get((i + 1) % books.size());
+                em.persist(Order.createOrder(member, delivery,
+                        OrderItem.createOrderItem(first, first.getPrice(), 1),
+                        OrderItem.createOrderItem(second, second.getPrice(), 1)));
+            }
+        });
+    }
+}
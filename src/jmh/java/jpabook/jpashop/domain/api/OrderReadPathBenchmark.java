@@ -0,0 +1,190 @@
+package jpabook.jpashop.domain.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.BenchmarkApplication;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.api.OrderApiController.OrderDto;
+import jpabook.jpashop.domain.api.OrderSimpleApiController.SimpleOrderDto;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.repository.OrderRepository;
+import jpabook.jpashop.domain.repository.order.query.OrderAssemblers;
+import jpabook.jpashop.domain.repository.order.query.OrderFetchStrategy;
+import jpabook.jpashop.domain.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.domain.repository.order.simplequery.OrderSimpleQueryRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 주문 조회 API(/api/vN/orders, /api/vN/simple-orders)별 조회 방법 성능 측정
+ * 컨트롤러와 같은 순서로 조회 -> DTO 변환 -> JSON 직렬화까지 한 op 로 측정한다.
+ * 조회와 DTO 변환은 OSIV 처럼 하나의 영속성 컨텍스트(읽기 전용 트랜잭션) 안에서 실행한다.
+ *
+ * Throughput 은 초당 처리 수, SampleTime 은 응답 시간 분포(p50, p90, p99 ...),
+ * gc 프로파일러(build.gradle)는 op 당 메모리 할당량(gc.alloc.rate.norm)을 보여준다.
+ *
+ * 실행: ./gradlew jmh -Pjmh.includes=OrderReadPath
+ * 데이터 양(orderCount, itemsPerOrder)은 build.gradle 의 jmh { benchmarkParameters = [orderCount: ['10000']] } 로 바꿀 수 있다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OrderReadPathBenchmark {
+
+    @Param({"100", "1000"})
+    int orderCount;
+
+    @Param({"2", "10"})
+    int itemsPerOrder;
+
+    ConfigurableApplicationContext context;
+    TransactionTemplate readOnly;
+    ObjectMapper objectMapper;
+    OrderRepository orderRepository;
+    OrderQueryRepository orderQueryRepository;
+    OrderSimpleQueryRepository orderSimpleQueryRepository;
+    OrderAssemblers orderAssemblers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        objectMapper = context.getBean(ObjectMapper.class);
+        orderRepository = context.getBean(OrderRepository.class);
+        orderQueryRepository = context.getBean(OrderQueryRepository.class);
+        orderSimpleQueryRepository = context.getBean(OrderSimpleQueryRepository.class);
+        orderAssemblers = context.getBean(OrderAssemblers.class);
+
+        seed(context.getBean(EntityManager.class), new TransactionTemplate(context.getBean(PlatformTransactionManager.class)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+
+    /**
+     * /api/v3/orders : 컬렉션 페치 조인(distinct), SQL 1번
+     */
+    @Benchmark
+    public byte[] ordersV3_findAllWithItem() throws Exception {
+        return serialize(() -> orderRepository.findAllWithItem().stream()
+                .map(OrderDto::new)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * /api/v3.1/orders : ToOne 페치 조인 + 컬렉션은 default_batch_fetch_size IN 조회
+     */
+    @Benchmark
+    public byte[] ordersV31_findAllWithMemberDelivery() throws Exception {
+        return serialize(() -> orderRepository.findAllWithMemberDelivery(0, orderCount).stream()
+                .map(OrderDto::new)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * /api/v5/orders 의 원래 구현 : DTO 직접 조회 + 주문상품 IN 조회 1번
+     */
+    @Benchmark
+    public byte[] ordersV5_findAllByDto_optimization() throws Exception {
+        return serialize(() -> orderQueryRepository.findAllByDto_optimization());
+    }
+
+    /**
+     * /api/v6/orders : findAllByDto_flat 조인 1번 + 애플리케이션에서 주문별로 묶기
+     */
+    @Benchmark
+    public byte[] ordersV6_findAllByDto_flat() throws Exception {
+        return serialize(() -> orderAssemblers.get(OrderFetchStrategy.FLAT_JOIN).assemble());
+    }
+
+    /**
+     * /api/v3/simple-orders : 회원, 배송 페치 조인
+     */
+    @Benchmark
+    public byte[] simpleOrdersV3_findAllWithMemberDelivery() throws Exception {
+        return serialize(() -> orderRepository.findAllWithMemberDelivery().stream()
+                .map(SimpleOrderDto::new)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * /api/v4/simple-orders : 필요한 컬럼만 DTO로 직접 조회
+     */
+    @Benchmark
+    public byte[] simpleOrdersV4_findOrderDtos() throws Exception {
+        return serialize(() -> orderSimpleQueryRepository.findOrderDtos());
+    }
+
+
+    private byte[] serialize(Supplier<Object> query) throws Exception {
+        Object result = readOnly.execute(status -> query.get());
+        return objectMapper.writeValueAsBytes(result);
+    }
+
+    /**
+     * 회원 orderCount / 10 명, 상품 itemsPerOrder * 10 개를 만들고 주문마다 상품 itemsPerOrder 개를 담는다.
+     */
+    private void seed(EntityManager em, TransactionTemplate transactionTemplate) {
+        int memberCount = Math.max(1, orderCount / 10);
+        int bookCount = itemsPerOrder * 10;
+
+        List<Long> memberIds = new ArrayList<>();
+        List<Long> bookIds = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < memberCount; i++) {
+                Member member = new Member();
+                member.setName("member" + i);
+                member.setAddress(new Address("서울", "강가" + i, "123-123"));
+                em.persist(member);
+                memberIds.add(member.getId());
+            }
+            for (int i = 0; i < bookCount; i++) {
+                Book book = new Book();
+                book.setName("JPA BOOK " + i);
+                book.setPrice(10000 + i);
+                book.setStockQuantity(Integer.MAX_VALUE / 2);
+                em.persist(book);
+                bookIds.add(book.getId());
+            }
+        });
+
+        int chunkSize = 500;
+        for (int from = 0; from < orderCount; from += chunkSize) {
+            int start = from;
+            int end = Math.min(orderCount, from + chunkSize);
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = start; i < end; i++) {
+                    Member member = em.getReference(Member.class, memberIds.get(i % memberIds.size()));
+                    Delivery delivery = new Delivery();
+                    delivery.setAddress(member.getAddress());
+
+                    OrderItem[] orderItems = new OrderItem[itemsPerOrder];
+                    for (int j = 0; j < itemsPerOrder; j++) {
+                        Book book = em.find(Book.class, bookIds.get((i + j) % bookIds.size()));
+                        orderItems[j] = OrderItem.createOrderItem(book, book.getPrice(), 1);
+                    }
+                    em.persist(Order.createOrder(member, delivery, orderItems));
+                }
+                em.flush();
+                em.clear();
+            });
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package jpabook.jpashop.domain.repository;
+
+import jpabook.jpashop.BenchmarkApplication;
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 카테고리 하위 트리 전체 상품 조회 성능 측정
+ *   closure   : 클로저 테이블 조인 쿼리 한번(CategoryRepository.findSubtreeItems)
+ *   recursive : 부모 -> 자식 지연 로딩을 재귀로 따라가며 상품 컬렉션을 읽는다.(단계마다 쿼리, default_batch_fetch_size 로 IN 묶음)
+ * 카테고리 categoryCount 개를 자식 branching 개씩 완전 트리로 만들고(branching=2 이면 깊이 13), 카테고리마다 상품 하나를 담는다.
+ * 2차 캐시가 있으면 recursive 가 워밍업 이후 캐시만 읽으므로 둘 다 2차 캐시 없이 측정한다.
+ *
+ * 실행: ./gradlew jmh -Pjmh.includes=CategorySubtree
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CategorySubtreeBenchmark {
+
+    @Param({"10000"})
+    int categoryCount;
+
+    @Param({"2", "10"})
+    int branching;
+
+    ConfigurableApplicationContext context;
+    TransactionTemplate readOnly;
+    CategoryRepository categoryRepository;
+    Long rootId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=false");
+
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        categoryRepository = context.getBean(CategoryRepository.class);
+
+        rootId = seed(context.getBean(EntityManager.class), new TransactionTemplate(context.getBean(PlatformTransactionManager.class)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int closure() {
+        return readOnly.execute(status -> categoryRepository.findSubtreeItems(rootId, 0, Integer.MAX_VALUE).size());
+    }
+
+    @Benchmark
+    public int recursive() {
+        return readOnly.execute(status -> {
+            Set<Long> itemIds = new HashSet<>();
+            collect(categoryRepository.findOne(rootId), itemIds);
+            return itemIds.size();
+        });
+    }
+
+
+    private void collect(Category category, Set<Long> itemIds) {
+        for (Item item : category.getItems()) {
+            itemIds.add(item.getId());
+        }
+        for (Category child : category.getChild()) {
+            collect(child, itemIds);
+        }
+    }
+
+    /**
+     * i 번째 카테고리의 부모는 (i - 1) / branching 번째, 부모부터 저장한다.
+     * @return 루트 카테고리 id
+     */
+    private Long seed(EntityManager em, TransactionTemplate transactionTemplate) {
+        return transactionTemplate.execute(status -> {
+            List<Category> categories = new ArrayList<>(categoryCount);
+            for (int i = 0; i < categoryCount; i++) {
+                Category category = new Category();
+                category.setName("category" + i);
+                if (i > 0) {
+                    categories.get((i - 1) / branching).addChildCategory(category);
+                }
+                em.persist(category);
+                categories.add(category);
+
+                Book book = new Book();
+                book.setName("BOOK " + i);
+                book.setPrice(10000);
+                book.setStockQuantity(100);
+                em.persist(book);
+                category.getItems().add(book);
+            }
+            em.flush();
+            return categories.get(0).getId();
+        });
+    }
+}
@@ -0,0 +1,83 @@
+package jpabook.jpashop.domain.service;
+
+import jpabook.jpashop.BenchmarkApplication;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.member.MemberNameFilter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 회원 가입 처리량 측정
+ * 이름 필터(jpashop.member.name-filter.enabled) 사용 여부에 따라 가입마다 중복 조회 쿼리를 하는지가 달라진다.
+ *   true  : 처음 보는 이름은 조회 없이 insert 만 한다.
+ *   false : 매번 이름으로 조회 후 insert 한다.
+ * 가입 이름은 매번 새 이름이므로 중복 가입 실패는 없다. 8개 스레드가 동시에 가입한다.
+ *
+ * 실행: ./gradlew jmh -Pjmh.includes=MemberJoin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class MemberJoinBenchmark {
+
+    @Param({"true", "false"})
+    boolean nameFilter;
+
+    @Param({"100000"})
+    int memberCount;
+
+    ConfigurableApplicationContext context;
+    MemberService memberService;
+    final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("jpashop.member.name-filter.enabled=" + nameFilter);
+        memberService = context.getBean(MemberService.class);
+
+        seed(context.getBean(EntityManager.class), new TransactionTemplate(context.getBean(PlatformTransactionManager.class)));
+        //기동 시점에는 회원이 없었으므로 시드 회원으로 다시 채운다.
+        context.getBean(MemberNameFilter.class).warmUp();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Long join() {
+        Member member = new Member();
+        member.setName("signup" + sequence.incrementAndGet());
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        return memberService.join(member);
+    }
+
+
+    /**
+     * 기존 회원 memberCount 명(1000명씩 커밋)
+     */
+    private void seed(EntityManager em, TransactionTemplate transactionTemplate) {
+        for (int from = 0; from < memberCount; from += 1000) {
+            int start = from;
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = start; i < Math.min(start + 1000, memberCount); i++) {
+                    Member member = new Member();
+                    member.setName("member" + i);
+                    member.setAddress(new Address("서울", "강가" + i, "123-123"));
+                    em.persist(member);
+                }
+                em.flush();
+                em.clear();
+            });
+        }
+    }
+}
@@ -22,8 +22,12 @@ public class QCategory extends EntityPathBase<Category> {
 
     public static final QCategory category = new QCategory("category");
 
+    public final ListPath<CategoryClosure, QCategoryClosure> ancestors = this.<CategoryClosure, QCategoryClosure>createList("ancestors", CategoryClosure.class, QCategoryClosure.class, PathInits.DIRECT2);
+
     public final ListPath<Category, QCategory> child = this.<Category, QCategory>createList("child", Category.class, QCategory.class, PathInits.DIRECT2);
 
+    public final ListPath<CategoryClosure, QCategoryClosure> descendants = this.<CategoryClosure, QCategoryClosure>createList("descendants", CategoryClosure.class, QCategoryClosure.class, PathInits.DIRECT2);
+
     public final NumberPath<Long> id = createNumber("id", Long.class);
 
     public final ListPath<jpabook.jpashop.domain.item.Item, jpabook.jpashop.domain.item.QItem> items = this.<jpabook.jpashop.domain.item.Item, jpabook.jpashop.domain.item.QItem>createList("items", jpabook.jpashop.domain.item.Item.class, jpabook.jpashop.domain.item.QItem.class, PathInits.DIRECT2);
@@ -30,6 +30,8 @@ public class QItem extends EntityPathBase<Item> {
 
     public final NumberPath<Integer> stockQuantity = createNumber("stockQuantity", Integer.class);
 
+    public final NumberPath<Long> version = createNumber("version", Long.class);
+
     public QItem(String variable) {
         super(Item.class, forVariable(variable));
     }
@@ -1,17 +1,22 @@
 package jpabook.jpashop.domain;
 
 import jpabook.jpashop.domain.item.Item;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static javax.persistence.FetchType.*;
 
 @Entity
 @Getter @Setter
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category")   //2차 캐시
 public class Category {
     @Id @GeneratedValue
     @Column(name="category_id")
@@ -19,6 +24,8 @@ public class Category {
 
     private String name;
 
+    //컬렉션 캐시는 상품 id 목록만 저장하고, 상품 자체는 item 영역에서 읽는다.
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category.items")
     @ManyToMany
     @JoinTable(name = "category_item",
             joinColumns = @JoinColumn(name = "category_id"),
@@ -33,12 +40,77 @@ public class Category {
     private Category parent;
 
     //셀프조인 자식
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category.child")
     @OneToMany(mappedBy = "parent")
     private List<Category> child = new ArrayList<>();
 
+    //클로저 테이블, 이 카테고리가 후손인 행(조상 목록, 자기 자신 포함)
+    @Setter(AccessLevel.NONE)
+    @OneToMany(mappedBy = "descendant", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<CategoryClosure> ancestors = new ArrayList<>();
+
+    //클로저 테이블, 이 카테고리가 조상인 행(하위 트리, 자기 자신 포함)
+    @Setter(AccessLevel.NONE)
+    @OneToMany(mappedBy = "ancestor")
+    private List<CategoryClosure> descendants = new ArrayList<>();
+
+    public Category() {
+        CategoryClosure self = new CategoryClosure(this, this, 0);
+        ancestors.add(self);
+        descendants.add(self);
+    }
+
     //========== 연관관계 메소드 ============
+    /**
+     * 자식 카테고리 추가, 클로저 테이블도 함께 맞춘다.
+     * (부모의 조상들) x (자식의 하위 트리) 마다 행을 추가하고, 자식에게 이미 부모가 있으면 이전 조상과의 행을 지운다.
+     * 행은 후손 카테고리의 ancestors 에서 cascade 로 저장되므로 부모를 자식보다 먼저 persist 한다.
+     * 프록시일 수 있는 다른 카테고리는 필드 대신 getter 로 접근한다.
+     */
     public void addChildCategory(Category child) {
+        for (CategoryClosure down : child.getDescendants()) {
+            if (isSame(down.getDescendant(), this)) {
+                throw new IllegalArgumentException("하위 카테고리를 부모로 지정할 수 없습니다.");
+            }
+        }
+        if (child.getParent() != null) {
+            child.getParent().getChild().remove(child);
+            child.detachFromAncestors();
+        }
+
         this.child.add(child);
         child.setParent(this);
+
+        for (CategoryClosure up : this.ancestors) {
+            for (CategoryClosure down : child.getDescendants()) {
+                CategoryClosure closure = new CategoryClosure(up.getAncestor(), down.getDescendant(), up.getDepth() + down.getDepth() + 1);
+                closure.getDescendant().getAncestors().add(closure);
+                closure.getAncestor().getDescendants().add(closure);
+            }
+        }
+    }
+
+    /**
+     * 하위 트리와 이 카테고리의 조상(자기 자신 제외) 사이의 행을 지운다.
+     */
+    private void detachFromAncestors() {
+        List<Category> previousAncestors = getAncestors().stream()
+                .filter(closure -> closure.getDepth() > 0)
+                .map(CategoryClosure::getAncestor)
+                .collect(Collectors.toList());
+
+        for (CategoryClosure down : getDescendants()) {
+            List<CategoryClosure> removed = down.getDescendant().getAncestors().stream()
+                    .filter(closure -> previousAncestors.stream().anyMatch(ancestor -> isSame(ancestor, closure.getAncestor())))
+                    .collect(Collectors.toList());
+            for (CategoryClosure closure : removed) {
+                down.getDescendant().getAncestors().remove(closure);
+                closure.getAncestor().getDescendants().remove(closure);
+            }
+        }
+    }
+
+    private static boolean isSame(Category a, Category b) {
+        return a == b || (a.getId() != null && a.getId().equals(b.getId()));
     }
 }
@@ -0,0 +1,45 @@
+package jpabook.jpashop.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+import static javax.persistence.FetchType.*;
+
+/**
+ * 카테고리 클로저 테이블
+ * 조상 -> 후손 경로마다 한 행(자기 자신도 depth 0 으로 한 행), depth 는 조상에서 후손까지의 단계 수
+ * 하위 트리 전체를 ancestor_id 조건 하나로 찾을 수 있다. Category.addChildCategory 에서만 만든다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Table(name = "category_closure",
+        uniqueConstraints = @UniqueConstraint(name = "uk_category_closure", columnNames = {"ancestor_id", "descendant_id"}),
+        indexes = @Index(name = "idx_category_closure_descendant", columnList = "descendant_id, depth"))
+public class CategoryClosure {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "category_closure_seq_generator")
+    @SequenceGenerator(name = "category_closure_seq_generator", sequenceName = "category_closure_seq", allocationSize = 50)
+    @Column(name = "category_closure_id")
+    private Long id;
+
+    @ManyToOne(fetch = LAZY)
+    @JoinColumn(name = "ancestor_id", nullable = false)
+    private Category ancestor;
+
+    @ManyToOne(fetch = LAZY)
+    @JoinColumn(name = "descendant_id", nullable = false)
+    private Category descendant;
+
+    private int depth;
+
+    CategoryClosure(Category ancestor, Category descendant, int depth) {
+        this.ancestor = ancestor;
+        this.descendant = descendant;
+        this.depth = depth;
+    }
+}
@@ -0,0 +1,79 @@
+package jpabook.jpashop.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Idempotency-Key 처리 기록
+ * 처리 시작 시 IN_PROGRESS 로 먼저 저장(커밋)해서 다른 인스턴스의 같은 요청이 동시에 실행되지 않게 하고,
+ * 결과(resultId)는 실제 작업(주문, 취소)과 같은 트랜잭션에서 COMPLETED 로 바꾼다.
+ */
+@Entity
+@Getter
+@Table(indexes = {
+        @Index(name = "idx_idempotency_expires_at", columnList = "expires_at")
+})
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class IdempotencyRecord {
+
+    //범위(scope) + ":" + 클라이언트가 보낸 키
+    @Id
+    @Column(name = "idempotency_key", length = 200)
+    private String idempotencyKey;
+
+    //같은 키로 다른 내용의 요청을 보냈는지 확인하기 위한 요청 내용(SHA-256)
+    @Column(length = 64)
+    private String fingerprint;
+
+    @Enumerated(EnumType.STRING)
+    private IdempotencyStatus status;
+
+    private Long resultId;
+
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+
+    //==========생성 메서드 ========//
+    public static IdempotencyRecord start(String key, String fingerprint, LocalDateTime expiresAt) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.idempotencyKey = key;
+        record.fingerprint = fingerprint;
+        record.status = IdempotencyStatus.IN_PROGRESS;
+        record.createdAt = LocalDateTime.now();
+        record.expiresAt = expiresAt;
+        return record;
+    }
+
+
+    //======비즈니스 로직=============//
+    public void complete(Long resultId) {
+        this.status = IdempotencyStatus.COMPLETED;
+        this.resultId = resultId;
+    }
+
+    /**
+     * 만료됐거나, 처리 중인 채로 inProgressTimeout 이 지난(처리하던 인스턴스가 죽은) 기록은 없는 것으로 본다.
+     */
+    public boolean isAbandoned(LocalDateTime now, LocalDateTime inProgressDeadline) {
+        return expiresAt.isBefore(now)
+                || (status == IdempotencyStatus.IN_PROGRESS && createdAt.isBefore(inProgressDeadline));
+    }
+
+    /**
+     * 버려진 기록을 새 요청이 이어받는다.
+     */
+    public void restart(String fingerprint, LocalDateTime expiresAt) {
+        this.fingerprint = fingerprint;
+        this.status = IdempotencyStatus.IN_PROGRESS;
+        this.resultId = null;
+        this.createdAt = LocalDateTime.now();
+        this.expiresAt = expiresAt;
+    }
+}
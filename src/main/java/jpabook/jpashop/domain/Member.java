@@ -1,29 +1,68 @@
 package jpabook.jpashop.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotEmpty;
+import java.text.Normalizer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 @Entity
 @Getter @Setter
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "member")     //2차 캐시
+//같은 이름(정규화 기준)으로 동시에 가입해도 한쪽만 성공한다.
+@Table(uniqueConstraints = {
+        @UniqueConstraint(name = "uk_member_normalized_name", columnNames = "normalized_name")
+})
 public class Member {
 
-    @Id @GeneratedValue
+    //대량 등록(MemberImportService) 시 insert 마다 시퀀스를 조회하지 않도록 50개씩 미리 할당받는다.(pooled)
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 50)
     @Column(name = "member_id")
     private Long id;
 
     @NotEmpty
     private String name;
 
+    //중복 가입 검사용 이름(normalizeName), name 을 바꾸면 같이 바뀐다.
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @Column(name = "normalized_name")
+    private String normalizedName;
+
     @Embedded
     private Address address;
 
     @JsonIgnore
     @OneToMany(mappedBy = "member")
     private List<Order> orders = new ArrayList<>();
+
+    public void setName(String name) {
+        this.name = name;
+        this.normalizedName = normalizeName(name);
+    }
+
+    /**
+     * 중복 가입 판단 기준 이름
+     * 유니코드 정규화(NFKC, 전각/반각, 한글 자모 조합), 앞뒤 공백 제거, 연속 공백은 하나로, 소문자
+     * 예> " Kim  Jpa" 와 "kim jpa" 는 같은 이름
+     */
+    public static String normalizeName(String name) {
+        if (name == null) {
+            return null;
+        }
+        return Normalizer.normalize(name, Normalizer.Form.NFKC)
+                .trim()
+                .replaceAll("\\s+", " ")
+                .toLowerCase(Locale.ROOT);
+    }
 }
@@ -14,12 +14,17 @@ import static javax.persistence.FetchType.*;
 
 @Entity
 @Getter @Setter
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        //키셋 페이징(OrderRepository.findAllWithMemberDelivery(OrderCursor, int))용 인덱스
+        @Index(name = "idx_orders_order_date_id", columnList = "order_date, order_id")
+})
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Order {
 
+    //대량 등록 시 insert 마다 시퀀스를 조회하지 않도록 50개씩 미리 할당받는다.(pooled)
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq_generator")
+    @SequenceGenerator(name = "orders_seq_generator", sequenceName = "orders_seq", allocationSize = 50)
     @Column(name = "order_id")
     private Long id;
 
@@ -44,6 +49,10 @@ public class Order {
     @Enumerated(EnumType.STRING)
     private OrderStatus status;
 
+    //낙관적 락, 같은 주문을 동시에 취소하는 경우 등
+    @Version
+    private Long version;
+
     //======== 연관관계 메서드 =============
     public void setMember(Member member) {
         this.member = member;
@@ -80,14 +89,26 @@ public class Order {
      * 주문 취소
      */
     public void cancel() {
+        cancelWithoutRestock();
+        for (OrderItem orderItem : orderItems) {
+            orderItem.cancel();
+        }
+    }
+
+    /**
+     * 주문 취소(재고 복구 없음)
+     * 재고 원장(StockLedger)이 재고를 관리하는 경우, 재고는 원장에서 돌려놓으므로 상태만 변경한다.
+     */
+    public void cancelWithoutRestock() {
+        //두번 취소하면 재고가 두번 복구된다.
+        if (status == OrderStatus.CANCEL) {
+            throw new IllegalStateException("이미 취소된 주문입니다.");
+        }
         if (delivery.getStatus() == DeliveryStatus.COMP) {
             throw new IllegalStateException("이미 배송 완료된 상품은 취소가 불가능합니다.");
         }
 
         this.setStatus(OrderStatus.CANCEL);
-        for (OrderItem orderItem : orderItems) {
-            orderItem.cancel();
-        }
     }
 
 
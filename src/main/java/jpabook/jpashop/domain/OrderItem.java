@@ -20,7 +20,8 @@ public class OrderItem {
 //    protected OrderItem(){}
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq_generator")
+    @SequenceGenerator(name = "order_item_seq_generator", sequenceName = "order_item_seq", allocationSize = 50)
     @Column(name = "order_item_id")
     private Long id;
 
@@ -47,6 +48,18 @@ public class OrderItem {
         return orderItem;
     }
 
+    /**
+     * 재고 원장(StockLedger)에서 이미 재고를 예약한 경우 사용한다.
+     * 엔티티의 재고는 건드리지 않는다.(DB 재고는 원장이 모아서 반영)
+     */
+    public static OrderItem createReservedOrderItem(Item item, int orderPrice, int count) {
+        OrderItem orderItem = new OrderItem();
+        orderItem.setItem(item);
+        orderItem.setOrderPrice(orderPrice);
+        orderItem.setCount(count);
+        return orderItem;
+    }
+
     //=====비즈니스 로직=====//
     public void cancel() {
         getItem().addStock(count);
@@ -0,0 +1,70 @@
+package jpabook.jpashop.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 주문 변경 아웃박스
+ * 주문/취소와 같은 트랜잭션에서 저장되므로 주문이 커밋되면 이벤트도 반드시 남고, 롤백되면 이벤트도 없다.
+ *
+ * id 는 pooled 시퀀스로 트랜잭션 시작 시점에 정해지므로 커밋 순서와 다르다.
+ * 그래서 소비자는 id 가 아니라 릴레이(OrderOutboxRelay)가 커밋된 이벤트에 빈틈없이 붙인 feedSeq 순서로 읽는다.
+ */
+@Entity
+@Getter
+@Table(indexes = {
+        @Index(name = "uk_order_outbox_feed_seq", columnList = "feed_seq", unique = true)
+})
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OrderOutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_outbox_seq_generator")
+    @SequenceGenerator(name = "order_outbox_seq_generator", sequenceName = "order_outbox_seq", allocationSize = 50)
+    @Column(name = "event_id")
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    private OrderEventType type;
+
+    private Long orderId;
+
+    private Long memberId;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus orderStatus;
+
+    private int totalPrice;
+
+    private LocalDateTime occurredAt;
+
+    //릴레이가 붙이는 변경 피드 순번, 아직 릴레이 전이면 null
+    @Column(name = "feed_seq")
+    private Long feedSeq;
+
+    private LocalDateTime relayedAt;
+
+
+    //==========생성 메서드 ========//
+    public static OrderOutboxEvent of(Order order, OrderEventType type) {
+        OrderOutboxEvent event = new OrderOutboxEvent();
+        event.type = type;
+        event.orderId = order.getId();
+        event.memberId = order.getMember().getId();
+        event.orderStatus = order.getStatus();
+        event.totalPrice = order.getTotalPrice();
+        event.occurredAt = LocalDateTime.now();
+        return event;
+    }
+
+
+    //======비즈니스 로직=============//
+    public void relay(long feedSeq) {
+        this.feedSeq = feedSeq;
+        this.relayedAt = LocalDateTime.now();
+    }
+}
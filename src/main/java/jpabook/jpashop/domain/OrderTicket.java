@@ -0,0 +1,59 @@
+package jpabook.jpashop.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 비동기 주문(OrderQueue) 처리 결과
+ * 대기열에서 꺼내 처리를 마친 주문만 저장한다.(COMPLETED, FAILED)
+ * 아직 처리하지 않은 접수 번호는 테이블에 없고 대기열에 남아 있다.(QUEUED)
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OrderTicket {
+
+    //대기열 순번을 그대로 접수 번호로 사용한다.(직접 할당)
+    @Id
+    @Column(name = "ticket_id")
+    private Long id;
+
+    private Long orderId;
+
+    @Enumerated(EnumType.STRING)
+    private OrderTicketStatus status;
+
+    private String message;
+
+    private LocalDateTime acceptedDate;
+
+    private LocalDateTime processedDate;
+
+
+    //==========생성 메서드 ========//
+    public static OrderTicket completed(Long ticketId, LocalDateTime acceptedDate, Long orderId) {
+        OrderTicket ticket = create(ticketId, acceptedDate, OrderTicketStatus.COMPLETED);
+        ticket.orderId = orderId;
+        return ticket;
+    }
+
+    public static OrderTicket failed(Long ticketId, LocalDateTime acceptedDate, String message) {
+        OrderTicket ticket = create(ticketId, acceptedDate, OrderTicketStatus.FAILED);
+        //message 컬럼 길이(255)를 넘지 않게 자른다.
+        ticket.message = message != null && message.length() > 255 ? message.substring(0, 255) : message;
+        return ticket;
+    }
+
+    private static OrderTicket create(Long ticketId, LocalDateTime acceptedDate, OrderTicketStatus status) {
+        OrderTicket ticket = new OrderTicket();
+        ticket.id = ticketId;
+        ticket.acceptedDate = acceptedDate;
+        ticket.status = status;
+        ticket.processedDate = LocalDateTime.now();
+        return ticket;
+    }
+}
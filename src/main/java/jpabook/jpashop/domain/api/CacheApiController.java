@@ -0,0 +1,53 @@
+package jpabook.jpashop.domain.api;
+
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequiredArgsConstructor
+public class CacheApiController {
+    private final EntityManagerFactory emf;
+
+    /**
+     * 하이버네이트 2차 캐시/쿼리 캐시 영역별 통계
+     * hibernate.generate_statistics 가 꺼져 있으면 모든 값이 0 이다.
+     * @return
+     */
+    @GetMapping("/api/cache/regions")
+    public List<CacheRegionDto> regions() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(name -> new CacheRegionDto(name, statistics.getCacheRegionStatistics(name)))
+                .collect(Collectors.toList());
+    }
+
+    @Data
+    static class CacheRegionDto {
+        private String region;
+        private long hitCount;
+        private long missCount;
+        private long putCount;
+        private long elementCountInMemory;
+
+        public CacheRegionDto(String region, CacheRegionStatistics statistics) {
+            this.region = region;
+            if (statistics != null) {
+                hitCount = statistics.getHitCount();
+                missCount = statistics.getMissCount();
+                putCount = statistics.getPutCount();
+                elementCountInMemory = statistics.getElementCountInMemory();
+            }
+        }
+    }
+}
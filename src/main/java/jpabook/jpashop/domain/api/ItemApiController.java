@@ -0,0 +1,46 @@
+package jpabook.jpashop.domain.api;
+
+import jpabook.jpashop.domain.catalog.ItemCatalogCache;
+import jpabook.jpashop.domain.catalog.ItemCatalogCache.CatalogCacheStats;
+import jpabook.jpashop.domain.catalog.ItemSearchIndex;
+import jpabook.jpashop.domain.catalog.ItemSearchIndex.ItemSearchPage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+public class ItemApiController {
+    private final ItemCatalogCache catalogCache;
+    private final ItemSearchIndex itemSearchIndex;
+
+    /**
+     * 상품 카탈로그 캐시 통계(적중, 실패, 크기/TTL 로 버려진 수, 변경으로 무효화된 수)
+     * @return
+     */
+    @GetMapping("/api/items/catalog/stats")
+    public CatalogCacheStats catalogStats() {
+        return catalogCache.stats();
+    }
+
+    /**
+     * 상품 검색(이름, 저자, ISBN, 아티스트, 감독, 배우), 관련도(BM25) 순
+     * @param q 검색어
+     * @param page 0부터
+     * @param size 1 ~ 100
+     */
+    @GetMapping("/api/items/search")
+    public ItemSearchPage search(@RequestParam("q") String q,
+                                 @RequestParam(value = "page", defaultValue = "0") int page,
+                                 @RequestParam(value = "size", defaultValue = "20") int size) {
+        if (!StringUtils.hasText(q)) {
+            throw new IllegalArgumentException("검색어를 입력해야 합니다.");
+        }
+        if (page < 0 || size < 1 || size > 100) {
+            throw new IllegalArgumentException("page 는 0 이상, size 는 1 ~ 100 이어야 합니다.");
+        }
+        return itemSearchIndex.search(q, page, size);
+    }
+}
@@ -1,9 +1,12 @@
 package jpabook.jpashop.domain.api;
 
 import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.member.MemberSearchIndex;
+import jpabook.jpashop.domain.member.MemberSearchIndex.MemberSearchResult;
 import jpabook.jpashop.domain.service.MemberService;
 import lombok.*;
 import org.springframework.stereotype.Controller;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
@@ -16,6 +19,7 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class MemberApiController {
     private final MemberService memberService;
+    private final MemberSearchIndex memberSearchIndex;
 
     /**
      * 응답 값으로 엔티티를 직접 외부에 노출한 경우
@@ -46,6 +50,26 @@ public class MemberApiController {
         return new Result(collect.size(), collect);
     }
 
+    /**
+     * 회원 이름 검색(부분 일치), 이름 전체 일치 > 앞부분 일치 > 부분 일치 순서로 limit 명
+     * DB 를 조회하지 않고 메모리 색인(MemberSearchIndex)에서 찾는다.
+     * 예> /api/members/search?q=kim&limit=10
+     */
+    @GetMapping("/api/members/search")
+    public Result<List<MemberSearchResult>> searchMembers(
+            @RequestParam("q") String q,
+            @RequestParam(value = "limit", defaultValue = "10") int limit)
+    {
+        if (!StringUtils.hasText(q)) {
+            throw new IllegalArgumentException("q 는 필수입니다.");
+        }
+        if (limit < 1 || limit > 100) {
+            throw new IllegalArgumentException("limit 은 1 ~ 100 사이여야 합니다.");
+        }
+        List<MemberSearchResult> results = memberSearchIndex.search(q, limit);
+        return new Result<>(results.size(), results);
+    }
+
     @Data
     @AllArgsConstructor
     static class Result<T> {
@@ -0,0 +1,58 @@
+package jpabook.jpashop.domain.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.domain.service.MemberImportService;
+import jpabook.jpashop.domain.service.MemberImportService.MemberImportResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@RequiredArgsConstructor
+public class MemberImportApiController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final MemberImportService memberImportService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 회원 대량 등록(NDJSON)
+     * 요청 본문 : 한 줄에 하나씩 {"name":"kim","city":"서울","street":"강가","zipcode":"123-123"}
+     * 응답 본문 : 입력 한 줄마다 결과 한 줄 {"line":1,"status":"CREATED","name":"kim","memberId":101}
+     *            status 는 CREATED, DUPLICATE(요청 안에서 또는 이미 가입된 이름), INVALID(형식 오류), FAILED
+     * /api/v2/members 를 줄마다 호출하는 것과 달리 중복 검사는 IN 쿼리로, insert 는 JDBC 배치로 chunk 단위로 처리한다.
+     * 결과는 chunk 가 커밋될 때마다 바로 응답에 쓰므로 전체 결과를 메모리에 모으지 않는다.
+     * @param body
+     * @param response
+     * @throws IOException
+     */
+    @PostMapping(value = "/api/members/import", consumes = NDJSON, produces = NDJSON)
+    public void importNdjson(InputStream body, HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);     //줄 구분은 직접 '\n' 으로
+            memberImportService.importMembers(body, results -> {
+                try {
+                    for (MemberImportResult result : results) {
+                        generator.writeObject(result);
+                        generator.writeRaw('\n');
+                    }
+                    generator.flush();
+                } catch (IOException e) {
+                    //클라이언트가 연결을 끊은 경우 등, 남은 줄은 처리하지 않는다.
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+}
@@ -4,29 +4,45 @@ import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderItem;
 import jpabook.jpashop.domain.OrderStatus;
-import jpabook.jpashop.domain.repository.OrderRepository;
+import jpabook.jpashop.domain.repository.OrderCursor;
 import jpabook.jpashop.domain.repository.OrderSearch;
-import jpabook.jpashop.domain.repository.order.query.OrderFlatDto;
-import jpabook.jpashop.domain.repository.order.query.OrderItemQueryDto;
+import jpabook.jpashop.domain.repository.order.query.OrderAssemblers;
+import jpabook.jpashop.domain.repository.order.query.OrderFetchStrategy;
 import jpabook.jpashop.domain.repository.order.query.OrderQueryDto;
-import jpabook.jpashop.domain.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.domain.service.IdempotencyService;
+import jpabook.jpashop.domain.service.OptimisticLockRetryExecutor;
+import jpabook.jpashop.domain.service.OptimisticLockRetryExecutor.ContentionStats;
+import jpabook.jpashop.domain.service.OrderLine;
+import jpabook.jpashop.domain.service.OrderService;
+import jpabook.jpashop.domain.service.query.OrderQueryService;
+import jpabook.jpashop.domain.sql.SqlBudget;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
-import static java.util.stream.Collectors.*;
-
 @RestController
 @RequiredArgsConstructor
 public class OrderApiController {
-    private final OrderRepository orderRepository;
-    private final OrderQueryRepository orderQueryRepository;
+    private final OrderQueryService orderQueryService;
+    private final OrderAssemblers orderAssemblers;
+    private final OrderService orderService;
+    private final OptimisticLockRetryExecutor retryExecutor;
+    private final IdempotencyService idempotencyService;
 
     /**
      * 이 버전은 API 스펙에 엔티티 정보를 그대로 노출하므로 사용하지 않는다.
@@ -35,14 +51,14 @@ public class OrderApiController {
      */
     @GetMapping("/api/v1/orders")
     public List<Order> ordersV1() {
-        List<Order> all = orderRepository.findAllByString(new OrderSearch());
-        for (Order order : all) {
+        //OSIV 가 꺼져 있으므로 지연 로딩 강제 초기화는 트랜잭션 안(OrderQueryService)에서 해야 한다.
+        return orderQueryService.findAllByString(new OrderSearch(), order -> {
             order.getMember().getName();
             order.getDelivery().getAddress();
             List<OrderItem> orderItems = order.getOrderItems();
             orderItems.stream().forEach(orderItem -> orderItem.getItem().getName());
-        }
-        return all;
+            return order;
+        });
     }
 
 
@@ -55,11 +71,7 @@ public class OrderApiController {
      */
     @GetMapping("/api/v2/orders")
     public List<OrderDto> ordersV2() {
-        List<Order> orders = orderRepository.findAllByString(new OrderSearch());
-        List<OrderDto> collect = orders.stream()
-                .map(OrderDto::new)
-                .collect(Collectors.toList());
-        return collect;
+        return orderQueryService.findAllByString(new OrderSearch(), OrderDto::new);
     }
 
 
@@ -78,27 +90,21 @@ public class OrderApiController {
      컬렉션 페치 조인은 1개만 사용할 수 있다. 컬렉션 둘 이상에 페치 조인을 사용하면 안된다. 데이터가 부정합하게 조회될 수 있다.
      자세한 내용은 자바 ORM 표준 JPA 프로그래밍을 참고하자.
   */
+    @SqlBudget(1)
     @GetMapping("/api/v3/orders")
     public List<OrderDto> ordersV3() {
-        List<Order> orders = orderRepository.findAllWithItem();
-        List<OrderDto> collect = orders.stream()
-                .map(OrderDto::new)
-                .collect(Collectors.toList());
-        return collect;
+        return orderQueryService.findAllWithItem(OrderDto::new);
     }
 
 
 
+    @SqlBudget(3)     //주문 1번 + orderItems IN 1번 + item IN 1번(limit <= default_batch_fetch_size)
     @GetMapping("/api/v3.1/orders")
     public List<OrderDto> ordersV3_page(
             @RequestParam(value = "offset", defaultValue ="0") int offset,
             @RequestParam(value = "limit", defaultValue = "100") int limit)
     {
-        List<Order> orders = orderRepository.findAllWithMemberDelivery(offset, limit);
-        List<OrderDto> collect = orders.stream()
-                .map(OrderDto::new)
-                .collect(Collectors.toList());
-        return collect;
+        return orderQueryService.findAllWithMemberDelivery(offset, limit, OrderDto::new);
     }
 
 
@@ -115,7 +121,7 @@ public class OrderApiController {
      */
     @GetMapping("/api/v4/orders")
     public List<OrderQueryDto> ordersV4() {
-        return orderQueryRepository.findOrderQueryDtos();
+        return orderAssemblers.get(OrderFetchStrategy.PER_ROW).assemble();
     }
 
 
@@ -127,7 +133,7 @@ public class OrderApiController {
      */
     @GetMapping("/api/v5/orders")
     public List<OrderQueryDto> ordersV5() {
-        return orderQueryRepository.findAllByDto_optimization();
+        return orderAssemblers.get(OrderFetchStrategy.IN_BATCH).assemble();
     }
 
 
@@ -139,19 +145,132 @@ public class OrderApiController {
      *  3) 페이징 불가능
      * @return
      */
+    @SqlBudget(1)
     @GetMapping("/api/v6/orders")
     public List<OrderQueryDto> ordersV6() {
-        List<OrderFlatDto> flats = orderQueryRepository.findAllByDto_flat();
+        return orderAssemblers.get(OrderFetchStrategy.FLAT_JOIN).assemble();
+    }
+
+
+    /**
+     * 조회 방법 선택 버전
+     * v4, v5, v6 의 조회 방법과 JSON 집계(JSON_AGG) 중 하나를 요청마다 선택할 수 있다.
+     * strategy 를 생략하면 jpashop.order.fetch-strategy 설정값을 사용한다.
+     * 예> /api/v8/orders?strategy=JSON_AGG
+     * @param strategy PER_ROW, IN_BATCH, FLAT_JOIN, JSON_AGG
+     * @return
+     */
+    @GetMapping("/api/v8/orders")
+    public List<OrderQueryDto> ordersV8(@RequestParam(value = "strategy", required = false) OrderFetchStrategy strategy) {
+        return orderAssemblers.get(strategy).assemble();
+    }
+
+
+
+    /**
+     * 키셋(seek) 페이징 버전
+     * v3.1 은 offset 으로 페이징하므로 뒤 페이지일수록 DB가 앞의 row를 모두 읽고 버려야 한다.(O(offset))
+     * v7 은 이전 페이지의 마지막 주문 위치(after 토큰) 이후부터 조회하므로 몇번째 페이지든 첫 페이지와 비용이 같다.
+     * ToOne 관계는 페치 조인, orderItems 컬렉션은 default_batch_fetch_size 로 IN 쿼리 일괄 조회한다.
+     *
+     * 다음 페이지가 있는지 알기 위해 limit + 1 건을 조회하고, 남는 1건은 버린다.
+     * @param after 이전 응답의 next 토큰, 첫 페이지는 생략
+     * @param limit
+     * @return
+     */
+    @SqlBudget(3)     //v3.1 과 같음
+    @GetMapping("/api/v7/orders")
+    public OrderPage<OrderDto> ordersV7(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", defaultValue = "100") int limit)
+    {
+        if (limit < 1 || limit > 1000) {
+            throw new IllegalArgumentException("limit 은 1 ~ 1000 사이여야 합니다.");
+        }
+
+        List<OrderDto> orders = orderQueryService.findAllWithMemberDelivery(OrderCursor.decode(after), limit + 1, OrderDto::new);
+
+        boolean hasNext = orders.size() > limit;
+        if (hasNext) {
+            orders = orders.subList(0, limit);
+        }
+
+        String next = null;
+        if (hasNext) {
+            OrderDto last = orders.get(orders.size() - 1);
+            next = new OrderCursor(last.getOrderDate(), last.getOrderId()).encode();
+        }
+        return new OrderPage<>(orders, next);
+    }
 
-        return flats.stream()
-                .collect(groupingBy(o -> new OrderQueryDto(o.getOrderId(), o.getName(), o.getOrderDate(), o.getOrderStatus(), o.getAddress()),
-                        mapping(o -> new OrderItemQueryDto(o.getOrderId(), o.getItemName(), o.getOrderPrice(), o.getCount()), toList())
-                )).entrySet().stream()
-                .map(e -> new OrderQueryDto(e.getKey().getOrderId(), e.getKey().getName(), e.getKey().getOrderDate(), e.getKey().getOrderStatus(), e.getKey().getAddress(), e.getValue()))
-                .collect(toList());
+
+    /**
+     * 여러 상품 주문 API
+     * 장바구니의 상품을 한번의 요청, 한번의 트랜잭션으로 하나의 주문으로 만든다.
+     * Idempotency-Key 헤더를 보내면 같은 키로 다시 보낸 요청은 주문하지 않고 처음 만든 주문 id 를 돌려준다.
+     * @param idempotencyKey
+     * @param request
+     * @return
+     */
+    @PostMapping("/api/orders/batch")
+    public CreateOrderResponse saveOrderBatch(@RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                              @RequestBody @Valid CreateOrderBatchRequest request) {
+        List<OrderLine> lines = request.getLines().stream()
+                .map(line -> new OrderLine(line.getItemId(), line.getCount()))
+                .collect(Collectors.toList());
+
+        String fingerprint = request.getMemberId() + ":" + lines.stream()
+                .map(line -> line.getItemId() + "x" + line.getCount())
+                .collect(Collectors.joining(","));
+        Long orderId = idempotencyService.execute("order-batch", idempotencyKey, fingerprint,
+                () -> orderService.order(request.getMemberId(), lines));
+        return new CreateOrderResponse(orderId);
+    }
+
+    @Data
+    static class CreateOrderBatchRequest {
+        @NotNull
+        private Long memberId;
+
+        @NotEmpty
+        @Valid
+        private List<OrderLineRequest> lines;
+    }
+
+    @Data
+    static class OrderLineRequest {
+        @NotNull
+        private Long itemId;
+
+        @Min(1)
+        private int count;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CreateOrderResponse {
+        private Long orderId;
+    }
+
+
+    /**
+     * 주문/취소 시 낙관적 락 충돌 통계(엔티티별 충돌, 재시도, 포기 횟수)
+     * 충돌이 많은 상품은 재고 원장(jpashop.stock.ledger) 적용 대상으로 검토한다.
+     * @return
+     */
+    @GetMapping("/api/orders/contention")
+    public Map<String, ContentionStats> contention() {
+        return retryExecutor.getStats();
     }
 
 
+    @Data
+    @AllArgsConstructor
+    static class OrderPage<T> {
+        private List<T> data;
+        private String next;    //다음 페이지 토큰, 마지막 페이지면 null
+    }
+
 
     @Data
     static class OrderDto {
@@ -0,0 +1,48 @@
+package jpabook.jpashop.domain.api;
+
+import jpabook.jpashop.domain.service.query.OrderChangeView;
+import jpabook.jpashop.domain.service.query.OrderQueryService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class OrderChangeApiController {
+    private final OrderQueryService orderQueryService;
+
+    /**
+     * 주문 변경 피드(주문, 취소)
+     * 주문 전체를 다시 조회하지 않고 마지막으로 받은 seq 이후의 변경만 받아서 동기화한다.
+     * 처음에는 since=0, 이후에는 응답의 next 를 since 로 넘긴다. 변경이 없으면 next 는 since 그대로이다.
+     * 예> /api/orders/changes?since=120&limit=500
+     * @param since 마지막으로 받은 seq
+     * @param limit
+     * @return
+     */
+    @GetMapping("/api/orders/changes")
+    public OrderChangePage changes(
+            @RequestParam(value = "since", defaultValue = "0") long since,
+            @RequestParam(value = "limit", defaultValue = "100") int limit)
+    {
+        if (limit < 1 || limit > 1000) {
+            throw new IllegalArgumentException("limit 은 1 ~ 1000 사이여야 합니다.");
+        }
+
+        List<OrderChangeView> changes = orderQueryService.findChanges(since, limit);
+        long next = changes.isEmpty() ? since : changes.get(changes.size() - 1).getSeq();
+        return new OrderChangePage(changes, next);
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class OrderChangePage {
+        private List<OrderChangeView> changes;
+        private long next;
+    }
+}
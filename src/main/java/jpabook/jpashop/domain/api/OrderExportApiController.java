@@ -0,0 +1,49 @@
+package jpabook.jpashop.domain.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.domain.service.OrderExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@RequiredArgsConstructor
+public class OrderExportApiController {
+    private final OrderExportService orderExportService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 전체 주문 내보내기(스트리밍)
+     * /api/v5, /api/v6 은 List<OrderQueryDto> 를 힙에 모두 만든 뒤에 JSON 으로 변환하므로 주문이 많으면 OOM 이 발생한다.
+     * 이 API 는 DB 커서에서 주문 하나가 완성될 때마다 JsonGenerator 로 응답에 바로 쓰므로
+     * 주문 수와 상관없이 메모리 사용량이 일정하다.
+     * 응답 형식은 v5, v6 과 같은 OrderQueryDto 의 JSON 배열이다.
+     * @param response
+     * @throws IOException
+     */
+    @GetMapping("/api/orders/export")
+    public void exportOrders(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.writeStartArray();
+            orderExportService.exportOrders(order -> {
+                try {
+                    generator.writeObject(order);
+                } catch (IOException e) {
+                    //클라이언트가 연결을 끊은 경우 등, 예외를 던져서 커서와 트랜잭션을 바로 정리한다.
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+        }
+    }
+}
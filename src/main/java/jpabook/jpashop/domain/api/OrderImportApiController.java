@@ -0,0 +1,42 @@
+package jpabook.jpashop.domain.api;
+
+import jpabook.jpashop.domain.service.OrderImportService;
+import jpabook.jpashop.domain.service.OrderImportService.OrderImportFormat;
+import jpabook.jpashop.domain.service.OrderImportService.OrderImportResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequiredArgsConstructor
+public class OrderImportApiController {
+    private final OrderImportService orderImportService;
+
+    /**
+     * 주문 대량 등록(CSV)
+     * 요청 본문 : memberId,itemId,count 줄 목록
+     * 요청 본문을 메모리에 모두 올리지 않고 스트림으로 읽으면서 chunk 단위로 저장한다.
+     * @param body
+     * @return
+     * @throws IOException
+     */
+    @PostMapping(value = "/api/orders/import", consumes = "text/csv")
+    public OrderImportResult importCsv(InputStream body) throws IOException {
+        return orderImportService.importOrders(body, OrderImportFormat.CSV);
+    }
+
+    /**
+     * 주문 대량 등록(NDJSON)
+     * 요청 본문 : 한 줄에 하나씩 {"memberId":1,"itemId":2,"count":3}
+     * @param body
+     * @return
+     * @throws IOException
+     */
+    @PostMapping(value = "/api/orders/import", consumes = "application/x-ndjson")
+    public OrderImportResult importNdjson(InputStream body) throws IOException {
+        return orderImportService.importOrders(body, OrderImportFormat.NDJSON);
+    }
+}
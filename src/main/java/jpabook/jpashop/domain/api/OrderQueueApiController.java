@@ -0,0 +1,71 @@
+package jpabook.jpashop.domain.api;
+
+import jpabook.jpashop.domain.service.AsyncOrderService;
+import jpabook.jpashop.domain.service.OrderLine;
+import jpabook.jpashop.domain.service.query.OrderTicketView;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@ConditionalOnProperty(name = "jpashop.order.async.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class OrderQueueApiController {
+    private final AsyncOrderService asyncOrderService;
+
+    /**
+     * 비동기 주문 접수
+     * 주문을 대기열(디스크)에 넣고 바로 접수 번호를 돌려준다.(202 Accepted)
+     * 회원, 상품, 재고 확인은 워커가 처리하면서 하므로 결과는 /api/orders/tickets/{ticketId} 로 확인한다.
+     * @param request
+     * @return
+     */
+    @PostMapping("/api/orders/async")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public OrderTicketView acceptOrder(@RequestBody @Valid AsyncOrderRequest request) {
+        List<OrderLine> lines = request.getLines().stream()
+                .map(line -> new OrderLine(line.getItemId(), line.getCount()))
+                .collect(Collectors.toList());
+
+        Long ticketId = asyncOrderService.accept(request.getMemberId(), lines);
+        return OrderTicketView.queued(ticketId);
+    }
+
+    /**
+     * 비동기 주문 처리 상태(QUEUED, COMPLETED, FAILED)
+     * @param ticketId
+     * @return
+     */
+    @GetMapping("/api/orders/tickets/{ticketId}")
+    public OrderTicketView ticket(@PathVariable("ticketId") Long ticketId) {
+        return asyncOrderService.findTicket(ticketId);
+    }
+
+    @Data
+    static class AsyncOrderRequest {
+        @NotNull
+        private Long memberId;
+
+        @NotEmpty
+        @Valid
+        private List<OrderLineRequest> lines;
+    }
+
+    @Data
+    static class OrderLineRequest {
+        @NotNull
+        private Long itemId;
+
+        @Min(1)
+        private int count;
+    }
+}
@@ -7,6 +7,8 @@ import jpabook.jpashop.domain.repository.OrderRepository;
 import jpabook.jpashop.domain.repository.OrderSearch;
 import jpabook.jpashop.domain.repository.order.simplequery.OrderSimpleQueryDto;
 import jpabook.jpashop.domain.repository.order.simplequery.OrderSimpleQueryRepository;
+import jpabook.jpashop.domain.service.query.OrderQueryService;
+import jpabook.jpashop.domain.sql.SqlBudget;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,7 +16,6 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * xToOne(ManyToOne, OneToOne)
@@ -27,15 +28,16 @@ import java.util.stream.Collectors;
 public class OrderSimpleApiController {
     private final OrderRepository orderRepository;
     private final OrderSimpleQueryRepository orderSimpleQueryRepository;
+    private final OrderQueryService orderQueryService;
 
     @GetMapping("/api/v1/simple-orders")
     public List<Order> ordersV1() {
-        List<Order> orders = orderRepository.findAllByString(new OrderSearch());
-        for (Order order : orders) {
+        //OSIV 가 꺼져 있으므로 Lazy 강제 초기화는 트랜잭션 안(OrderQueryService)에서 해야 한다.
+        return orderQueryService.findAllByString(new OrderSearch(), order -> {
             order.getMember().getName();        //Lazy 강제 초기화
             order.getDelivery().getAddress();   //Lazy 강제 초기화
-        }
-        return orders;
+            return order;
+        });
     }
 
 
@@ -54,11 +56,7 @@ public class OrderSimpleApiController {
         //Order 2개 조회
         //1+N+N 문제에 직면 -> Order 1회 조회결과(2(N)개) + 회원(2(N)번) + 배송(2(N)번) , 이리하여 Order 결과 2개에 대해 회원과 배송이 각각 2번씩 더 실행된다.
         //결국, Order 조회 결과 쿼리가 총 5개의 쿼리가 수행된다. 이는 결과 row수가 증가하는 만큼 그 수가 더 늘어난다.
-        List<Order> orders = orderRepository.findAllByString(new OrderSearch());
-
-        return orders.stream()
-                .map(SimpleOrderDto::new)
-                .collect(Collectors.toList());
+        return orderQueryService.findAllByString(new OrderSearch(), SimpleOrderDto::new);
     }
 
 
@@ -67,12 +65,10 @@ public class OrderSimpleApiController {
      * 한번에 모두 조인해서 데이터를 모두 조회하여 리턴하도록 개선함으로 성능 향상을 도모한 버전이다.
      * @return
      */
+    @SqlBudget(1)
     @GetMapping("/api/v3/simple-orders")
     public List<SimpleOrderDto> ordersV3() {
-        List<Order> orders = orderRepository.findAllWithMemberDelivery();
-        return orders.stream()
-                .map(SimpleOrderDto::new)
-                .collect(Collectors.toList());
+        return orderQueryService.findAllWithMemberDelivery(SimpleOrderDto::new);
     }
 /*
     --/api/v3/simple-orders 호출 시 생성 쿼리
@@ -131,6 +127,7 @@ public class OrderSimpleApiController {
      *
      * @return
      */
+    @SqlBudget(1)
     @GetMapping("/api/v4/simple-orders")
     public List<OrderSimpleQueryDto> ordersV4() {
         return orderSimpleQueryRepository.findOrderDtos();
@@ -160,6 +157,22 @@ public class OrderSimpleApiController {
 
 
 
+    /**
+     * 검색 조건 버전
+     * QueryDSL 로 조건(상태, 회원 이름, 주문일 기간, 상품 이름)이 있는 것만 where 절에 넣고, 결과는 DTO로 바로 조회한다.
+     * 예> /api/v5/simple-orders?orderStatus=ORDER&memberName=user&orderDateFrom=2021-10-01&orderDateTo=2021-10-31&itemName=JPA
+     * @param orderSearch
+     * @return
+     */
+    @SqlBudget(1)
+    @GetMapping("/api/v5/simple-orders")
+    public List<OrderSimpleQueryDto> ordersV5(OrderSearch orderSearch) {
+        return orderRepository.findAllDto(orderSearch);
+    }
+
+
+
+
     @Data
     static class SimpleOrderDto {
         private Long orderId;
@@ -0,0 +1,86 @@
+package jpabook.jpashop.domain.api;
+
+import jpabook.jpashop.domain.repository.sales.DailySalesDto;
+import jpabook.jpashop.domain.repository.sales.ItemSalesDto;
+import jpabook.jpashop.domain.sales.SalesAggregator;
+import jpabook.jpashop.domain.service.query.MemberMonthlySalesView;
+import jpabook.jpashop.domain.service.query.SalesQueryService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class SalesReportApiController {
+    private final SalesQueryService salesQueryService;
+    private final SalesAggregator salesAggregator;
+
+    /**
+     * 기간 내 상품별 매출(취소 차감), 매출 많은 순서
+     * 예> /api/reports/sales/items?from=2024-01-01&to=2024-01-31&limit=10
+     */
+    @GetMapping("/api/reports/sales/items")
+    public Result<List<ItemSalesDto>> itemSales(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "limit", defaultValue = "100") int limit)
+    {
+        validatePeriod(from, to);
+        if (limit < 1 || limit > 1000) {
+            throw new IllegalArgumentException("limit 은 1 ~ 1000 사이여야 합니다.");
+        }
+        return new Result<>(salesQueryService.findItemSales(from, to, limit));
+    }
+
+    /**
+     * 기간 내 일별 매출
+     * 예> /api/reports/sales/daily?from=2024-01-01&to=2024-01-31
+     */
+    @GetMapping("/api/reports/sales/daily")
+    public Result<List<DailySalesDto>> dailySales(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to)
+    {
+        validatePeriod(from, to);
+        return new Result<>(salesQueryService.findDailySales(from, to));
+    }
+
+    /**
+     * 회원 월별 구매 집계
+     */
+    @GetMapping("/api/reports/sales/members/{memberId}/monthly")
+    public Result<List<MemberMonthlySalesView>> memberMonthlySales(@PathVariable("memberId") Long memberId) {
+        return new Result<>(salesQueryService.findMemberMonthlySales(memberId));
+    }
+
+    /**
+     * 집계를 주문 데이터에서 다시 만든다.(최초 적재, 복구)
+     */
+    @PostMapping("/api/reports/sales/rebuild")
+    public RebuildResponse rebuild() {
+        return new RebuildResponse(salesAggregator.rebuild());
+    }
+
+    private void validatePeriod(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from 은 to 보다 늦을 수 없습니다.");
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class Result<T> {
+        private T data;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class RebuildResponse {
+        private long feedSeq;
+    }
+}
@@ -0,0 +1,25 @@
+package jpabook.jpashop.domain.api;
+
+import jpabook.jpashop.domain.sql.SqlBudgetStats;
+import jpabook.jpashop.domain.sql.SqlBudgetStats.SqlBudgetReport;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+public class SqlBudgetApiController {
+    private final SqlBudgetStats sqlBudgetStats;
+
+    /**
+     * API별 SQL 실행 통계
+     * suspectedNPlusOne 가 0 보다 큰 API는 lastRepeatedShape 의 SQL이 루프 안에서 실행되고 있는지 확인한다.
+     * @return
+     */
+    @GetMapping("/api/sql/budgets")
+    public Map<String, SqlBudgetReport> budgets() {
+        return sqlBudgetStats.getReports();
+    }
+}
@@ -0,0 +1,156 @@
+package jpabook.jpashop.domain.catalog;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jpabook.jpashop.domain.item.Item;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 상품 목록(카탈로그) 읽기 캐시(read-through)
+ * /items, /order 화면을 그릴 때마다 상품 전체를 DB에서 읽지 않도록 상품 스냅샷(ItemSnapshot)을 메모리에 보관한다.
+ *
+ * 캐시는 두가지로 나눠서 관리한다.
+ *   1) 상품 id 목록 : 상품이 추가/삭제될 때만 무효화
+ *   2) 상품별 스냅샷 : 그 상품이 수정될 때(이름, 가격, 재고)만 해당 상품 하나를 무효화
+ * 그래서 한 상품의 재고가 바뀌어도 나머지 상품은 캐시에서 그대로 읽는다.
+ *
+ * 최대 개수(jpashop.catalog.max-size)를 넘으면 오래 안 쓴 것부터, 저장 후 ttl-seconds 가 지나면 무조건 버린다.
+ * 무효화는 ItemCatalogListener(엔티티 변경)와 StockLedgerFlusher(벌크 update)가 트랜잭션 커밋 후에 호출한다.
+ */
+@Component
+public class ItemCatalogCache {
+
+    private static final String CATALOG_KEY = "ALL";
+
+    private final Cache<String, List<Long>> catalog;
+    private final Cache<Long, ItemSnapshot> snapshots;
+
+    //무효화 횟수, 스냅샷을 DB에서 읽는 사이에 무효화가 일어났는지 확인하는 용도로도 쓴다.
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ItemCatalogCache(@Value("${jpashop.catalog.max-size:10000}") long maxSize,
+                            @Value("${jpashop.catalog.ttl-seconds:60}") long ttlSeconds) {
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        this.catalog = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .build();
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 상품 전체 스냅샷(id 순)
+     * 캐시에 없는 상품만 itemLoader 로 IN 쿼리 한번에 읽어서 채운다.
+     * @param idLoader 상품 id 전체 조회
+     * @param itemLoader id 목록으로 상품 조회
+     */
+    public List<ItemSnapshot> getAll(Supplier<List<Long>> idLoader, Function<Collection<Long>, List<Item>> itemLoader) {
+        List<Long> ids = catalog.get(CATALOG_KEY, key -> List.copyOf(idLoader.get()));
+
+        Map<Long, ItemSnapshot> present = snapshots.getAllPresent(ids);
+        Map<Long, ItemSnapshot> loaded = Map.of();
+        if (present.size() < ids.size()) {
+            Set<Long> missing = ids.stream()
+                    .filter(id -> !present.containsKey(id))
+                    .collect(Collectors.toSet());
+
+            long stamp = invalidations.get();
+            loaded = itemLoader.apply(missing).stream()
+                    .map(ItemSnapshot::of)
+                    .collect(Collectors.toMap(ItemSnapshot::getId, Function.identity()));
+            snapshots.putAll(loaded);
+
+            //DB에서 읽는 동안 무효화가 있었다면 방금 넣은 값이 이미 지난 값일 수 있으므로 다시 버린다.
+            if (invalidations.get() != stamp) {
+                snapshots.invalidateAll(loaded.keySet());
+            }
+        }
+
+        List<ItemSnapshot> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ItemSnapshot snapshot = present.containsKey(id) ? present.get(id) : loaded.get(id);
+            if (snapshot != null) {     //id 목록을 읽은 뒤 삭제된 상품
+                result.add(snapshot);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 상품 하나의 스냅샷 무효화(수정, 재고 변경)
+     * 트랜잭션 안에서 호출되면 커밋된 후에 무효화한다.
+     * 커밋 전에 버리면 다른 요청이 아직 커밋 전의 값을 다시 캐시에 넣을 수 있다.
+     */
+    public void evict(Long itemId) {
+        afterCommit(() -> {
+            invalidations.incrementAndGet();
+            snapshots.invalidate(itemId);
+        });
+    }
+
+    /**
+     * 상품 id 목록 무효화(상품 추가, 삭제)
+     */
+    public void evictCatalog() {
+        afterCommit(() -> {
+            invalidations.incrementAndGet();
+            catalog.invalidate(CATALOG_KEY);
+        });
+    }
+
+    public CatalogCacheStats stats() {
+        CacheStats stats = snapshots.stats();
+        return new CatalogCacheStats(
+                snapshots.estimatedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount(),
+                invalidations.get());
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+
+    @Data
+    @AllArgsConstructor
+    public static class CatalogCacheStats {
+        private long size;
+        private long hitCount;
+        private long missCount;
+        private double hitRate;
+        private long evictionCount;     //크기, TTL 로 버려진 수
+        private long invalidationCount; //상품 변경으로 무효화된 수
+    }
+}
@@ -0,0 +1,40 @@
+package jpabook.jpashop.domain.catalog;
+
+import jpabook.jpashop.domain.item.Item;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * 상품 엔티티 변경을 카탈로그 캐시에 알린다.
+ * 변경 감지로 update 가 실행되는 모든 경우(updateItem, saveItem 의 merge, 주문/취소 시 Item.removeStock()/addStock())에
+ * 바뀐 상품 하나만 무효화한다.
+ * 벌크 update(ItemRepository.removeStock)는 엔티티 리스너를 거치지 않으므로 호출하는 쪽에서 직접 무효화한다.
+ *
+ * 스프링 부트는 하이버네이트가 엔티티 리스너를 스프링 빈으로 만들도록 설정하므로 생성자 주입을 받을 수 있다.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemCatalogListener {
+
+    private final ItemCatalogCache catalogCache;
+
+    @PostPersist
+    public void postPersist(Item item) {
+        catalogCache.evictCatalog();
+    }
+
+    @PostUpdate
+    public void postUpdate(Item item) {
+        catalogCache.evict(item.getId());
+    }
+
+    @PostRemove
+    public void postRemove(Item item) {
+        catalogCache.evict(item.getId());
+        catalogCache.evictCatalog();
+    }
+}
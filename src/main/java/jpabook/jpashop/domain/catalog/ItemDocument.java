@@ -0,0 +1,44 @@
+package jpabook.jpashop.domain.catalog;
+
+import jpabook.jpashop.domain.item.Album;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.domain.item.Movie;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.hibernate.Hibernate;
+
+/**
+ * 상품 검색 색인(ItemSearchIndex)에 넣는 상품 한 건, 검색 대상 필드와 결과 표시용 필드만 가진다.
+ * version 은 Item.version, 스냅샷 파일과 DB가 다른지 비교하는 데 쓴다.
+ */
+@Getter
+@AllArgsConstructor
+public class ItemDocument {
+    private final Long id;
+    private final Long version;
+    private final String type;      //Book, Album, Movie
+    private final String name;
+    private final int price;
+    private final String author;
+    private final String isbn;
+    private final String artist;
+    private final String director;
+    private final String actor;
+
+    public static ItemDocument of(Item item) {
+        Item target = (Item) Hibernate.unproxy(item);
+        String author = null, isbn = null, artist = null, director = null, actor = null;
+        if (target instanceof Book) {
+            author = ((Book) target).getAuthor();
+            isbn = ((Book) target).getIsbn();
+        } else if (target instanceof Album) {
+            artist = ((Album) target).getArtist();
+        } else if (target instanceof Movie) {
+            director = ((Movie) target).getDirector();
+            actor = ((Movie) target).getActor();
+        }
+        return new ItemDocument(target.getId(), target.getVersion(), target.getClass().getSimpleName(),
+                target.getName(), target.getPrice(), author, isbn, artist, director, actor);
+    }
+}
@@ -0,0 +1,402 @@
+package jpabook.jpashop.domain.catalog;
+
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.domain.repository.ItemRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 상품 검색 색인(메모리 역색인 + BM25 점수)
+ * 상품 이름, Book.author/isbn, Album.artist, Movie.director/actor 를 토큰으로 나눠서 토큰 -> (상품 id, 가중 빈도) 를 보관한다.
+ *   토큰 : NFKC 정규화, 소문자, 글자/숫자가 아닌 문자로 나눈 단어. 한글 단어는 2글자 조각도 함께 넣는다.(조사가 붙은 단어 부분 검색)
+ *          isbn 은 '-' 를 뺀 전체 번호도 넣는다.
+ *   점수 : BM25(k1 = 1.2, b = 0.75), 이름에 나온 토큰은 NAME_WEIGHT 번 나온 것으로 센다.
+ *
+ * 기동이 끝나면(ApplicationReadyEvent) 스냅샷 파일(jpashop.search.snapshot-file)이 있으면 읽고 DB의 (id, version, 이름, 가격)과 다른 상품만 다시 읽는다.
+ * 파일이 없으면 DB 전체를 id 순으로 읽어서 만든다.
+ * 상품 등록/수정(ItemService)은 커밋 후에 반영하고, 스냅샷은 바뀐 것이 있을 때 snapshot-interval 마다, 종료할 때 저장한다.
+ *
+ * 색인 변경(index)은 한번에 하나씩, 검색은 락 없이 한다.
+ */
+@Slf4j
+@Component
+public class ItemSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int NAME_WEIGHT = 2;
+    private static final int CHUNK_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Path snapshotFile;
+
+    //상품 id -> 색인한 상품
+    private final Map<Long, IndexedItem> items = new ConcurrentHashMap<>();
+    //토큰 -> (상품 id -> 가중 빈도)
+    private final Map<String, Map<Long, Integer>> postings = new ConcurrentHashMap<>();
+    private final AtomicLong totalLength = new AtomicLong();
+
+    //마지막 스냅샷 이후 색인 변경이 있었는지, 기동 시 색인을 다 채우기 전에는 스냅샷을 저장하지 않는다.
+    private final AtomicLong changes = new AtomicLong();
+    private volatile long savedChanges;
+    private volatile boolean ready;
+    //주기 저장(@Scheduled)과 종료 시 저장(@PreDestroy)이 겹칠 수 있으므로 스냅샷 저장은 한번에 하나씩
+    private final Object snapshotLock = new Object();
+
+    public ItemSearchIndex(ItemRepository itemRepository,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${jpashop.search.snapshot-file:}") String snapshotFile) {
+        this.itemRepository = itemRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.snapshotFile = snapshotFile == null || snapshotFile.isBlank() ? null : Paths.get(snapshotFile);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.currentTimeMillis();
+        if (snapshotFile != null && Files.exists(snapshotFile)) {
+            try {
+                List<ItemDocument> documents = ItemSearchSnapshot.read(snapshotFile);
+                documents.forEach(this::index);
+                int reloaded = reconcile(documents);
+                log.info("상품 검색 색인 스냅샷 적재 완료, 상품 {}개, DB에서 다시 읽은 상품 {}개, {}ms",
+                        documents.size(), reloaded, System.currentTimeMillis() - start);
+                ready = true;
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.warn("상품 검색 색인 스냅샷을 읽지 못했습니다. DB에서 다시 만듭니다. {}", snapshotFile, e);
+            }
+        }
+
+        rebuild();
+        log.info("상품 검색 색인 생성 완료, 상품 {}개, 토큰 {}개, {}ms", items.size(), postings.size(), System.currentTimeMillis() - start);
+        ready = true;
+    }
+
+    /**
+     * 트랜잭션 안이면 커밋 후에 색인한다.(커밋 후에 읽어야 올라간 version 이 들어간다)
+     */
+    public void indexAfterCommit(Item item) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    index(ItemDocument.of(item));
+                }
+            });
+        } else {
+            index(ItemDocument.of(item));
+        }
+    }
+
+    /**
+     * 상품 색인(이미 있으면 이전 토큰을 지우고 다시 만든다)
+     * 이미 더 높은 version 으로 색인되어 있으면 무시한다.(기동 중 DB에서 읽은 값이 그 사이 커밋된 수정을 덮지 않도록)
+     */
+    public synchronized void index(ItemDocument document) {
+        IndexedItem previous = items.get(document.getId());
+        if (previous != null && isNewer(previous.getDocument().getVersion(), document.getVersion())) {
+            return;
+        }
+
+        Map<String, Integer> terms = terms(document);
+        int length = terms.values().stream().mapToInt(Integer::intValue).sum();
+        items.put(document.getId(), new IndexedItem(document, terms, length));
+
+        if (previous != null) {
+            unpost(document.getId(), previous);
+        }
+        for (Map.Entry<String, Integer> term : terms.entrySet()) {
+            postings.computeIfAbsent(term.getKey(), key -> new ConcurrentHashMap<>()).put(document.getId(), term.getValue());
+        }
+        totalLength.addAndGet(length);
+        changes.incrementAndGet();
+    }
+
+    public synchronized void remove(Long itemId) {
+        IndexedItem previous = items.remove(itemId);
+        if (previous != null) {
+            unpost(itemId, previous);
+            changes.incrementAndGet();
+        }
+    }
+
+    /**
+     * BM25 점수 순으로 page 번째(0부터) size 개, 점수가 같으면 상품 id 순
+     * 검색어 토큰 중 하나라도 들어있는 상품이 결과가 된다.
+     */
+    public ItemSearchPage search(String query, int page, int size) {
+        Set<String> queryTerms = new LinkedHashSet<>(tokenize(query));
+        if (queryTerms.isEmpty()) {
+            return new ItemSearchPage(0, page, size, List.of());
+        }
+
+        int documentCount = Math.max(1, items.size());
+        double averageLength = Math.max(1.0, (double) totalLength.get() / documentCount);
+        Map<Long, Double> scores = new HashMap<>();
+        for (String term : queryTerms) {
+            Map<Long, Integer> posting = postings.get(term);
+            if (posting == null) {
+                continue;
+            }
+            double idf = Math.log(1 + (documentCount - posting.size() + 0.5) / (posting.size() + 0.5));
+            for (Map.Entry<Long, Integer> entry : posting.entrySet()) {
+                IndexedItem item = items.get(entry.getKey());
+                if (item == null) {
+                    continue;
+                }
+                double tf = entry.getValue();
+                double score = idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * item.getLength() / averageLength));
+                scores.merge(entry.getKey(), score, Double::sum);
+            }
+        }
+
+        //앞 페이지까지 포함한 상위 (page + 1) * size 개만 힙에 남긴다.(점수가 가장 낮은 것이 맨 앞)
+        long keep = Math.min((long) (page + 1) * size, scores.size());
+        Comparator<Map.Entry<Long, Double>> rank = Map.Entry.<Long, Double>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey());
+        PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>((int) Math.max(1, keep), rank.reversed());
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            top.add(entry);
+            if (top.size() > keep) {
+                top.poll();
+            }
+        }
+
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(top);
+        ranked.sort(rank);
+        List<ItemSearchResult> results = new ArrayList<>();
+        for (int i = (int) Math.min((long) page * size, ranked.size()); i < ranked.size(); i++) {
+            IndexedItem item = items.get(ranked.get(i).getKey());
+            if (item == null) {     //점수를 계산한 뒤 지워진 상품
+                continue;
+            }
+            ItemDocument document = item.getDocument();
+            results.add(new ItemSearchResult(document.getId(), document.getType(), document.getName(), document.getPrice(), ranked.get(i).getValue()));
+        }
+        return new ItemSearchPage(scores.size(), page, size, results);
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * 바뀐 것이 있으면 스냅샷 저장
+     * @return 저장했으면 true
+     */
+    @Scheduled(fixedDelayString = "${jpashop.search.snapshot-interval:60000}")
+    public boolean saveSnapshot() {
+        synchronized (snapshotLock) {
+            long current = changes.get();
+            if (snapshotFile == null || !ready || current == savedChanges) {
+                return false;
+            }
+
+            List<ItemDocument> documents = new ArrayList<>(items.size());
+            items.values().forEach(item -> documents.add(item.getDocument()));
+            try {
+                ItemSearchSnapshot.write(snapshotFile, documents);
+                savedChanges = current;
+                log.debug("상품 검색 색인 스냅샷 저장, 상품 {}개", documents.size());
+                return true;
+            } catch (IOException e) {
+                log.warn("상품 검색 색인 스냅샷 저장 실패 {}", snapshotFile, e);
+                return false;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        saveSnapshot();
+    }
+
+    /**
+     * DB 전체 상품을 id 순으로 CHUNK_SIZE 개씩(트랜잭션 하나씩) 읽어서 색인
+     */
+    private void rebuild() {
+        Long lastId = 0L;
+        while (lastId != null) {
+            Long from = lastId;
+            lastId = transactionTemplate.execute(status -> {
+                List<Item> chunk = itemRepository.findAllAfter(from, CHUNK_SIZE);
+                chunk.forEach(item -> index(ItemDocument.of(item)));
+                return chunk.size() < CHUNK_SIZE ? null : chunk.get(chunk.size() - 1).getId();
+            });
+        }
+    }
+
+    /**
+     * 스냅샷과 DB의 (id, version, 이름, 가격)을 비교해서 다른 상품만 DB에서 다시 읽고, DB에 없는 상품은 지운다.
+     * 스냅샷 이후 커밋 후 색인이 빠진 변경(재고 변경 등 version 만 바뀐 경우 포함)도 여기서 맞춰진다.
+     * DB를 새로 만들어서 id, version 이 같은 값으로 다시 시작한 경우는 이름, 가격이 다른 상품만 찾아낼 수 있다.(저자 등 나머지 필드만 다르면 못 찾는다)
+     * @return 다시 읽은 상품 수
+     */
+    private int reconcile(List<ItemDocument> snapshot) {
+        Map<Long, ItemVersion> versions = new HashMap<>();
+        transactionTemplate.execute(status -> itemRepository.findAllVersions())
+                .forEach(version -> versions.put(version.getId(), version));
+
+        for (ItemDocument document : snapshot) {
+            if (!versions.containsKey(document.getId())) {
+                remove(document.getId());
+            }
+        }
+
+        List<Long> stale = new ArrayList<>();
+        versions.forEach((id, version) -> {
+            IndexedItem indexed = items.get(id);
+            if (indexed == null || !matches(indexed.getDocument(), version)) {
+                stale.add(id);
+            }
+        });
+        for (int from = 0; from < stale.size(); from += CHUNK_SIZE) {
+            List<Long> ids = stale.subList(from, Math.min(from + CHUNK_SIZE, stale.size()));
+            transactionTemplate.executeWithoutResult(status ->
+                    itemRepository.findAllById(ids).forEach(item -> index(ItemDocument.of(item))));
+        }
+        return stale.size();
+    }
+
+    private static boolean matches(ItemDocument document, ItemVersion version) {
+        return Objects.equals(document.getVersion(), version.getVersion())
+                && Objects.equals(document.getName(), version.getName())
+                && document.getPrice() == version.getPrice();
+    }
+
+    private void unpost(Long itemId, IndexedItem previous) {
+        for (String term : previous.getTerms().keySet()) {
+            Map<Long, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(itemId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength.addAndGet(-previous.getLength());
+    }
+
+    private static boolean isNewer(Long indexedVersion, Long version) {
+        return indexedVersion != null && version != null && indexedVersion > version;
+    }
+
+    /**
+     * 상품의 토큰별 가중 빈도
+     */
+    static Map<String, Integer> terms(ItemDocument document) {
+        Map<String, Integer> terms = new HashMap<>();
+        for (String token : tokenize(document.getName())) {
+            terms.merge(token, NAME_WEIGHT, Integer::sum);
+        }
+        for (String field : new String[]{document.getAuthor(), document.getArtist(), document.getDirector(), document.getActor()}) {
+            for (String token : tokenize(field)) {
+                terms.merge(token, 1, Integer::sum);
+            }
+        }
+        if (document.getIsbn() != null) {
+            Set<String> isbnTokens = new HashSet<>(tokenize(document.getIsbn()));
+            isbnTokens.addAll(tokenize(document.getIsbn().replace("-", "")));
+            isbnTokens.forEach(token -> terms.merge(token, 1, Integer::sum));
+        }
+        return terms;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean letter = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                addWord(tokens, normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static void addWord(List<String> tokens, String word) {
+        tokens.add(word);
+        if (word.length() > 2 && isHangul(word)) {
+            for (int i = 0; i + 2 <= word.length(); i++) {
+                tokens.add(word.substring(i, i + 2));
+            }
+        }
+    }
+
+    private static boolean isHangul(String word) {
+        return word.codePoints().anyMatch(c -> Character.UnicodeScript.of(c) == Character.UnicodeScript.HANGUL);
+    }
+
+
+    @Getter
+    @AllArgsConstructor
+    private static class IndexedItem {
+        private final ItemDocument document;
+        private final Map<String, Integer> terms;
+        private final int length;
+    }
+
+    /**
+     * 검색 결과 한 건
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class ItemSearchResult {
+        private final Long id;
+        private final String type;
+        private final String name;
+        private final int price;
+        private final double score;
+    }
+
+    /**
+     * 검색 결과 한 페이지
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class ItemSearchPage {
+        private final int total;        //검색어와 일치한 전체 상품 수
+        private final int page;
+        private final int size;
+        private final List<ItemSearchResult> items;
+    }
+}
@@ -0,0 +1,98 @@
+package jpabook.jpashop.domain.catalog;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 상품 검색 색인 스냅샷 파일(gzip)
+ * 역색인 대신 색인한 상품(ItemDocument)을 저장한다. 읽을 때 토큰화만 다시 하므로 DB에서 상품 전체를 읽는 것보다 빠르다.
+ *
+ * 파일 구조
+ *   magic, 상품 수
+ *   상품마다 : id, version(-1 이면 없음), type, price, name, author, isbn, artist, director, actor(문자열은 null 여부 + UTF)
+ *
+ * 임시 파일(같은 디렉토리, 쓸 때마다 새 이름)에 다 쓴 뒤 이름을 바꾸므로 쓰다가 죽어도 이전 스냅샷이 남는다.
+ */
+public final class ItemSearchSnapshot {
+
+    private static final int MAGIC = 0x4A495331;     //"JIS1"
+
+    private ItemSearchSnapshot() {
+    }
+
+    public static void write(Path path, Collection<ItemDocument> documents) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Path directory = path.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+
+        List<ItemDocument> copy = new ArrayList<>(documents);
+        try {
+            writeDocuments(temp, copy);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeDocuments(Path temp, List<ItemDocument> copy) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(temp))))) {
+            out.writeInt(MAGIC);
+            out.writeInt(copy.size());
+            for (ItemDocument document : copy) {
+                out.writeLong(document.getId());
+                out.writeLong(document.getVersion() == null ? -1 : document.getVersion());
+                out.writeUTF(document.getType());
+                out.writeInt(document.getPrice());
+                writeString(out, document.getName());
+                writeString(out, document.getAuthor());
+                writeString(out, document.getIsbn());
+                writeString(out, document.getArtist());
+                writeString(out, document.getDirector());
+                writeString(out, document.getActor());
+            }
+        }
+    }
+
+    public static List<ItemDocument> read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(path))))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("상품 검색 스냅샷 파일 형식이 아닙니다. " + path);
+            }
+            int count = in.readInt();
+            List<ItemDocument> documents = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long id = in.readLong();
+                long version = in.readLong();
+                String type = in.readUTF();
+                int price = in.readInt();
+                documents.add(new ItemDocument(id, version < 0 ? null : version, type, readString(in), price,
+                        readString(in), readString(in), readString(in), readString(in), readString(in)));
+            }
+            return documents;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
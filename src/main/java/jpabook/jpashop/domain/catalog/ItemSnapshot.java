@@ -0,0 +1,31 @@
+package jpabook.jpashop.domain.catalog;
+
+import jpabook.jpashop.domain.item.Item;
+import lombok.Getter;
+
+/**
+ * 상품 목록 화면용 불변 스냅샷
+ * 캐시에는 엔티티를 넣지 않는다. 엔티티는 영속성 컨텍스트에 묶여 있고 값이 바뀔 수 있으므로
+ * 여러 요청(스레드)이 함께 읽는 캐시에는 조회 시점의 값만 복사해서 보관한다.
+ */
+@Getter
+public final class ItemSnapshot {
+
+    private final Long id;
+    private final String name;
+    private final int price;
+    private final int stockQuantity;
+    private final Long version;
+
+    private ItemSnapshot(Long id, String name, int price, int stockQuantity, Long version) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.stockQuantity = stockQuantity;
+        this.version = version;
+    }
+
+    public static ItemSnapshot of(Item item) {
+        return new ItemSnapshot(item.getId(), item.getName(), item.getPrice(), item.getStockQuantity(), item.getVersion());
+    }
+}
@@ -0,0 +1,17 @@
+package jpabook.jpashop.domain.catalog;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 상품 id, 버전(Item.version), 이름, 가격, 검색 색인 스냅샷과 DB를 맞춰볼 때 쓴다.
+ * DB를 새로 만들면(ddl-auto: create) id 와 version 이 다시 같은 값부터 시작하므로 이름, 가격도 비교한다.
+ */
+@Getter
+@AllArgsConstructor
+public class ItemVersion {
+    private final Long id;
+    private final Long version;
+    private final String name;
+    private final int price;
+}
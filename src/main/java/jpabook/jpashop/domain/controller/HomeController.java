@@ -6,14 +6,11 @@ import jpabook.jpashop.domain.service.MemberService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Controller;
-import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
-import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 
 import javax.validation.Valid;
-import java.util.List;
 
 @Controller
 @Slf4j
@@ -44,10 +41,4 @@ public class HomeController {
         memberService.join(member);
         return "redirect:/";
     }
-
-    @GetMapping("/members")
-    public String list(Model model) {
-        model.addAttribute("members", memberService.findMembers());
-        return "members/memberList";
-    }
 }
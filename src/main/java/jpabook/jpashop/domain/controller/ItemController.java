@@ -1,8 +1,9 @@
 package jpabook.jpashop.domain.controller;
 
 import jpabook.jpashop.domain.item.Book;
-import jpabook.jpashop.domain.item.Item;
 import jpabook.jpashop.domain.service.ItemService;
+import jpabook.jpashop.domain.service.query.BookView;
+import jpabook.jpashop.domain.service.query.ItemQueryService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -16,6 +17,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 public class ItemController {
 
     private final ItemService itemService;
+    private final ItemQueryService itemQueryService;
 
     @GetMapping("/items/new")
     public String createForm(Model model) {
@@ -38,14 +40,14 @@ public class ItemController {
 
     @GetMapping("/items")
     public String list(Model model) {
-        model.addAttribute("items", itemService.findItems());
+        model.addAttribute("items", itemQueryService.findCatalog());
         return "items/itemList";
     }
 
 
     @GetMapping("items/{itemId}/edit")
     public String updateItemForm(@PathVariable("itemId") Long itemId, Model model) {
-        Book item = (Book) itemService.findOne(itemId);
+        BookView item = itemQueryService.findBook(itemId);
 
         BookForm bookForm = new BookForm();
         bookForm.setId(item.getId());
@@ -1,6 +1,6 @@
 package jpabook.jpashop.domain.controller;
 
-import jpabook.jpashop.domain.service.MemberService;
+import jpabook.jpashop.domain.service.query.MemberQueryService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -9,11 +9,17 @@ import org.springframework.web.bind.annotation.GetMapping;
 @Controller
 @RequiredArgsConstructor
 public class MemberController {
-    private final MemberService memberService;
+    private final MemberQueryService memberQueryService;
 
     @GetMapping("/members/new")
     public String createFrom(Model model) {
         model.addAttribute("memberForm", new MemberForm());
         return "members/createMemberForm";
     }
+
+    @GetMapping("/members")
+    public String list(Model model) {
+        model.addAttribute("members", memberQueryService.findMembers());
+        return "members/memberList";
+    }
 }
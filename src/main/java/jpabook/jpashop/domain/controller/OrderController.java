@@ -1,12 +1,13 @@
 package jpabook.jpashop.domain.controller;
 
-import jpabook.jpashop.domain.Member;
-import jpabook.jpashop.domain.Order;
-import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.domain.catalog.ItemSnapshot;
 import jpabook.jpashop.domain.repository.OrderSearch;
-import jpabook.jpashop.domain.service.ItemService;
-import jpabook.jpashop.domain.service.MemberService;
+import jpabook.jpashop.domain.service.IdempotencyService;
 import jpabook.jpashop.domain.service.OrderService;
+import jpabook.jpashop.domain.service.query.ItemQueryService;
+import jpabook.jpashop.domain.service.query.MemberQueryService;
+import jpabook.jpashop.domain.service.query.MemberView;
+import jpabook.jpashop.domain.service.query.OrderQueryService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -18,13 +19,15 @@ import java.util.List;
 @RequiredArgsConstructor
 public class OrderController {
     private final OrderService orderService;
-    private final MemberService memberService;
-    private final ItemService itemService;
+    private final OrderQueryService orderQueryService;
+    private final MemberQueryService memberQueryService;
+    private final ItemQueryService itemQueryService;
+    private final IdempotencyService idempotencyService;
 
     @GetMapping("/order")
     public String createForm(Model model) {
-        List<Member> members = memberService.findMembers();
-        List<Item> items = itemService.findItems();
+        List<MemberView> members = memberQueryService.findMembers();
+        List<ItemSnapshot> items = itemQueryService.findCatalog();
 
         model.addAttribute("members", members);
         model.addAttribute("items", items);
@@ -33,25 +36,34 @@ public class OrderController {
     }
 
 
+    /**
+     * Idempotency-Key 헤더를 보내면 같은 키로 다시 보낸 요청은 주문하지 않고 처음 결과를 그대로 사용한다.
+     */
     @PostMapping("/order")
-    public String order(@RequestParam("memberId") Long memberId,
+    public String order(@RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                        @RequestParam("memberId") Long memberId,
                         @RequestParam("itemId") Long itemId,
                         @RequestParam("count") int count) {
 
-        orderService.order(memberId, itemId, count);
+        idempotencyService.execute("order", idempotencyKey, memberId + "," + itemId + "," + count,
+                () -> orderService.order(memberId, itemId, count));
         return "redirect:/orders";
     }
 
     @GetMapping("/orders")
     public String orderList(@ModelAttribute("orderSearch") OrderSearch orderSearch, Model model) {
-        model.addAttribute("orders", orderService.findOrders(orderSearch));
+        model.addAttribute("orders", orderQueryService.findOrderViews(orderSearch));
         return "order/orderList";
     }
 
 
     @PostMapping("/orders/{orderId}/cancel")
-    public String cancelOrder(@PathVariable("orderId") Long orderId) {
-        orderService.cancelOrder(orderId);
+    public String cancelOrder(@RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                              @PathVariable("orderId") Long orderId) {
+        idempotencyService.execute("cancel", idempotencyKey, String.valueOf(orderId), () -> {
+            orderService.cancelOrder(orderId);
+            return orderId;
+        });
         return "redirect:/orders";
     }
 }
@@ -0,0 +1,87 @@
+package jpabook.jpashop.domain.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+
+/**
+ * 레플리카 복제 지연 감시
+ * 프라이머리의 replication_heartbeat 테이블에 주기적으로 현재 시각을 쓰고, 레플리카에 복제된 값을 읽어서 지연 시간을 잰다.
+ *   지연 = 현재 시각 - 레플리카가 가진 마지막 heartbeat 시각
+ * 지연이 max-lag(ms)를 넘거나 레플리카 조회가 실패하면 레플리카를 쓰지 않는다.(읽기도 프라이머리로)
+ * 복제가 정상이어도 지연은 최대 확인 주기(lag-check-interval)만큼 나오므로 max-lag 는 주기보다 크게 잡는다.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    static final String CREATE_HEARTBEAT_TABLE =
+            "create table if not exists replication_heartbeat (id int primary key, beat_at timestamp not null)";
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagMillis;
+
+    private volatile boolean replicaAvailable = false;     //첫 확인 전에는 프라이머리 사용
+    private volatile long lagMillis = -1;
+    private volatile boolean heartbeatTableReady = false;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, long maxLagMillis) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLagMillis = maxLagMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${jpashop.datasource.routing.lag-check-interval:1000}")
+    public void check() {
+        try {
+            beat();
+        } catch (RuntimeException e) {
+            //프라이머리 장애는 레플리카 사용 여부와 관계없으므로 기록만 한다.
+            log.warn("프라이머리 heartbeat 기록 실패", e);
+        }
+
+        try {
+            Timestamp replicaBeat = replica.queryForObject(
+                    "select beat_at from replication_heartbeat where id = 1", Timestamp.class);
+            lagMillis = System.currentTimeMillis() - replicaBeat.getTime();
+            changeAvailability(lagMillis <= maxLagMillis);
+        } catch (RuntimeException e) {
+            lagMillis = -1;
+            changeAvailability(false);
+            log.debug("레플리카 heartbeat 조회 실패", e);
+        }
+    }
+
+    public boolean isReplicaAvailable() {
+        return replicaAvailable;
+    }
+
+    /**
+     * 마지막으로 확인한 복제 지연(ms), 확인하지 못했으면 -1
+     */
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    private void beat() {
+        if (!heartbeatTableReady) {
+            primary.execute(CREATE_HEARTBEAT_TABLE);
+            heartbeatTableReady = true;
+        }
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        if (primary.update("update replication_heartbeat set beat_at = ? where id = 1", now) == 0) {
+            primary.update("insert into replication_heartbeat (id, beat_at) values (1, ?)", now);
+        }
+    }
+
+    private void changeAvailability(boolean available) {
+        if (replicaAvailable != available) {
+            log.warn("레플리카 {} (lag={}ms, max-lag={}ms)", available ? "사용" : "사용 중지, 프라이머리로 전환", lagMillis, maxLagMillis);
+        }
+        replicaAvailable = available;
+    }
+}
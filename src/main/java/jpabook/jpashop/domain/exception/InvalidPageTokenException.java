@@ -0,0 +1,19 @@
+package jpabook.jpashop.domain.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 키셋 페이징 토큰(OrderCursor)을 해석할 수 없는 경우, 클라이언트 요청 오류(400)로 응답한다.
+ */
+@ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "잘못된 페이지 토큰입니다.")
+public class InvalidPageTokenException extends IllegalArgumentException {
+
+    public InvalidPageTokenException(String message) {
+        super(message);
+    }
+
+    public InvalidPageTokenException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
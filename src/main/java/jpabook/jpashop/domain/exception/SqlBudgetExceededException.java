@@ -0,0 +1,19 @@
+package jpabook.jpashop.domain.exception;
+
+public class SqlBudgetExceededException extends RuntimeException {
+    public SqlBudgetExceededException() {
+        super();
+    }
+
+    public SqlBudgetExceededException(String message) {
+        super(message);
+    }
+
+    public SqlBudgetExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public SqlBudgetExceededException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,96 @@
+package jpabook.jpashop.domain.execution;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 요청 처리 스레드 모드(jpashop.execution.mode)
+ *   platform : 톰캣 스레드 풀(server.tomcat.threads.max)에서 요청을 처리한다.(기본값)
+ *   virtual  : 요청마다 가상 스레드를 만들어 처리한다. 컨트롤러, @Transactional 서비스, JDBC 호출 모두 그 가상 스레드에서 실행된다.
+ *
+ * 가상 스레드 모드에서는 동시에 처리하는 요청 수가 스레드 풀 크기로 제한되지 않으므로
+ * HikariCP 데이터소스를 ConnectionLimitingDataSource 로 감싸서 커넥션 풀 크기만큼만 DB에 들어가게 한다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "jpashop.execution.mode", havingValue = "virtual")
+public class VirtualThreadConfig {
+
+    /**
+     * java.util.concurrent.Executor 빈이 있으므로 스프링 부트 기본 applicationTaskExecutor 는 만들어지지 않는다.(이 프로젝트는 @Async 를 쓰지 않는다)
+     */
+    @Bean
+    public ExecutorService requestExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-vt-", 0).factory());
+    }
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadTomcatCustomizer(ExecutorService requestExecutor) {
+        return factory -> factory.addProtocolHandlerCustomizers(protocolHandler -> protocolHandler.setExecutor(requestExecutor));
+    }
+
+    @Bean
+    public static ConnectionLimitingPostProcessor connectionLimitingPostProcessor() {
+        return new ConnectionLimitingPostProcessor();
+    }
+
+    /**
+     * 풀 이름별 커넥션 대기 스레드 수
+     * 데이터소스 빈이 모두 만들어진 뒤에 등록해야 하므로 SmartInitializingSingleton 으로 등록한다.
+     */
+    @Bean
+    public SmartInitializingSingleton connectionLimiterMetrics(ConnectionLimitingPostProcessor postProcessor, MeterRegistry registry) {
+        return () -> postProcessor.getLimiters().forEach((pool, limiter) ->
+                Gauge.builder("jpashop.datasource.connections.waiting", limiter, ConnectionLimitingDataSource::getWaitingThreads)
+                        .description("커넥션 풀 앞에서 기다리는 스레드 수")
+                        .tag("pool", pool)
+                        .register(registry));
+    }
+
+
+    /**
+     * HikariDataSource 빈을 풀 크기(maximumPoolSize)와 대기 시간(connectionTimeout)이 같은 ConnectionLimitingDataSource 로 감싼다.
+     * 읽기/쓰기 분리(DataSourceRoutingConfig) 시에는 프라이머리, 레플리카 풀을 각각 감싼다.
+     * p6spy 가 먼저 감싸면 HikariDataSource 타입을 알아볼 수 없으므로 가장 먼저 실행한다.
+     */
+    static class ConnectionLimitingPostProcessor implements BeanPostProcessor, PriorityOrdered {
+
+        private final Map<String, ConnectionLimitingDataSource> limiters = new ConcurrentHashMap<>();
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof HikariDataSource)) {
+                return bean;
+            }
+
+            HikariDataSource dataSource = (HikariDataSource) bean;
+            ConnectionLimitingDataSource limiter = new ConnectionLimitingDataSource(
+                    dataSource, dataSource.getMaximumPoolSize(), dataSource.getConnectionTimeout());
+            limiters.put(dataSource.getPoolName() != null ? dataSource.getPoolName() : beanName, limiter);
+            return limiter;
+        }
+
+        Map<String, ConnectionLimitingDataSource> getLimiters() {
+            return limiters;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
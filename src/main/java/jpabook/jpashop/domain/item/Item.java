@@ -1,9 +1,12 @@
 package jpabook.jpashop.domain.item;
 
 import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.catalog.ItemCatalogListener;
 import jpabook.jpashop.domain.exception.NotEnoughStockException;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -12,6 +15,10 @@ import java.util.List;
 @Entity
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @DiscriminatorColumn(name = "dtype")
+@EntityListeners(ItemCatalogListener.class)    //변경 시 카탈로그 캐시 무효화
+//2차 캐시, 하위 타입(Book, Album, Movie)도 같은 영역을 쓴다.
+//벌크 update(ItemRepository.removeStock)가 실행되면 하이버네이트가 영역 전체를 비운다.
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "item")
 @Getter @Setter
 public abstract class Item {
     @Id
@@ -23,6 +30,10 @@ public abstract class Item {
     private int price;
     private int stockQuantity;
 
+    //낙관적 락, 동시에 재고를 수정하면 나중에 커밋하는 쪽이 실패한다.(변경 유실 방지)
+    @Version
+    private Long version;
+
     @ManyToMany(mappedBy = "items")
     private List<Category> categories = new ArrayList<>();
 
@@ -0,0 +1,14 @@
+package jpabook.jpashop.domain.member;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 회원 id 와 이름(검색 색인 초기화용 조회 결과)
+ */
+@Getter
+@AllArgsConstructor
+public class MemberName {
+    private final Long id;
+    private final String name;
+}
@@ -0,0 +1,145 @@
+package jpabook.jpashop.domain.member;
+
+import jpabook.jpashop.domain.repository.MemberRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * 가입된 회원 이름(Member.normalizedName)의 블룸 필터
+ * mightContain 이 false 이면 그 이름은 확실히 없으므로 회원 가입 시 중복 조회 쿼리를 생략한다.
+ * true 이면 있을 수도 있으므로(오탐률 false-positive-rate) DB에서 확인한다.
+ *
+ * 기동이 끝나면(ApplicationReadyEvent) 전체 회원 이름으로 채우고, 그 전에는 항상 true 를 리턴한다.
+ * 블룸 필터는 삭제를 할 수 없으므로 이름이 바뀌거나 가입이 롤백되어도 남아있다.(오탐만 늘어나고 누락은 없다)
+ * 다른 인스턴스에서 가입한 이름은 모르므로 최종 중복 판단은 유니크 제약(uk_member_normalized_name)이 한다.
+ */
+@Slf4j
+@Component
+public class MemberNameFilter {
+
+    private final MemberRepository memberRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+
+    private final AtomicLongArray bits;
+    private final long bitSize;
+    private final int hashCount;
+
+    private volatile boolean ready;
+    private final AtomicLong skipped = new AtomicLong();
+
+    public MemberNameFilter(MemberRepository memberRepository,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${jpashop.member.name-filter.enabled:true}") boolean enabled,
+                            @Value("${jpashop.member.name-filter.expected-names:1000000}") long expectedNames,
+                            @Value("${jpashop.member.name-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.memberRepository = memberRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+
+        //m = -n ln(p) / (ln 2)^2, k = m / n * ln 2
+        long bitSize = (long) Math.ceil(-expectedNames * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = new AtomicLongArray(Math.toIntExact((bitSize + 63) / 64));
+        this.bitSize = bits.length() * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) this.bitSize / expectedNames * Math.log(2)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            return;     //항상 DB 조회
+        }
+        long start = System.currentTimeMillis();
+        long count = transactionTemplate.execute(status -> {
+            long loaded = 0;
+            try (Stream<String> names = memberRepository.streamNormalizedNames()) {
+                Iterator<String> iterator = names.iterator();
+                while (iterator.hasNext()) {
+                    put(iterator.next());
+                    loaded++;
+                }
+            }
+            return loaded;
+        });
+        ready = true;
+        log.info("회원 이름 필터 초기화 완료, 회원 {}명, {}ms", count, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 이름이 없는(null) 회원은 유니크 제약으로 중복을 판단하지 않으므로 false 를 리턴한다.
+     * @param normalizedName Member.normalizeName 결과
+     * @return false 이면 가입된 적 없는 이름
+     */
+    public boolean mightContain(String normalizedName) {
+        if (normalizedName == null) {
+            return false;
+        }
+        if (!ready) {
+            return true;
+        }
+        long hash1 = hash(normalizedName);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;     //이중 해싱(h1 + i * h2), h2 는 홀수
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(hash1 + i * hash2, bitSize);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                skipped.incrementAndGet();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void put(String normalizedName) {
+        if (normalizedName == null) {
+            return;
+        }
+        long hash1 = hash(normalizedName);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(hash1 + i * hash2, bitSize);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current;
+            while (((current = bits.get(word)) & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                //다른 스레드가 같은 word 를 바꿨으면 다시 시도
+            }
+        }
+    }
+
+    /**
+     * 필터로 중복 조회를 생략한 횟수
+     */
+    public long getSkipped() {
+        return skipped.get();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    //FNV-1a(64bit) 후 섞기
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    //splitmix64 마무리 단계
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -0,0 +1,318 @@
+package jpabook.jpashop.domain.member;
+
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.repository.MemberRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * 회원 이름 검색 색인(메모리)
+ * like '%이름%' 은 인덱스를 탈 수 없으므로 회원 이름(Member.normalizeName 기준)의 1글자, 2글자 조각(n-gram)마다
+ * 그 조각이 들어있는 회원 id 집합을 만들어두고 부분 일치 검색을 한다.
+ *   1글자 검색 : 1글자 조각의 회원 집합
+ *   2글자 이상 : 검색어의 2글자 조각 집합들의 교집합(작은 집합부터)에서 실제로 검색어를 포함하는 이름만 남긴다.
+ *
+ * 기동이 끝나면(ApplicationReadyEvent) 전체 회원으로 만들고, 가입/이름 변경은 커밋 후에 반영한다.
+ * 색인 변경(index)은 한번에 하나씩, 검색은 락 없이 한다.
+ *
+ * 색인은 인스턴스(JVM)마다 따로 있고, 이 인스턴스에서 커밋된 변경만 바로 반영된다.
+ * 다른 인스턴스에서 가입/이름 변경한 회원은 resync-interval(ms) 마다 DB 전체를 다시 읽을 때 반영된다.
+ * 처음 생성이 끝나기 전(isReady() == false)에는 색인이 비어 있으므로 호출하는 쪽에서 DB(like)로 검색해야 한다.
+ */
+@Slf4j
+@Component
+public class MemberSearchIndex {
+
+    private static final Comparator<Candidate> RANK = Comparator
+            .comparingInt(Candidate::getMatch)
+            .thenComparingInt(candidate -> candidate.getNormalizedName().length())
+            .thenComparingLong(Candidate::getId);
+
+    private final MemberRepository memberRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    //회원 id -> 이름
+    private final Map<Long, IndexedName> names = new ConcurrentHashMap<>();
+    //이름 조각(1, 2글자) -> 회원 id
+    private final Map<String, Set<Long>> grams = new ConcurrentHashMap<>();
+
+    //전체 생성이 한번이라도 끝났는지
+    private volatile boolean ready;
+    //생성(rebuild) 중에 커밋 후 색인된 회원 id, DB 에서 읽은 이름이 이보다 오래됐을 수 있으므로 덮어쓰지 않는다.(생성 중이 아니면 null)
+    private Set<Long> indexedDuringRebuild;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    public MemberSearchIndex(MemberRepository memberRepository, TransactionTemplate transactionTemplate) {
+        this.memberRepository = memberRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * DB 전체 회원으로 색인을 다시 만든다.(기동 시, 이후 resync-interval 마다)
+     * 이미 다른 생성이 진행 중이면 건너뛴다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${jpashop.member.search-index.resync-interval:600000}",
+            initialDelayString = "${jpashop.member.search-index.resync-interval:600000}")
+    public void rebuild() {
+        if (!rebuildLock.tryLock()) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            startRebuild();
+            long count;
+            try {
+                count = transactionTemplate.execute(status -> {
+                    long loaded = 0;
+                    try (Stream<MemberName> members = memberRepository.streamNames()) {
+                        Iterator<MemberName> iterator = members.iterator();
+                        while (iterator.hasNext()) {
+                            MemberName member = iterator.next();
+                            indexLoaded(member.getId(), member.getName());
+                            loaded++;
+                        }
+                    }
+                    return loaded;
+                });
+            } finally {
+                finishRebuild();
+            }
+            ready = true;
+            log.info("회원 검색 색인 생성 완료, 회원 {}명, 조각 {}개, {}ms", count, grams.size(), System.currentTimeMillis() - start);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * 전체 생성이 한번이라도 끝났는지, false 이면 색인에 없는 회원이 있을 수 있다.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    synchronized void startRebuild() {
+        indexedDuringRebuild = new HashSet<>();
+    }
+
+    synchronized void finishRebuild() {
+        indexedDuringRebuild = null;
+    }
+
+    /**
+     * 생성 중 DB 에서 읽은 이름 색인, 생성이 시작된 뒤 커밋 후 색인(index)된 회원은 그 이름이 더 새것이므로 건너뛴다.
+     */
+    synchronized void indexLoaded(Long memberId, String name) {
+        if (indexedDuringRebuild != null && indexedDuringRebuild.contains(memberId)) {
+            return;
+        }
+        put(memberId, name);
+    }
+
+    /**
+     * 트랜잭션 안이면 커밋 후에 색인한다.(롤백된 가입은 색인하지 않는다)
+     */
+    public void indexAfterCommit(Long memberId, String name) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    index(memberId, name);
+                }
+            });
+        } else {
+            index(memberId, name);
+        }
+    }
+
+    /**
+     * 회원 이름 색인(이미 있으면 이전 이름의 조각을 지우고 다시 만든다)
+     * 생성 중이면 회원 id 를 기록해서 생성이 DB 에서 읽은 이전 이름으로 덮어쓰지 않게 한다.
+     */
+    public synchronized void index(Long memberId, String name) {
+        if (indexedDuringRebuild != null) {
+            indexedDuringRebuild.add(memberId);
+        }
+        put(memberId, name);
+    }
+
+    private void put(Long memberId, String name) {
+        String normalizedName = Member.normalizeName(name);
+        if (normalizedName == null || normalizedName.isEmpty()) {
+            return;
+        }
+
+        IndexedName previous = names.put(memberId, new IndexedName(name, normalizedName));
+        if (previous != null) {
+            for (String gram : grams(previous.getNormalizedName())) {
+                Set<Long> ids = grams.get(gram);
+                if (ids != null) {
+                    ids.remove(memberId);
+                    if (ids.isEmpty()) {
+                        grams.remove(gram);
+                    }
+                }
+            }
+        }
+        for (String gram : grams(normalizedName)) {
+            grams.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(memberId);
+        }
+    }
+
+    /**
+     * 이름 검색, 점수가 높은 limit 명
+     * 순서 : 이름 전체 일치 > 앞부분 일치 > 부분 일치, 같으면 짧은 이름, 회원 id 순
+     */
+    public List<MemberSearchResult> search(String query, int limit) {
+        String normalizedQuery = Member.normalizeName(query);
+        if (normalizedQuery == null || normalizedQuery.isEmpty()) {
+            return List.of();
+        }
+
+        //점수가 가장 낮은 후보가 맨 앞에 오는 크기 limit 의 힙
+        PriorityQueue<Candidate> top = new PriorityQueue<>(limit + 1, RANK.reversed());
+        for (Long id : candidates(normalizedQuery)) {
+            IndexedName indexed = names.get(id);
+            if (indexed == null || !indexed.getNormalizedName().contains(normalizedQuery)) {
+                continue;
+            }
+            top.add(new Candidate(id, indexed.getName(), indexed.getNormalizedName(), match(indexed.getNormalizedName(), normalizedQuery)));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<Candidate> ranked = new ArrayList<>(top);
+        ranked.sort(RANK);
+        List<MemberSearchResult> results = new ArrayList<>(ranked.size());
+        for (Candidate candidate : ranked) {
+            results.add(new MemberSearchResult(candidate.getId(), candidate.getName()));
+        }
+        return results;
+    }
+
+    /**
+     * 이름에 query 가 들어있는 회원 id(주문 검색 조건용), 순서 없음
+     * @return 최대 max + 1 개, max 개를 넘으면 호출하는 쪽에서 다른 방법(like)을 쓴다.
+     */
+    public List<Long> findIds(String query, int max) {
+        String normalizedQuery = Member.normalizeName(query);
+        if (normalizedQuery == null || normalizedQuery.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> ids = new ArrayList<>();
+        for (Long id : candidates(normalizedQuery)) {
+            IndexedName indexed = names.get(id);
+            if (indexed != null && indexed.getNormalizedName().contains(normalizedQuery)) {
+                ids.add(id);
+                if (ids.size() > max) {
+                    break;
+                }
+            }
+        }
+        return ids;
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    /**
+     * 검색어의 조각이 모두 들어있는 회원 id, 가장 작은 집합을 기준으로 나머지 집합에 있는지 확인한다.
+     */
+    private Set<Long> candidates(String normalizedQuery) {
+        if (normalizedQuery.length() == 1) {
+            return grams.getOrDefault(normalizedQuery, Collections.emptySet());
+        }
+
+        List<Set<Long>> postings = new ArrayList<>();
+        for (int i = 0; i + 2 <= normalizedQuery.length(); i++) {
+            Set<Long> ids = grams.get(normalizedQuery.substring(i, i + 2));
+            if (ids == null) {
+                return Collections.emptySet();
+            }
+            postings.add(ids);
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+
+        Set<Long> result = new HashSet<>();
+        for (Long id : postings.get(0)) {
+            boolean all = true;
+            for (int i = 1; i < postings.size() && all; i++) {
+                all = postings.get(i).contains(id);
+            }
+            if (all) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    private static Set<String> grams(String normalizedName) {
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i < normalizedName.length(); i++) {
+            result.add(normalizedName.substring(i, i + 1));
+            if (i + 2 <= normalizedName.length()) {
+                result.add(normalizedName.substring(i, i + 2));
+            }
+        }
+        return result;
+    }
+
+    private static int match(String normalizedName, String normalizedQuery) {
+        if (normalizedName.equals(normalizedQuery)) {
+            return 0;
+        }
+        return normalizedName.startsWith(normalizedQuery) ? 1 : 2;
+    }
+
+
+    @Getter
+    @AllArgsConstructor
+    private static class IndexedName {
+        private final String name;
+        private final String normalizedName;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Candidate {
+        private final Long id;
+        private final String name;
+        private final String normalizedName;
+        private final int match;
+    }
+
+    /**
+     * 검색 결과 한 건
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class MemberSearchResult {
+        private final Long id;
+        private final String name;
+    }
+}
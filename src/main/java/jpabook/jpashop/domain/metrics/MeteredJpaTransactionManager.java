@@ -0,0 +1,50 @@
+package jpabook.jpashop.domain.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 커밋 직전 영속성 컨텍스트에 있는 엔티티 수를 기록한다.(jpashop.persistence.context.entities)
+ * 엔티티가 많을수록 flush 시 변경 감지 비용과 메모리 사용량이 늘어나므로
+ * 한 트랜잭션에서 너무 많은 엔티티를 읽는 곳(대량 조회, 루프 안의 지연 로딩)을 찾는데 쓴다.
+ */
+public class MeteredJpaTransactionManager extends JpaTransactionManager {
+
+    private final DistributionSummary readOnlyEntities;
+    private final DistributionSummary readWriteEntities;
+
+    public MeteredJpaTransactionManager(MeterRegistry registry) {
+        this.readOnlyEntities = entitySummary(registry, true);
+        this.readWriteEntities = entitySummary(registry, false);
+    }
+
+    @Override
+    protected void prepareForCommit(DefaultTransactionStatus status) {
+        super.prepareForCommit(status);
+
+        //바깥 트랜잭션에 참여한 경우는 바깥 트랜잭션 커밋 때 한번만 기록한다.
+        if (!status.isNewTransaction()) {
+            return;
+        }
+
+        EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(obtainEntityManagerFactory());
+        if (holder != null) {
+            int entityCount = holder.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount();
+            (status.isReadOnly() ? readOnlyEntities : readWriteEntities).record(entityCount);
+        }
+    }
+
+    private static DistributionSummary entitySummary(MeterRegistry registry, boolean readOnly) {
+        return DistributionSummary.builder("jpashop.persistence.context.entities")
+                .description("커밋 시점 영속성 컨텍스트의 엔티티 수")
+                .baseUnit("entities")
+                .tag("read-only", String.valueOf(readOnly))
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
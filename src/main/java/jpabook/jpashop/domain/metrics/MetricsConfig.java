@@ -0,0 +1,37 @@
+package jpabook.jpashop.domain.metrics;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * 서비스/리포지토리 메트릭 설정, /actuator/prometheus 로 노출된다.
+ *   1) @Timed 가 붙은 서비스 메서드 : 실행 시간 히스토그램(jpashop.order.place 등)
+ *   2) 리포지토리 find* 메서드 : 실행 시간, 조회 row 수(RepositoryMetricsAspect)
+ *   3) 커밋 시점 영속성 컨텍스트 엔티티 수(MeteredJpaTransactionManager)
+ * 하이버네이트 Statistics(hibernate.generate_statistics)는 스프링 부트가 hibernate.* 메트릭으로 자동 등록한다.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    /**
+     * 스프링 부트 기본 트랜잭션 매니저(JpaTransactionManager)를 대신한다.
+     * spring.transaction.* 설정이 그대로 적용되도록 customizer 를 호출한다.
+     */
+    @Bean
+    public PlatformTransactionManager transactionManager(MeterRegistry registry,
+                                                         ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+        MeteredJpaTransactionManager transactionManager = new MeteredJpaTransactionManager(registry);
+        transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize(transactionManager));
+        return transactionManager;
+    }
+}
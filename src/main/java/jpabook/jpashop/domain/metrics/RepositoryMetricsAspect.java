@@ -0,0 +1,71 @@
+package jpabook.jpashop.domain.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 리포지토리 조회(find*) 메서드의 실행 시간과 조회 row 수
+ *   jpashop.repository.query : 실행 시간(Timer)
+ *   jpashop.repository.rows  : 결과 수(DistributionSummary), 컬렉션이면 크기, 단건이면 0 또는 1
+ * 태그 repository, method 로 어떤 조회가 느려졌는지, 결과가 갑자기 많아졌는지 구분한다.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RepositoryMetricsAspect {
+
+    private final MeterRegistry registry;
+
+    @Around("within(jpabook.jpashop.domain.repository..*)" +
+            " && @within(org.springframework.stereotype.Repository)" +
+            " && execution(public * find*(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String repository = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        String method = joinPoint.getSignature().getName();
+
+        Timer.Sample sample = Timer.start(registry);
+        String exception = "none";
+        try {
+            Object result = joinPoint.proceed();
+            rows(repository, method).record(rowCount(result));
+            return result;
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("jpashop.repository.query")
+                    .description("리포지토리 조회 시간")
+                    .tags("repository", repository, "method", method, "exception", exception)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+    }
+
+    private DistributionSummary rows(String repository, String method) {
+        return DistributionSummary.builder("jpashop.repository.rows")
+                .description("리포지토리 조회 결과 수")
+                .baseUnit("rows")
+                .tags("repository", repository, "method", method)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private int rowCount(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Map) {
+            return ((Map<?, ?>) result).size();
+        }
+        return result == null ? 0 : 1;
+    }
+}
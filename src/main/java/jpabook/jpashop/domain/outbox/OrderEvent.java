@@ -0,0 +1,28 @@
+package jpabook.jpashop.domain.outbox;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderEventType;
+import lombok.Getter;
+
+/**
+ * 주문/취소 애플리케이션 이벤트
+ * 주문 트랜잭션 안에서 발행되고, OrderOutboxWriter 가 같은 트랜잭션에서 아웃박스에 저장한다.
+ */
+@Getter
+public class OrderEvent {
+    private final Order order;
+    private final OrderEventType type;
+
+    private OrderEvent(Order order, OrderEventType type) {
+        this.order = order;
+        this.type = type;
+    }
+
+    public static OrderEvent placed(Order order) {
+        return new OrderEvent(order, OrderEventType.ORDER_PLACED);
+    }
+
+    public static OrderEvent canceled(Order order) {
+        return new OrderEvent(order, OrderEventType.ORDER_CANCELED);
+    }
+}
@@ -0,0 +1,64 @@
+package jpabook.jpashop.domain.outbox;
+
+import jpabook.jpashop.domain.OrderOutboxEvent;
+import jpabook.jpashop.domain.repository.OrderOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * 아웃박스 릴레이
+ * 커밋된 이벤트 중 feedSeq 가 없는 것을 batchSize 건씩 id 순서로 읽어서 마지막 feedSeq 다음 번호부터 차례로 붙인다.
+ * 릴레이가 한 곳에서만 번호를 붙이므로 feedSeq 는 빈 번호 없이 증가하고,
+ * 한번 번호가 붙은 뒤에는 그 앞에 새 이벤트가 끼어들지 않는다.(소비자는 since 이후만 읽으면 된다)
+ *
+ * 인스턴스가 여러개여서 릴레이가 동시에 실행되면 feed_seq 유니크 제약으로 한쪽이 실패하고 다음 주기에 다시 시도한다.
+ */
+@Slf4j
+@Component
+public class OrderOutboxRelay {
+
+    private final OrderOutboxRepository orderOutboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public OrderOutboxRelay(OrderOutboxRepository orderOutboxRepository,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${jpashop.order.outbox.batch-size:500}") int batchSize) {
+        this.orderOutboxRepository = orderOutboxRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${jpashop.order.outbox.relay-interval:500}")
+    public void relay() {
+        try {
+            int relayed;
+            do {
+                relayed = transactionTemplate.execute(status -> relayBatch());
+            } while (relayed == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("주문 아웃박스 릴레이 실패, 다음 주기에 재시도합니다.", e);
+        }
+    }
+
+    /**
+     * @return 번호를 붙인 이벤트 수
+     */
+    private int relayBatch() {
+        List<OrderOutboxEvent> events = orderOutboxRepository.findUnrelayed(batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        long feedSeq = orderOutboxRepository.findMaxFeedSeq();
+        for (OrderOutboxEvent event : events) {
+            event.relay(++feedSeq);
+        }
+        return events.size();
+    }
+}
@@ -0,0 +1,27 @@
+package jpabook.jpashop.domain.outbox;
+
+import jpabook.jpashop.domain.OrderOutboxEvent;
+import jpabook.jpashop.domain.repository.OrderOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 주문 이벤트를 아웃박스에 저장한다.
+ * @TransactionalEventListener(AFTER_COMMIT) 가 아닌 동기 @EventListener 이므로 발행한 트랜잭션 안에서 저장되고,
+ * 주문과 함께 커밋되거나 함께 롤백된다. 트랜잭션 밖에서 발행하면 예외(MANDATORY)
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderOutboxWriter {
+
+    private final OrderOutboxRepository orderOutboxRepository;
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void write(OrderEvent event) {
+        orderOutboxRepository.save(OrderOutboxEvent.of(event.getOrder(), event.getType()));
+    }
+}
@@ -0,0 +1,294 @@
+package jpabook.jpashop.domain.queue;
+
+import jpabook.jpashop.domain.service.OrderLine;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 디스크(메모리 맵 파일) 기반 주문 대기열
+ * 접수된 주문을 고정 크기 레코드로 파일 끝에 이어 쓰고, 워커(OrderQueueWorker)가 순서대로 꺼내 처리한다.
+ * 파일은 capacity 개의 레코드 칸을 돌려 쓰며, 순번(seq)은 계속 증가하므로 seq % capacity 칸에 저장된다.
+ *
+ * 파일 구조
+ *   헤더(64 byte) : magic, 레코드 크기, capacity, writeSeq(다음에 쓸 순번), readSeq(처리 완료된 마지막 순번 + 1)
+ *   레코드(256 byte) : seq, memberId, lineCount, 접수시각(epoch ms), (itemId, count) * MAX_LINES
+ *
+ * 헤더의 writeSeq 는 레코드를 다 쓴 뒤에 올리므로 쓰다가 죽은 레코드는 보이지 않는다.
+ * readSeq 는 처리(acknowledge)된 순번까지만 올라가므로, 꺼내 갔지만 처리 완료 전에 재시작하면 다시 꺼내진다.(at-least-once)
+ * 중복 처리는 처리 결과(OrderTicket)로 걸러낸다.
+ *
+ * 가상 스레드에서 호출해도 캐리어 스레드를 붙잡지 않도록 synchronized 대신 ReentrantLock 을 사용한다.
+ */
+@Slf4j
+public class OrderQueue implements Closeable {
+
+    public static final int MAX_LINES = 16;
+
+    private static final int MAGIC = 0x4A4F5131;     //"JOQ1"
+    private static final int HEADER_SIZE = 64;
+    private static final int RECORD_SIZE = 256;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int RECORD_SIZE_OFFSET = 4;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int WRITE_SEQ_OFFSET = 16;
+    private static final int READ_SEQ_OFFSET = 24;
+
+    private static final int SEQ = 0;
+    private static final int MEMBER_ID = 8;
+    private static final int LINE_COUNT = 16;
+    private static final int ACCEPTED_AT = 20;
+    private static final int LINES = 28;
+    private static final int LINE_SIZE = 12;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final boolean fsync;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+
+    private long writeSeq;
+    private long readSeq;
+    private long claimSeq;      //워커에게 내준 마지막 순번 + 1(메모리에만 있음)
+    private final TreeMap<Long, Long> acknowledged = new TreeMap<>();     //처리 완료됐지만 앞 순번이 아직인 구간(from -> to)
+
+    private OrderQueue(FileChannel channel, MappedByteBuffer buffer, int capacity, boolean fsync) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.fsync = fsync;
+        this.writeSeq = buffer.getLong(WRITE_SEQ_OFFSET);
+        this.readSeq = buffer.getLong(READ_SEQ_OFFSET);
+        this.claimSeq = readSeq;
+    }
+
+    /**
+     * 대기열 파일을 열거나 새로 만든다.
+     * @param capacity 새로 만들 때의 레코드 칸 수, 기존 파일은 파일에 기록된 값을 사용한다.
+     * @param firstSeq 새로 만들 때의 첫 순번(이미 발급한 접수 번호와 겹치지 않게)
+     * @param fsync true 이면 접수/처리 완료 때마다 디스크에 강제로 기록한다.
+     */
+    public static OrderQueue open(Path path, int capacity, long firstSeq, boolean fsync) throws IOException {
+        if (capacity < 1 || capacity > (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE) {
+            throw new IllegalArgumentException("잘못된 주문 대기열 capacity 입니다. " + capacity);
+        }
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            boolean created = channel.size() == 0;
+            if (!created) {
+                MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+                if (header.getInt(MAGIC_OFFSET) != MAGIC || header.getInt(RECORD_SIZE_OFFSET) != RECORD_SIZE) {
+                    throw new IOException("주문 대기열 파일 형식이 아닙니다. " + path);
+                }
+                if (header.getInt(CAPACITY_OFFSET) != capacity) {
+                    log.warn("주문 대기열 capacity 는 파일에 기록된 값({})을 사용합니다. 설정값={}", header.getInt(CAPACITY_OFFSET), capacity);
+                }
+                capacity = header.getInt(CAPACITY_OFFSET);
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * RECORD_SIZE);
+            if (created) {
+                buffer.putInt(MAGIC_OFFSET, MAGIC);
+                buffer.putInt(RECORD_SIZE_OFFSET, RECORD_SIZE);
+                buffer.putInt(CAPACITY_OFFSET, capacity);
+                buffer.putLong(WRITE_SEQ_OFFSET, firstSeq);
+                buffer.putLong(READ_SEQ_OFFSET, firstSeq);
+                buffer.force();
+            }
+
+            OrderQueue queue = new OrderQueue(channel, buffer, capacity, fsync);
+            log.info("주문 대기열 {} readSeq={}, writeSeq={}, 미처리 {}건", path, queue.readSeq, queue.writeSeq, queue.writeSeq - queue.readSeq);
+            return queue;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+
+    /**
+     * 주문 접수
+     * @return 접수 번호(대기열 순번)
+     */
+    public long enqueue(Long memberId, List<OrderLine> lines) {
+        if (memberId == null) {
+            throw new IllegalArgumentException("회원 id 가 없습니다.");
+        }
+        if (lines.isEmpty() || lines.size() > MAX_LINES) {
+            throw new IllegalArgumentException("주문 상품은 1 ~ " + MAX_LINES + "개까지 가능합니다.");
+        }
+        for (OrderLine line : lines) {
+            if (line.getItemId() == null || line.getCount() < 1) {
+                throw new IllegalArgumentException("잘못된 주문 상품입니다. itemId=" + line.getItemId() + ", count=" + line.getCount());
+            }
+        }
+
+        lock.lock();
+        try {
+            if (writeSeq - readSeq >= capacity) {
+                throw new IllegalStateException("주문 대기열이 가득 찼습니다.");
+            }
+
+            long seq = writeSeq;
+            int offset = recordOffset(seq);
+            buffer.putLong(offset + SEQ, seq);
+            buffer.putLong(offset + MEMBER_ID, memberId);
+            buffer.putInt(offset + LINE_COUNT, lines.size());
+            buffer.putLong(offset + ACCEPTED_AT, System.currentTimeMillis());
+            for (int i = 0; i < lines.size(); i++) {
+                OrderLine line = lines.get(i);
+                buffer.putLong(offset + LINES + i * LINE_SIZE, line.getItemId());
+                buffer.putInt(offset + LINES + i * LINE_SIZE + 8, line.getCount());
+            }
+            if (fsync) {
+                buffer.force(offset, RECORD_SIZE);
+            }
+
+            //레코드를 다 쓴 다음에 헤더를 올린다.
+            writeSeq = seq + 1;
+            buffer.putLong(WRITE_SEQ_OFFSET, writeSeq);
+            if (fsync) {
+                buffer.force(0, HEADER_SIZE);
+            }
+
+            notEmpty.signal();
+            return seq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 처리할 주문을 최대 maxSize 건 꺼낸다. 비어 있으면 timeout 동안 기다린다.
+     * 꺼낸 주문은 acknowledge() 하기 전까지 파일에서 지워지지 않는다.
+     */
+    public List<QueuedOrder> claim(int maxSize, long timeout, TimeUnit unit) throws InterruptedException {
+        lock.lock();
+        try {
+            long nanos = unit.toNanos(timeout);
+            while (claimSeq == writeSeq) {
+                if (nanos <= 0) {
+                    return List.of();
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+
+            int size = (int) Math.min(maxSize, writeSeq - claimSeq);
+            List<QueuedOrder> batch = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                batch.add(read(claimSeq + i));
+            }
+            claimSeq += size;
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * claim() 으로 꺼낸 주문의 처리 완료
+     * 워커 여러개가 동시에 처리하므로 완료 순서는 꺼낸 순서와 다를 수 있다.
+     * readSeq 는 앞 순번이 모두 완료된 구간까지만 올린다.
+     */
+    public void acknowledge(List<QueuedOrder> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            acknowledged.put(batch.get(0).getSeq(), batch.get(batch.size() - 1).getSeq() + 1);
+            Long next;
+            while ((next = acknowledged.remove(readSeq)) != null) {
+                readSeq = next;
+            }
+            buffer.putLong(READ_SEQ_OFFSET, readSeq);
+            if (fsync) {
+                buffer.force(0, HEADER_SIZE);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 접수됐지만 아직 처리 완료되지 않은 번호인지
+     */
+    public boolean isPending(long seq) {
+        lock.lock();
+        try {
+            return seq >= readSeq && seq < writeSeq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 처리 완료되지 않은 주문 수
+     */
+    public long size() {
+        lock.lock();
+        try {
+            return writeSeq - readSeq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            buffer.force();
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    private QueuedOrder read(long seq) {
+        int offset = recordOffset(seq);
+        long storedSeq = buffer.getLong(offset + SEQ);
+        if (storedSeq != seq) {
+            throw new IllegalStateException("주문 대기열 레코드가 손상되었습니다. seq=" + seq + ", stored=" + storedSeq);
+        }
+
+        int lineCount = buffer.getInt(offset + LINE_COUNT);
+        List<OrderLine> lines = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            lines.add(new OrderLine(buffer.getLong(offset + LINES + i * LINE_SIZE), buffer.getInt(offset + LINES + i * LINE_SIZE + 8)));
+        }
+        LocalDateTime acceptedDate = LocalDateTime.ofInstant(Instant.ofEpochMilli(buffer.getLong(offset + ACCEPTED_AT)), ZoneId.systemDefault());
+        return new QueuedOrder(seq, buffer.getLong(offset + MEMBER_ID), lines, acceptedDate);
+    }
+
+    private int recordOffset(long seq) {
+        return HEADER_SIZE + (int) (seq % capacity) * RECORD_SIZE;
+    }
+}
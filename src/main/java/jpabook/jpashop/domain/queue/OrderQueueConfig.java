@@ -0,0 +1,49 @@
+package jpabook.jpashop.domain.queue;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jpabook.jpashop.domain.repository.OrderTicketRepository;
+import jpabook.jpashop.domain.service.AsyncOrderService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * 비동기 주문(jpashop.order.async.enabled=true 일 때만)
+ */
+@Configuration
+@ConditionalOnProperty(name = "jpashop.order.async.enabled", havingValue = "true")
+public class OrderQueueConfig {
+
+    /**
+     * 대기열 파일이 없으면 이미 발급한 접수 번호 다음 번호부터 시작한다.
+     */
+    @Bean
+    public OrderQueue orderQueue(@Value("${jpashop.order.async.queue-file}") String queueFile,
+                                 @Value("${jpashop.order.async.capacity:100000}") int capacity,
+                                 @Value("${jpashop.order.async.fsync:true}") boolean fsync,
+                                 OrderTicketRepository orderTicketRepository,
+                                 TransactionTemplate transactionTemplate,
+                                 MeterRegistry registry) throws IOException {
+        long firstSeq = transactionTemplate.execute(status -> orderTicketRepository.findMaxId()) + 1;
+        OrderQueue orderQueue = OrderQueue.open(Path.of(queueFile), capacity, firstSeq, fsync);
+        Gauge.builder("jpashop.order.queue.size", orderQueue, OrderQueue::size)
+                .description("처리 대기 중인 비동기 주문 수")
+                .register(registry);
+        return orderQueue;
+    }
+
+    @Bean
+    public OrderQueueWorker orderQueueWorker(OrderQueue orderQueue,
+                                             AsyncOrderService asyncOrderService,
+                                             @Value("${jpashop.order.async.workers:2}") int workerCount,
+                                             @Value("${jpashop.order.async.batch-size:50}") int batchSize,
+                                             @Value("${jpashop.order.async.retry-interval:1000}") long retryIntervalMillis) {
+        return new OrderQueueWorker(orderQueue, asyncOrderService, workerCount, batchSize, retryIntervalMillis);
+    }
+}
@@ -0,0 +1,105 @@
+package jpabook.jpashop.domain.queue;
+
+import jpabook.jpashop.domain.service.AsyncOrderService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주문 대기열을 비우는 워커 스레드들
+ * 각 워커는 최대 batchSize 건씩 꺼내서 처리하고, 처리가 끝난 배치만 대기열에서 완료 처리(acknowledge)한다.
+ * DB 장애 등으로 처리하지 못한 배치는 retryInterval 후 다시 처리한다.
+ * 종료 시에는 처리 중인 배치까지만 마치고, 남은 주문은 파일에 남겨 두었다가 재시작 후 처리한다.
+ */
+@Slf4j
+public class OrderQueueWorker implements SmartLifecycle {
+
+    private static final long POLL_TIMEOUT_MILLIS = 200;
+
+    private final OrderQueue orderQueue;
+    private final AsyncOrderService asyncOrderService;
+    private final int workerCount;
+    private final int batchSize;
+    private final long retryIntervalMillis;
+
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    public OrderQueueWorker(OrderQueue orderQueue, AsyncOrderService asyncOrderService,
+                            int workerCount, int batchSize, long retryIntervalMillis) {
+        this.orderQueue = orderQueue;
+        this.asyncOrderService = asyncOrderService;
+        this.workerCount = workerCount;
+        this.batchSize = batchSize;
+        this.retryIntervalMillis = retryIntervalMillis;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::run, "order-queue-" + i);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        workers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            List<QueuedOrder> batch;
+            try {
+                batch = orderQueue.claim(batchSize, POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (!batch.isEmpty()) {
+                processUntilDone(batch);
+            }
+        }
+    }
+
+    private void processUntilDone(List<QueuedOrder> batch) {
+        while (true) {
+            try {
+                asyncOrderService.process(batch);
+                orderQueue.acknowledge(batch);
+                return;
+            } catch (RuntimeException e) {
+                log.warn("주문 배치 처리 실패, {}ms 후 재시도합니다. ticketId={}~{}",
+                        retryIntervalMillis, batch.get(0).getSeq(), batch.get(batch.size() - 1).getSeq(), e);
+            }
+
+            if (!running) {
+                //재시작 후 다시 꺼내서 처리한다.
+                return;
+            }
+            try {
+                Thread.sleep(retryIntervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+}
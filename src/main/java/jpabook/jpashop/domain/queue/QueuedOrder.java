@@ -0,0 +1,25 @@
+package jpabook.jpashop.domain.queue;
+
+import jpabook.jpashop.domain.service.OrderLine;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 주문 대기열의 레코드 하나(접수된 주문)
+ */
+@Getter
+public class QueuedOrder {
+    private final long seq;     //대기열 순번 = 접수 번호
+    private final Long memberId;
+    private final List<OrderLine> lines;
+    private final LocalDateTime acceptedDate;
+
+    public QueuedOrder(long seq, Long memberId, List<OrderLine> lines, LocalDateTime acceptedDate) {
+        this.seq = seq;
+        this.memberId = memberId;
+        this.lines = lines;
+        this.acceptedDate = acceptedDate;
+    }
+}
@@ -0,0 +1,58 @@
+package jpabook.jpashop.domain.repository;
+
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.item.Item;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class CategoryRepository {
+    private final EntityManager em;
+
+    /**
+     * 부모를 자식보다 먼저 저장한다.(클로저 테이블 행이 부모를 참조)
+     */
+    public void save(Category category) {
+        em.persist(category);
+    }
+
+    public Category findOne(Long id) {
+        return em.find(Category.class, id);
+    }
+
+    /**
+     * 카테고리 하위 트리(자기 자신 포함) 전체의 상품, 상품 id 순
+     * 클로저 테이블(ancestor_id) -> category_item -> item 조인 쿼리 한번으로 조회한다.(단계마다 자식을 읽지 않는다)
+     * 여러 하위 카테고리에 속한 상품은 한번만 나온다.
+     */
+    public List<Item> findSubtreeItems(Long categoryId, int offset, int limit) {
+        return em.createQuery(
+                        "select i from Item i" +
+                                " where i.id in (" +
+                                "   select ci.id from CategoryClosure cc" +
+                                "   join cc.descendant d" +
+                                "   join d.items ci" +
+                                "   where cc.ancestor.id = :categoryId)" +
+                                " order by i.id", Item.class)
+                .setParameter("categoryId", categoryId)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * 하위 카테고리 id(자기 자신 포함), 가까운 단계부터
+     */
+    public List<Long> findSubtreeIds(Long categoryId) {
+        return em.createQuery(
+                        "select cc.descendant.id from CategoryClosure cc" +
+                                " where cc.ancestor.id = :categoryId" +
+                                " order by cc.depth, cc.descendant.id", Long.class)
+                .setParameter("categoryId", categoryId)
+                .getResultList();
+    }
+}
@@ -0,0 +1,41 @@
+package jpabook.jpashop.domain.repository;
+
+import jpabook.jpashop.domain.IdempotencyRecord;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+
+@Repository
+@RequiredArgsConstructor
+public class IdempotencyRecordRepository {
+
+    private final EntityManager em;
+
+    public void save(IdempotencyRecord record) {
+        em.persist(record);
+    }
+
+    public IdempotencyRecord findOne(String key) {
+        return em.find(IdempotencyRecord.class, key);
+    }
+
+    /**
+     * 버려진 기록을 이어받을 때 다른 인스턴스와 동시에 이어받지 않도록 row 락
+     */
+    public IdempotencyRecord findOneForUpdate(String key) {
+        return em.find(IdempotencyRecord.class, key, LockModeType.PESSIMISTIC_WRITE);
+    }
+
+    public void remove(IdempotencyRecord record) {
+        em.remove(record);
+    }
+
+    public int deleteExpired(LocalDateTime now) {
+        return em.createQuery("delete from IdempotencyRecord r where r.expiresAt < :now")
+                .setParameter("now", now)
+                .executeUpdate();
+    }
+}
@@ -1,10 +1,12 @@
 package jpabook.jpashop.domain.repository;
 
+import jpabook.jpashop.domain.catalog.ItemVersion;
 import jpabook.jpashop.domain.item.Item;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -28,4 +30,51 @@ public class ItemRepository {
         return em.createQuery("select i from Item i", Item.class)
                 .getResultList();
     }
+
+    public List<Long> findAllIds() {
+        return em.createQuery("select i.id from Item i order by i.id", Long.class)
+                .getResultList();
+    }
+
+    /**
+     * id 가 lastId 보다 큰 상품 limit 개, id 순(키셋 페이징, 검색 색인 생성용)
+     */
+    public List<Item> findAllAfter(Long lastId, int limit) {
+        return em.createQuery("select i from Item i where i.id > :lastId order by i.id", Item.class)
+                .setParameter("lastId", lastId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * 전체 상품의 id, 버전만 조회(엔티티를 읽지 않는다)
+     */
+    public List<ItemVersion> findAllVersions() {
+        return em.createQuery("select new jpabook.jpashop.domain.catalog.ItemVersion(i.id, i.version, i.name, i.price) from Item i", ItemVersion.class)
+                .getResultList();
+    }
+
+    /**
+     * 여러 상품을 IN 쿼리 한번으로 조회
+     */
+    public List<Item> findAllById(Collection<Long> ids) {
+        return em.createQuery("select i from Item i where i.id in :ids", Item.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    /**
+     * 재고를 현재 DB 값 기준으로 상대 감소시킨다.(벌크 연산)
+     * 엔티티를 읽어서 값을 바꾸는 방식과 달리 동시에 실행되어도 감소량이 유실되지 않는다.
+     * 영속성 컨텍스트를 거치지 않으므로 별도의 트랜잭션에서 사용한다.
+     * versioned 로 버전도 함께 올려서, 이 상품을 읽어서 수정 중인 다른 트랜잭션은 낙관적 락 충돌이 나게 한다.
+     * @param itemId
+     * @param count 음수면 재고 증가
+     */
+    public int removeStock(Long itemId, int count) {
+        return em.createQuery("update versioned Item i set i.stockQuantity = i.stockQuantity - :count where i.id = :itemId")
+                .setParameter("count", count)
+                .setParameter("itemId", itemId)
+                .executeUpdate();
+    }
 }
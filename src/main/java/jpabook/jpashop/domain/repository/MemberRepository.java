@@ -1,11 +1,15 @@
 package jpabook.jpashop.domain.repository;
 
 import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.member.MemberName;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 @RequiredArgsConstructor
@@ -25,9 +29,71 @@ public class MemberRepository {
         return em.createQuery("select m from Member m", Member.class).getResultList();
     }
 
+    /**
+     * 여러 회원을 IN 쿼리 한번으로 조회
+     */
+    public List<Member> findAllById(Collection<Long> ids) {
+        return em.createQuery("select m from Member m where m.id in :ids", Member.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    /**
+     * 쿼리 캐시를 사용한다.
+     * 쿼리 캐시에는 결과 회원 id 만 저장되고, 회원은 2차 캐시(member 영역)에서 읽는다.
+     * member 테이블이 변경되면 캐시된 결과는 자동으로 무효화된다.
+     */
     public List<Member> findByName(String name) {
         return em.createQuery("select m from Member m where m.name = :name", Member.class)
                 .setParameter("name", name)
+                .setHint(QueryHints.CACHEABLE, true)
+                .setHint(QueryHints.CACHE_REGION, "query.member-by-name")
+                .getResultList();
+    }
+
+    /**
+     * 회원 가입 시 중복 검사(uk_member_normalized_name 인덱스로 조회), findByName 과 같은 쿼리 캐시 영역을 쓴다.
+     */
+    public List<Member> findByNormalizedName(String normalizedName) {
+        return em.createQuery("select m from Member m where m.normalizedName = :normalizedName", Member.class)
+                .setParameter("normalizedName", normalizedName)
+                .setHint(QueryHints.CACHEABLE, true)
+                .setHint(QueryHints.CACHE_REGION, "query.member-by-name")
                 .getResultList();
     }
+
+    /**
+     * 이미 있는 정규화 이름만 골라서 조회(회원 대량 등록 중복 검사), names 는 IN 절 하나에 넣을 만큼씩 나눠서 넘긴다.
+     */
+    public List<String> findNormalizedNamesIn(Collection<String> names) {
+        return em.createQuery("select m.normalizedName from Member m where m.normalizedName in :names", String.class)
+                .setParameter("names", names)
+                .getResultList();
+    }
+
+    /**
+     * 전체 회원의 정규화 이름(MemberNameFilter 초기화용)
+     * 회원 엔티티를 만들지 않고 이름만 fetchSize 단위로 읽는다. 호출하는 쪽에서 스트림을 닫아야 한다.
+     */
+    public Stream<String> streamNormalizedNames() {
+        return em.createQuery("select m.normalizedName from Member m where m.normalizedName is not null", String.class)
+                .setHint(QueryHints.FETCH_SIZE, 1000)
+                .getResultStream();
+    }
+
+    /**
+     * 전체 회원 id, 이름(MemberSearchIndex 초기화용), 호출하는 쪽에서 스트림을 닫아야 한다.
+     */
+    public Stream<MemberName> streamNames() {
+        return em.createQuery("select new jpabook.jpashop.domain.member.MemberName(m.id, m.name) from Member m", MemberName.class)
+                .setHint(QueryHints.FETCH_SIZE, 1000)
+                .getResultStream();
+    }
+
+    /**
+     * 유니크 제약 위반(DataIntegrityViolationException)을 커밋이 아니라 호출한 곳에서 받기 위해 사용한다.
+     */
+    public void flush() {
+        em.flush();
+    }
 }
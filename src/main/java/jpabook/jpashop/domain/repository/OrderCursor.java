@@ -0,0 +1,69 @@
+package jpabook.jpashop.domain.repository;
+
+import jpabook.jpashop.domain.exception.InvalidPageTokenException;
+import lombok.Getter;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 키셋(seek) 페이징용 커서
+ * 마지막으로 내려준 주문의 (orderDate, orderId)를 기억해두고, 다음 페이지는 그 위치 이후부터 조회한다.
+ * offset 방식은 앞 페이지의 row를 모두 읽고 버리므로 뒤 페이지로 갈수록 느려지지만,
+ * 키셋 방식은 인덱스에서 바로 시작 위치를 찾으므로 몇번째 페이지든 조회 비용이 같다.
+ *
+ * 클라이언트에는 내부 구조를 감춘 불투명(opaque) 토큰 문자열로만 전달한다.
+ * orderDate 가 없는 주문(null)은 맨 뒤에 오며, 토큰에는 날짜 부분을 비워서 넣는다.
+ */
+@Getter
+public class OrderCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime orderDate;
+    private final Long orderId;
+
+    public OrderCursor(LocalDateTime orderDate, Long orderId) {
+        this.orderDate = orderDate;
+        this.orderId = orderId;
+    }
+
+    /**
+     * 커서를 URL에 그대로 쓸 수 있는 토큰으로 변환
+     */
+    public String encode() {
+        if (orderId == null) {
+            throw new IllegalStateException("주문 id 가 없는 커서는 만들 수 없습니다.");
+        }
+        String raw = (orderDate != null ? orderDate.toString() : "") + SEPARATOR + orderId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 토큰이 없으면 첫 페이지를 의미하므로 null 을 리턴한다.
+     * @throws InvalidPageTokenException 해석할 수 없는 토큰(400 응답)
+     */
+    public static OrderCursor decode(String token) {
+        if (!StringUtils.hasText(token)) {
+            return null;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int idx = raw.lastIndexOf(SEPARATOR);
+            if (idx < 0) {
+                throw new InvalidPageTokenException("잘못된 페이지 토큰입니다.");
+            }
+            String orderDate = raw.substring(0, idx);
+            return new OrderCursor(orderDate.isEmpty() ? null : LocalDateTime.parse(orderDate), Long.valueOf(raw.substring(idx + 1)));
+        } catch (InvalidPageTokenException e) {
+            throw e;
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            //NumberFormatException 도 IllegalArgumentException 이다.
+            throw new InvalidPageTokenException("잘못된 페이지 토큰입니다.", e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package jpabook.jpashop.domain.repository;
+
+import jpabook.jpashop.domain.OrderOutboxEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class OrderOutboxRepository {
+
+    private final EntityManager em;
+
+    public void save(OrderOutboxEvent event) {
+        em.persist(event);
+    }
+
+    /**
+     * 아직 feedSeq 를 받지 못한(릴레이 전) 이벤트, 먼저 만들어진 순서
+     */
+    public List<OrderOutboxEvent> findUnrelayed(int limit) {
+        return em.createQuery("select e from OrderOutboxEvent e where e.feedSeq is null order by e.id", OrderOutboxEvent.class)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * 마지막으로 붙인 feedSeq, 없으면 0
+     */
+    public long findMaxFeedSeq() {
+        Long max = em.createQuery("select max(e.feedSeq) from OrderOutboxEvent e", Long.class).getSingleResult();
+        return max != null ? max : 0L;
+    }
+
+    /**
+     * 변경 피드, since 다음 순번부터 limit 건
+     * feed_seq 유니크 인덱스로 시작 위치를 바로 찾으므로 전체 주문 수와 관계없이 변경 건수만큼만 읽는다.
+     */
+    public List<OrderOutboxEvent> findFeed(long since, int limit) {
+        return em.createQuery("select e from OrderOutboxEvent e where e.feedSeq > :since order by e.feedSeq", OrderOutboxEvent.class)
+                .setParameter("since", since)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
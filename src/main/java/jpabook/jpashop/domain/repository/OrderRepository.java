@@ -1,21 +1,45 @@
 package jpabook.jpashop.domain.repository;
 
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.member.MemberSearchIndex;
 import jpabook.jpashop.domain.repository.order.simplequery.OrderSimpleQueryDto;
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
+import static jpabook.jpashop.domain.QDelivery.delivery;
+import static jpabook.jpashop.domain.QMember.member;
+import static jpabook.jpashop.domain.QOrder.order;
+import static jpabook.jpashop.domain.QOrderItem.orderItem;
+import static jpabook.jpashop.domain.item.QItem.item;
+
 @Repository
-@RequiredArgsConstructor
 public class OrderRepository {
+
+    //회원 이름 조건을 회원 id IN 조건으로 바꾸는 최대 회원 수, 넘으면 like 로 검색한다.
+    private static final int MAX_MEMBER_IDS = 1000;
+
     private final EntityManager em;
+    private final JPAQueryFactory query;
+    private final MemberSearchIndex memberSearchIndex;
+
+    public OrderRepository(EntityManager em, MemberSearchIndex memberSearchIndex) {
+        this.em = em;
+        this.query = new JPAQueryFactory(em);
+        this.memberSearchIndex = memberSearchIndex;
+    }
 
     public void save(Order order) {
         em.persist(order);
@@ -26,9 +50,113 @@ public class OrderRepository {
     }
 
 
-//    public List<Order> findAll(OrderSearch orderSearch) {
-//        QOrder order = QOrder.order;
-//    }
+    /**
+     * QueryDSL 동적 쿼리
+     * 조건 값은 모두 파라미터로 바인딩되고, 쿼리 문자열은 어떤 조건이 있느냐에 따라서만 달라진다.
+     * 회원 이름은 부분 일치로, 회원 검색 색인(MemberSearchIndex)에서 찾은 회원 id IN 조건으로 바꿔서 검색한다.(like '%name%' 은 인덱스를 탈 수 없다)
+     * IN 절 크기가 달라지면 쿼리 문자열도 달라지므로 in_clause_parameter_padding 으로 크기를 2의 거듭제곱(1, 2, 4 ... 1024)으로 맞춘다.
+     * 그래서 쿼리 플랜은 나머지 조건 조합(2^4 = 16개) x 회원 이름 조건 모양(없음, like, IN 크기 11가지) 만큼만 만들어지고
+     * 이후에는 하이버네이트 쿼리 플랜 캐시를 재사용한다.
+     * 색인이 아직 만들어지지 않았거나(기동 직후), 색인에서 찾은 회원이 없거나(다른 인스턴스에서 가입해서 아직 색인에 없을 수 있다), 너무 많으면 like 로 검색한다.
+     * 상품 이름은 앞부분 일치(like 'name%')만 지원해서 인덱스를 탈 수 있게 했다.
+     * @param orderSearch
+     * @return
+     */
+    public List<Order> findAll(OrderSearch orderSearch) {
+        return query
+                .select(order)
+                .from(order)
+                .join(order.member, member)
+                .where(searchCondition(orderSearch))
+                .limit(1000)
+                .fetch();
+    }
+
+    /**
+     * findAll(OrderSearch) 과 같은 조건으로 검색하지만 엔티티 대신 필요한 컬럼만 DTO로 바로 조회한다.
+     * @param orderSearch
+     * @return
+     */
+    public List<OrderSimpleQueryDto> findAllDto(OrderSearch orderSearch) {
+        return query
+                .select(Projections.constructor(OrderSimpleQueryDto.class,
+                        order.id,
+                        member.name,
+                        order.orderDate,
+                        order.status,
+                        delivery.address))
+                .from(order)
+                .join(order.member, member)
+                .join(order.delivery, delivery)
+                .where(searchCondition(orderSearch))
+                .limit(1000)
+                .fetch();
+    }
+
+    //null 조건은 where 절에서 무시된다.
+    private BooleanExpression[] searchCondition(OrderSearch orderSearch) {
+        return new BooleanExpression[]{
+                statusEq(orderSearch.getOrderStatus()),
+                memberNameContains(orderSearch.getMemberName(), findMemberIds(orderSearch.getMemberName())),
+                orderDateGoe(orderSearch.getOrderDateFrom()),
+                orderDateLoe(orderSearch.getOrderDateTo()),
+                itemNameStartsWith(orderSearch.getItemName())
+        };
+    }
+
+    private BooleanExpression statusEq(OrderStatus statusCond) {
+        return statusCond != null ? order.status.eq(statusCond) : null;
+    }
+
+    /**
+     * @param memberIds findMemberIds() 결과, null 이면 like
+     */
+    private BooleanExpression memberNameContains(String memberName, List<Long> memberIds) {
+        if (!StringUtils.hasText(memberName)) {
+            return null;
+        }
+        return memberIds != null
+                ? order.member.id.in(memberIds)
+                : member.normalizedName.contains(Member.normalizeName(memberName));
+    }
+
+    /**
+     * 회원 이름 조건에 쓸 회원 id(색인을 한번만 찾는다)
+     * 색인은 인스턴스마다 따로 있어서 다른 인스턴스에서 가입한 회원은 resync 전까지 없을 수 있으므로, 찾은 회원이 없어도 빈 결과로 끝내지 않는다.
+     * @return 색인이 만들어지기 전이거나 찾은 회원이 없거나 MAX_MEMBER_IDS 명을 넘으면 null(like 로 검색)
+     */
+    private List<Long> findMemberIds(String memberName) {
+        if (!StringUtils.hasText(memberName) || !memberSearchIndex.isReady()) {
+            return null;
+        }
+        List<Long> memberIds = memberSearchIndex.findIds(memberName, MAX_MEMBER_IDS);
+        return memberIds.isEmpty() || memberIds.size() > MAX_MEMBER_IDS ? null : memberIds;
+    }
+
+    private BooleanExpression orderDateGoe(LocalDate from) {
+        return from != null ? order.orderDate.goe(from.atStartOfDay()) : null;
+    }
+
+    private BooleanExpression orderDateLoe(LocalDate to) {
+        //to 일자 하루 전체를 포함하기 위해 다음날 0시 미만으로 비교
+        return to != null ? order.orderDate.lt(to.plusDays(1).atStartOfDay()) : null;
+    }
+
+    /**
+     * 상품 이름 조건은 orderItems 를 조인하면 주문 row 가 늘어나므로 exists 서브쿼리로 처리한다.
+     */
+    private BooleanExpression itemNameStartsWith(String itemName) {
+        if (!StringUtils.hasText(itemName)) {
+            return null;
+        }
+        return JPAExpressions
+                .selectOne()
+                .from(orderItem)
+                .join(orderItem.item, item)
+                .where(orderItem.order.eq(order),
+                        item.name.startsWith(itemName))
+                .exists();
+    }
 
 
 
@@ -107,9 +235,12 @@ public class OrderRepository {
             criteria.add(status);
         }
 
-        //회원 이름 검색
+        //회원 이름 검색(회원 검색 색인에서 찾은 회원 id, 찾지 못하면 like)
         if (StringUtils.hasText(orderSearch.getMemberName())) {
-            Predicate name = cb.like(m.<String>get("name"), "%" + orderSearch.getMemberName() + "%");
+            List<Long> memberIds = findMemberIds(orderSearch.getMemberName());
+            Predicate name = memberIds == null
+                    ? cb.like(m.<String>get("normalizedName"), "%" + Member.normalizeName(orderSearch.getMemberName()) + "%")
+                    : m.get("id").in(memberIds);
             criteria.add(name);
         }
 
@@ -142,6 +273,44 @@ public class OrderRepository {
     }
 
 
+    /**
+     * 키셋(seek) 페이징
+     * offset 대신 직전 페이지 마지막 주문의 (orderDate, orderId) 보다 뒤에 있는 주문만 조건으로 조회한다.
+     * (order_date, order_id) 인덱스를 타고 바로 시작 위치를 찾으므로 페이지가 깊어져도 비용이 늘지 않는다.
+     * orderItems 같은 컬렉션은 여기서 페치 조인하지 않고 default_batch_fetch_size 로 IN 쿼리 일괄 조회한다.
+     * @param after 이전 페이지의 마지막 위치, 첫 페이지면 null
+     * @param limit
+     * @return
+     */
+    public List<Order> findAllWithMemberDelivery(OrderCursor after, int limit) {
+        String jpql = "select o from Order o" +
+                " left join fetch o.member m" +
+                " left join fetch o.delivery d";
+
+        //orderDate 가 없는 주문은 맨 뒤(nulls last)에 id 역순으로 온다.
+        if (after != null && after.getOrderDate() != null) {
+            jpql += " where o.orderDate < :orderDate" +
+                    " or (o.orderDate = :orderDate and o.id < :orderId)" +
+                    " or o.orderDate is null";
+        } else if (after != null) {
+            jpql += " where o.orderDate is null and o.id < :orderId";
+        }
+        jpql += " order by o.orderDate desc nulls last, o.id desc";
+
+        TypedQuery<Order> query = em.createQuery(jpql, Order.class)
+                .setMaxResults(limit);
+
+        if (after != null) {
+            if (after.getOrderDate() != null) {
+                query.setParameter("orderDate", after.getOrderDate());
+            }
+            query.setParameter("orderId", after.getOrderId());
+        }
+
+        return query.getResultList();
+    }
+
+
     public List<Order> findAllWithItem() {
         /*
             페치 조인으로 SQL이 1번만 실행됨
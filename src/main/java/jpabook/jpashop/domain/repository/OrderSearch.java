@@ -3,9 +3,20 @@ package jpabook.jpashop.domain.repository;
 import jpabook.jpashop.domain.OrderStatus;
 import lombok.Getter;
 import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
 
 @Getter @Setter
 public class OrderSearch {
-    private String memberName;          //회원 이름
+    private String memberName;          //회원 이름(부분 일치, MemberSearchIndex)
     private OrderStatus orderStatus;    //주문 상태[ORDER, CANCEL]
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate orderDateFrom;    //주문일 시작(포함)
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate orderDateTo;      //주문일 끝(포함)
+
+    private String itemName;            //주문 상품 이름(앞부분 일치)
 }
@@ -0,0 +1,41 @@
+package jpabook.jpashop.domain.repository;
+
+import jpabook.jpashop.domain.OrderTicket;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class OrderTicketRepository {
+
+    private final EntityManager em;
+
+    public void save(OrderTicket ticket) {
+        em.persist(ticket);
+    }
+
+    public OrderTicket findOne(Long ticketId) {
+        return em.find(OrderTicket.class, ticketId);
+    }
+
+    /**
+     * 이미 처리한 접수 번호 조회(재시작 후 다시 꺼낸 주문을 중복 처리하지 않기 위해)
+     */
+    public List<Long> findIdsIn(Collection<Long> ticketIds) {
+        return em.createQuery("select t.id from OrderTicket t where t.id in :ids", Long.class)
+                .setParameter("ids", ticketIds)
+                .getResultList();
+    }
+
+    /**
+     * 가장 큰 접수 번호, 없으면 0
+     */
+    public long findMaxId() {
+        Long max = em.createQuery("select max(t.id) from OrderTicket t", Long.class).getSingleResult();
+        return max != null ? max : 0L;
+    }
+}
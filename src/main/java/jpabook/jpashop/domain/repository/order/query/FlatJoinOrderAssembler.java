@@ -0,0 +1,44 @@
+package jpabook.jpashop.domain.repository.order.query;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Query : 1번
+ * 조인으로 주문 정보가 주문상품 수만큼 중복되어 전송되므로 주문상품이 많으면 IN_BATCH 보다 느릴 수 있다.
+ * 주문상품은 외부 조인하므로 주문상품이 없는 주문도 빈 주문상품 목록으로 나온다.
+ */
+@Component
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class FlatJoinOrderAssembler implements OrderAssembler {
+
+    private final OrderQueryRepository orderQueryRepository;
+
+    @Override
+    public OrderFetchStrategy strategy() {
+        return OrderFetchStrategy.FLAT_JOIN;
+    }
+
+    @Override
+    public List<OrderQueryDto> assemble() {
+        List<OrderFlatDto> flats = orderQueryRepository.findAllByDto_flat();
+
+        //조회 순서를 유지하면서 주문별로 묶는다.
+        Map<Long, OrderQueryDto> orders = new LinkedHashMap<>();
+        for (OrderFlatDto o : flats) {
+            OrderQueryDto order = orders.computeIfAbsent(o.getOrderId(), id ->
+                    new OrderQueryDto(o.getOrderId(), o.getName(), o.getOrderDate(), o.getOrderStatus(), o.getAddress(), new ArrayList<>()));
+            if (o.getCount() != null) {
+                order.getOrderItems().add(new OrderItemQueryDto(o.getOrderId(), o.getItemName(), o.getOrderPrice(), o.getCount()));
+            }
+        }
+        return new ArrayList<>(orders.values());
+    }
+}
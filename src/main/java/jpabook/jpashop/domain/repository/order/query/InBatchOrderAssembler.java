@@ -0,0 +1,54 @@
+package jpabook.jpashop.domain.repository.order.query;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Query : 루트 1번, 컬렉션 (주문 수 / chunkSize)번
+ * 주문 id 를 IN 절 하나에 모두 넣으면 주문이 많을 때 SQL 이 너무 커지고 DB 마다 IN 절 개수 제한도 있으므로
+ * chunkSize 개씩 나눠서 조회한다.
+ */
+@Component
+@Transactional(readOnly = true)
+public class InBatchOrderAssembler implements OrderAssembler {
+
+    private final OrderQueryRepository orderQueryRepository;
+    private final int chunkSize;
+
+    public InBatchOrderAssembler(OrderQueryRepository orderQueryRepository,
+                                 @Value("${jpashop.order.in-batch-size:1000}") int chunkSize) {
+        this.orderQueryRepository = orderQueryRepository;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public OrderFetchStrategy strategy() {
+        return OrderFetchStrategy.IN_BATCH;
+    }
+
+    @Override
+    public List<OrderQueryDto> assemble() {
+        List<OrderQueryDto> result = orderQueryRepository.findOrders();
+
+        List<Long> orderIds = result.stream()
+                .map(OrderQueryDto::getOrderId)
+                .collect(Collectors.toList());
+
+        Map<Long, List<OrderItemQueryDto>> orderItemMap = new HashMap<>();
+        for (int from = 0; from < orderIds.size(); from += chunkSize) {
+            List<Long> chunk = orderIds.subList(from, Math.min(from + chunkSize, orderIds.size()));
+            orderItemMap.putAll(orderQueryRepository.findOrderItemMap(new ArrayList<>(chunk)));
+        }
+
+        result.forEach(o -> o.setOrderItems(orderItemMap.getOrDefault(o.getOrderId(), Collections.emptyList())));
+        return result;
+    }
+}
@@ -0,0 +1,71 @@
+package jpabook.jpashop.domain.repository.order.query;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Query : 1번
+ * 주문상품을 DB에서 주문별 JSON 배열로 집계하므로 주문 한건이 row 한개로 전송된다.
+ * FLAT_JOIN 처럼 쿼리는 1번이지만 주문 정보가 중복되어 전송되지 않는다.
+ */
+@Component
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class JsonAggregationOrderAssembler implements OrderAssembler {
+
+    private final OrderQueryRepository orderQueryRepository;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public OrderFetchStrategy strategy() {
+        return OrderFetchStrategy.JSON_AGG;
+    }
+
+    @Override
+    public List<OrderQueryDto> assemble() {
+        List<Object[]> rows = orderQueryRepository.findAllByDto_jsonAgg();
+
+        List<OrderQueryDto> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Long orderId = ((Number) row[0]).longValue();
+            OrderQueryDto order = new OrderQueryDto(
+                    orderId,
+                    (String) row[1],
+                    ((Timestamp) row[2]).toLocalDateTime(),
+                    OrderStatus.valueOf((String) row[3]),
+                    new Address((String) row[4], (String) row[5], (String) row[6]),
+                    toOrderItems(orderId, (String) row[7]));
+            result.add(order);
+        }
+        return result;
+    }
+
+    private List<OrderItemQueryDto> toOrderItems(Long orderId, String json) {
+        List<OrderItemQueryDto> orderItems = new ArrayList<>();
+        if (json == null) {
+            return orderItems;
+        }
+
+        try {
+            for (JsonNode node : objectMapper.readTree(json)) {
+                orderItems.add(new OrderItemQueryDto(orderId,
+                        node.get("itemName").asText(),
+                        node.get("orderPrice").asInt(),
+                        node.get("count").asInt()));
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("주문상품 JSON 변환 실패 orderId=" + orderId, e);
+        }
+        return orderItems;
+    }
+}
@@ -0,0 +1,15 @@
+package jpabook.jpashop.domain.repository.order.query;
+
+import java.util.List;
+
+/**
+ * 주문 목록과 주문상품 컬렉션을 조립하는 방법(OrderFetchStrategy)별 구현
+ * 어떤 구현을 쓰든 결과(주문 목록과 각 주문의 주문상품)는 같고, 실행되는 쿼리 수와 전송되는 데이터 양만 다르다.
+ * 구현체는 읽기 전용 트랜잭션으로 실행해서 OSIV 없이도 조립에 필요한 쿼리들이 커넥션 하나를 같이 쓰게 한다.
+ */
+public interface OrderAssembler {
+
+    OrderFetchStrategy strategy();
+
+    List<OrderQueryDto> assemble();
+}
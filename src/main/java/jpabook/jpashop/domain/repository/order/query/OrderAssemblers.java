@@ -0,0 +1,33 @@
+package jpabook.jpashop.domain.repository.order.query;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 조회 방법(OrderFetchStrategy)에 맞는 OrderAssembler 를 찾아준다.
+ * 요청에서 방법을 지정하지 않으면 설정(jpashop.order.fetch-strategy)의 기본 방법을 사용한다.
+ */
+@Component
+public class OrderAssemblers {
+
+    private final Map<OrderFetchStrategy, OrderAssembler> assemblers = new EnumMap<>(OrderFetchStrategy.class);
+    private final OrderFetchStrategy defaultStrategy;
+
+    public OrderAssemblers(List<OrderAssembler> assemblers,
+                           @Value("${jpashop.order.fetch-strategy:IN_BATCH}") OrderFetchStrategy defaultStrategy) {
+        assemblers.forEach(assembler -> this.assemblers.put(assembler.strategy(), assembler));
+        this.defaultStrategy = defaultStrategy;
+    }
+
+    public OrderAssembler get(OrderFetchStrategy strategy) {
+        OrderAssembler assembler = assemblers.get(strategy != null ? strategy : defaultStrategy);
+        if (assembler == null) {
+            throw new IllegalArgumentException("지원하지 않는 조회 방법입니다. strategy=" + strategy);
+        }
+        return assembler;
+    }
+}
@@ -0,0 +1,23 @@
+package jpabook.jpashop.domain.repository.order.query;
+
+/**
+ * 주문(OrderQueryDto)과 주문상품(OrderItemQueryDto) 컬렉션을 조회하는 방법
+ */
+public enum OrderFetchStrategy {
+    /**
+     * 주문 1번 + 주문마다 주문상품 1번(N+1), /api/v4/orders
+     */
+    PER_ROW,
+    /**
+     * 주문 1번 + 주문 id 를 IN 절로 묶어서 주문상품 조회(chunk 크기만큼 나눠서), /api/v5/orders
+     */
+    IN_BATCH,
+    /**
+     * 주문과 주문상품을 조인한 1번의 쿼리 결과를 애플리케이션에서 주문별로 묶음, /api/v6/orders
+     */
+    FLAT_JOIN,
+    /**
+     * 주문 1번, 주문상품은 DB에서 주문별 JSON 배열로 집계(json_arrayagg)해서 한 row 로 받음
+     */
+    JSON_AGG
+}
@@ -1,12 +1,17 @@
 package jpabook.jpashop.domain.repository.order.query;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Repository
 @RequiredArgsConstructor
@@ -33,7 +38,7 @@ public class OrderQueryRepository {
                 .getResultList();
     }
 
-    private List<OrderQueryDto> findOrders() {
+    List<OrderQueryDto> findOrders() {
         return em.createQuery(
                 "select new jpabook.jpashop.domain.repository.order.query.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address) from Order o" +
                 " join o.member m" +
@@ -51,7 +56,7 @@ public class OrderQueryRepository {
         return result;
     }
 
-    private Map<Long, List<OrderItemQueryDto>> findOrderItemMap(List<Long> orderIds) {
+    Map<Long, List<OrderItemQueryDto>> findOrderItemMap(List<Long> orderIds) {
         List<OrderItemQueryDto> orderItems = em.createQuery(
                         "select new jpabook.jpashop.domain.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count )" +
                                 " from OrderItem oi" +
@@ -71,14 +76,87 @@ public class OrderQueryRepository {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 주문상품이 없는 주문도 빠지지 않도록 주문상품은 외부 조인한다.(주문상품 컬럼이 null 인 row 1개)
+     */
     public List<OrderFlatDto> findAllByDto_flat() {
         return em.createQuery(
                 "select new jpabook.jpashop.domain.repository.order.query.OrderFlatDto(o.id, m.name, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count)" +
                         " from Order o" +
                         " join o.member m" +
                         " join o.delivery d" +
-                        " join o.orderItems oi" +
-                        " join oi.item i", OrderFlatDto.class)
+                        " left join o.orderItems oi" +
+                        " left join oi.item i", OrderFlatDto.class)
                 .getResultList();
     }
+
+    /**
+     * 주문 1건당 row 1개
+     * 주문상품은 스칼라 서브쿼리에서 json_arrayagg 로 주문별 JSON 배열 문자열로 집계한다.(H2)
+     * [order_id, member name, order_date, status, city, street, zip_code, order_items(JSON)]
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public List<Object[]> findAllByDto_jsonAgg() {
+        return em.createNativeQuery(
+                "select o.order_id, m.name, o.order_date, o.status, d.city, d.street, d.zip_code," +
+                        " (select cast(json_arrayagg(json_object(" +
+                        "       key 'itemName' value i.name," +
+                        "       key 'orderPrice' value oi.order_price," +
+                        "       key 'count' value oi.count)) as varchar)" +
+                        "    from order_item oi" +
+                        "    join item i on i.item_id = oi.item_id" +
+                        "   where oi.order_id = o.order_id) as order_items" +
+                        " from orders o" +
+                        " join member m on m.member_id = o.member_id" +
+                        " join delivery d on d.delivery_id = o.delivery_id")
+                .getResultList();
+    }
+
+    /**
+     * findAllByDto_flat() 과 같은 조인이지만 결과를 List 로 모으지 않고 한 row 씩 흘려보낸다.
+     * getResultStream() 은 하이버네이트에서 forward-only 커서(ScrollableResults)로 동작하고,
+     * fetchSize 만큼씩만 JDBC 드라이버가 가져오므로 주문 수와 상관없이 힙 사용량이 일정하다.
+     *
+     * order by o.id 로 같은 주문의 row 가 연속해서 나오므로, orderId 가 바뀌는 시점에
+     * 직전 주문의 OrderQueryDto 가 완성된 것으로 보고 action 에 넘긴다.
+     * 주문상품이 없는 주문도 빠지지 않도록 주문상품은 외부 조인한다.(findAllByDto_flat 과 같음)
+     * 커서가 열려있는 동안 커넥션을 사용하므로 반드시 트랜잭션 안에서 호출해야 한다.
+     * @param fetchSize
+     * @param action
+     */
+    public void streamAllByDto_flat(int fetchSize, Consumer<OrderQueryDto> action) {
+        try (Stream<OrderFlatDto> rows = em.createQuery(
+                        "select new jpabook.jpashop.domain.repository.order.query.OrderFlatDto(o.id, m.name, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count)" +
+                                " from Order o" +
+                                " join o.member m" +
+                                " join o.delivery d" +
+                                " left join o.orderItems oi" +
+                                " left join oi.item i" +
+                                " order by o.id", OrderFlatDto.class)
+                .setHint(QueryHints.FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.READ_ONLY, true)
+                .getResultStream()) {
+
+            OrderQueryDto current = null;
+            Iterator<OrderFlatDto> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                OrderFlatDto row = iterator.next();
+
+                if (current == null || !current.getOrderId().equals(row.getOrderId())) {
+                    if (current != null) {
+                        action.accept(current);
+                    }
+                    current = new OrderQueryDto(row.getOrderId(), row.getName(), row.getOrderDate(), row.getOrderStatus(), row.getAddress(), new ArrayList<>());
+                }
+                if (row.getCount() != null) {
+                    current.getOrderItems().add(new OrderItemQueryDto(row.getOrderId(), row.getItemName(), row.getOrderPrice(), row.getCount()));
+                }
+            }
+
+            if (current != null) {
+                action.accept(current);
+            }
+        }
+    }
 }
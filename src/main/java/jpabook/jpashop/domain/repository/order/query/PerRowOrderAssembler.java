@@ -0,0 +1,29 @@
+package jpabook.jpashop.domain.repository.order.query;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Query : 루트 1번, 컬렉션 N번 실행
+ * 주문 수가 적을 때만 사용한다.
+ */
+@Component
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class PerRowOrderAssembler implements OrderAssembler {
+
+    private final OrderQueryRepository orderQueryRepository;
+
+    @Override
+    public OrderFetchStrategy strategy() {
+        return OrderFetchStrategy.PER_ROW;
+    }
+
+    @Override
+    public List<OrderQueryDto> assemble() {
+        return orderQueryRepository.findOrderQueryDtos();
+    }
+}
@@ -0,0 +1,17 @@
+package jpabook.jpashop.domain.repository.sales;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * 일별 매출(전체 상품 합계)
+ */
+@Data
+@AllArgsConstructor
+public class DailySalesDto {
+    private LocalDate salesDate;
+    private Long quantity;
+    private Long amount;
+}
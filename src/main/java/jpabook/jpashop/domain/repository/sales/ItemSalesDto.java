@@ -0,0 +1,16 @@
+package jpabook.jpashop.domain.repository.sales;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 기간 내 상품별 매출
+ */
+@Data
+@AllArgsConstructor
+public class ItemSalesDto {
+    private Long itemId;
+    private String itemName;
+    private Long quantity;
+    private Long amount;
+}
@@ -0,0 +1,162 @@
+package jpabook.jpashop.domain.repository.sales;
+
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.sales.ItemDailySales;
+import jpabook.jpashop.domain.sales.ItemDailySalesId;
+import jpabook.jpashop.domain.sales.MemberMonthlySales;
+import jpabook.jpashop.domain.sales.MemberMonthlySalesId;
+import jpabook.jpashop.domain.sales.SalesCheckpoint;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 매출 집계(ItemDailySales, MemberMonthlySales) 저장소
+ * 리포트는 주문/주문상품이 아니라 집계 테이블만 읽으므로 주문 건수와 관계없이 (상품 수 * 일수)만큼만 읽는다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SalesRepository {
+
+    private final EntityManager em;
+
+    /**
+     * 집계 체크포인트, 집계/재집계가 동시에 실행되지 않도록 쓰기 락을 건다.
+     * 처음이면 만들어서 저장한다.
+     */
+    public SalesCheckpoint findCheckpointForUpdate() {
+        SalesCheckpoint checkpoint = em.find(SalesCheckpoint.class, SalesCheckpoint.ID, LockModeType.PESSIMISTIC_WRITE);
+        if (checkpoint == null) {
+            checkpoint = new SalesCheckpoint(SalesCheckpoint.ID);
+            em.persist(checkpoint);
+        }
+        return checkpoint;
+    }
+
+    public ItemDailySales findOrCreate(ItemDailySalesId id) {
+        ItemDailySales sales = em.find(ItemDailySales.class, id);
+        if (sales == null) {
+            sales = new ItemDailySales(id);
+            em.persist(sales);
+        }
+        return sales;
+    }
+
+    public MemberMonthlySales findOrCreate(MemberMonthlySalesId id) {
+        MemberMonthlySales sales = em.find(MemberMonthlySales.class, id);
+        if (sales == null) {
+            sales = new MemberMonthlySales(id);
+            em.persist(sales);
+        }
+        return sales;
+    }
+
+    /**
+     * 집계에 반영할 주문들의 주문상품(주문 포함)을 한번에 조회
+     */
+    public List<OrderItem> findOrderItems(Collection<Long> orderIds) {
+        return em.createQuery(
+                "select oi from OrderItem oi" +
+                        " join fetch oi.order o" +
+                        " where o.id in :orderIds", OrderItem.class)
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+    }
+
+    /**
+     * 기간 내 상품별 매출, 매출 많은 순서
+     */
+    public List<ItemSalesDto> findItemSales(LocalDate from, LocalDate to, int limit) {
+        return em.createQuery(
+                "select new jpabook.jpashop.domain.repository.sales.ItemSalesDto(s.id.itemId, i.name, sum(s.quantity), sum(s.amount))" +
+                        " from ItemDailySales s, Item i" +
+                        " where i.id = s.id.itemId" +
+                        " and s.id.salesDate between :from and :to" +
+                        " group by s.id.itemId, i.name" +
+                        " order by sum(s.amount) desc, s.id.itemId", ItemSalesDto.class)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * 기간 내 일별 매출(매출이 없는 날은 빠진다)
+     */
+    public List<DailySalesDto> findDailySales(LocalDate from, LocalDate to) {
+        return em.createQuery(
+                "select new jpabook.jpashop.domain.repository.sales.DailySalesDto(s.id.salesDate, sum(s.quantity), sum(s.amount))" +
+                        " from ItemDailySales s" +
+                        " where s.id.salesDate between :from and :to" +
+                        " group by s.id.salesDate" +
+                        " order by s.id.salesDate", DailySalesDto.class)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList();
+    }
+
+    public List<MemberMonthlySales> findMemberMonthlySales(Long memberId) {
+        return em.createQuery(
+                "select s from MemberMonthlySales s" +
+                        " where s.id.memberId = :memberId" +
+                        " order by s.id.salesMonth", MemberMonthlySales.class)
+                .setParameter("memberId", memberId)
+                .getResultList();
+    }
+
+    /**
+     * 집계 테이블을 비우고 주문/주문상품에서 다시 만든다.(최초 적재, 집계 오류 복구)
+     * 변경 피드 순번 feedSeq 까지 반영된 상태를 만든다.
+     * - 주문 이벤트가 아직 릴레이 전이거나 feedSeq 이후이면 집계가 나중에 더하므로 제외한다.
+     * - 취소된 주문은 취소 이벤트가 feedSeq 이후(또는 릴레이 전)이면 집계가 나중에 빼므로 포함한다.
+     * - 아웃박스 이전에 만들어진 주문(이벤트 없음)은 현재 상태대로 반영한다.
+     * 대량 insert ... select 한 번씩이라 주문을 애플리케이션으로 읽어오지 않는다.
+     */
+    public void rebuild(long feedSeq) {
+        em.createQuery("delete from ItemDailySales").executeUpdate();
+        em.createQuery("delete from MemberMonthlySales").executeUpdate();
+
+        nativeUpdate(ItemDailySales.class,
+                "insert into item_daily_sales (item_id, sales_date, quantity, amount, order_count)" +
+                        " select oi.item_id, cast(o.order_date as date), sum(oi.count), sum(cast(oi.order_price as bigint) * oi.count), count(*)" +
+                        " from order_item oi" +
+                        " join orders o on o.order_id = oi.order_id" +
+                        " where " + VISIBLE_ORDER +
+                        " group by oi.item_id, cast(o.order_date as date)", feedSeq);
+
+        nativeUpdate(MemberMonthlySales.class,
+                "insert into member_monthly_sales (member_id, sales_month, amount, order_count)" +
+                        " select o.member_id, cast(date_trunc('MONTH', o.order_date) as date), sum(t.amount), count(*)" +
+                        " from orders o" +
+                        " join (select oi.order_id, sum(cast(oi.order_price as bigint) * oi.count) as amount" +
+                        "       from order_item oi group by oi.order_id) t on t.order_id = o.order_id" +
+                        " where " + VISIBLE_ORDER +
+                        " group by o.member_id, cast(date_trunc('MONTH', o.order_date) as date)", feedSeq);
+    }
+
+    /**
+     * 네이티브 update 는 어떤 테이블을 바꾸는지 알려주지 않으면 하이버네이트가 2차 캐시 전체를 비운다.
+     */
+    private void nativeUpdate(Class<?> entityClass, String sql, long feedSeq) {
+        em.createNativeQuery(sql)
+                .setParameter("feedSeq", feedSeq)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(entityClass)
+                .executeUpdate();
+    }
+
+    //feedSeq 시점의 집계에 포함되는 주문
+    private static final String VISIBLE_ORDER =
+            "not exists (select 1 from order_outbox_event e" +
+            "            where e.order_id = o.order_id and e.type = 'ORDER_PLACED'" +
+            "            and (e.feed_seq is null or e.feed_seq > :feedSeq))" +
+            " and (o.status <> 'CANCEL' or exists (select 1 from order_outbox_event e" +
+            "            where e.order_id = o.order_id and e.type = 'ORDER_CANCELED'" +
+            "            and (e.feed_seq is null or e.feed_seq > :feedSeq)))";
+}
@@ -0,0 +1,47 @@
+package jpabook.jpashop.domain.sales;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.EmbeddedId;
+import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+/**
+ * 상품별, 주문일별 매출 집계(취소 반영된 순매출)
+ * SalesAggregator 가 주문 변경 피드를 읽어서 증분으로 갱신한다.
+ */
+@Entity
+@Getter
+@Table(indexes = {
+        //기간 리포트(상품 구분 없이 날짜 범위)용 인덱스
+        @Index(name = "idx_item_daily_sales_date", columnList = "sales_date")
+})
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ItemDailySales {
+
+    @EmbeddedId
+    private ItemDailySalesId id;
+
+    private long quantity;      //판매 수량
+
+    private long amount;        //매출(주문 가격 * 수량)
+
+    private long orderCount;    //주문상품 건수
+
+    public ItemDailySales(ItemDailySalesId id) {
+        this.id = id;
+    }
+
+    //======비즈니스 로직=============//
+    /**
+     * 취소는 음수로 더한다.
+     */
+    public void add(long quantity, long amount, long orderCount) {
+        this.quantity += quantity;
+        this.amount += amount;
+        this.orderCount += orderCount;
+    }
+}
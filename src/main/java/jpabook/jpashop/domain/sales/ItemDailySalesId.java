@@ -0,0 +1,28 @@
+package jpabook.jpashop.domain.sales;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Embeddable
+@Getter
+@EqualsAndHashCode
+public class ItemDailySalesId implements Serializable {
+
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Column(name = "sales_date")
+    private LocalDate salesDate;
+
+    protected ItemDailySalesId() {}
+
+    public ItemDailySalesId(Long itemId, LocalDate salesDate) {
+        this.itemId = itemId;
+        this.salesDate = salesDate;
+    }
+}
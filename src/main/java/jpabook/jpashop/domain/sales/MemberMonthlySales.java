@@ -0,0 +1,34 @@
+package jpabook.jpashop.domain.sales;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.EmbeddedId;
+import javax.persistence.Entity;
+
+/**
+ * 회원별, 월별 구매 집계(취소 반영된 순매출)
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class MemberMonthlySales {
+
+    @EmbeddedId
+    private MemberMonthlySalesId id;
+
+    private long amount;
+
+    private long orderCount;
+
+    public MemberMonthlySales(MemberMonthlySalesId id) {
+        this.id = id;
+    }
+
+    //======비즈니스 로직=============//
+    public void add(long amount, long orderCount) {
+        this.amount += amount;
+        this.orderCount += orderCount;
+    }
+}
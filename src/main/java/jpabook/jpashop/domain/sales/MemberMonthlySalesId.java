@@ -0,0 +1,29 @@
+package jpabook.jpashop.domain.sales;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Embeddable
+@Getter
+@EqualsAndHashCode
+public class MemberMonthlySalesId implements Serializable {
+
+    @Column(name = "member_id")
+    private Long memberId;
+
+    //그 달의 1일
+    @Column(name = "sales_month")
+    private LocalDate salesMonth;
+
+    protected MemberMonthlySalesId() {}
+
+    public MemberMonthlySalesId(Long memberId, LocalDate salesMonth) {
+        this.memberId = memberId;
+        this.salesMonth = salesMonth.withDayOfMonth(1);
+    }
+}
@@ -0,0 +1,120 @@
+package jpabook.jpashop.domain.sales;
+
+import jpabook.jpashop.domain.OrderEventType;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.OrderOutboxEvent;
+import jpabook.jpashop.domain.repository.OrderOutboxRepository;
+import jpabook.jpashop.domain.repository.sales.SalesRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 매출 집계
+ * 주문 변경 피드(OrderOutboxEvent.feedSeq 순서)를 체크포인트 다음부터 batchSize 건씩 읽어서
+ * 주문이면 더하고 취소면 빼서 상품/일, 회원/월 집계에 반영한다.(날짜는 취소 시점이 아니라 주문일 기준)
+ *
+ * 주문 트랜잭션에서 직접 집계 행을 고치면 인기 상품의 오늘 행에 주문이 몰려서 락 경합이 생기고,
+ * 같은 날 첫 주문끼리 insert 충돌도 난다. 그래서 주문은 아웃박스만 남기고, 집계는 여기서 한 곳에서만 한다.
+ * 집계 반영과 체크포인트 갱신이 한 트랜잭션이므로 같은 이벤트가 두번 반영되거나 빠지지 않는다.
+ * 체크포인트에 쓰기 락을 걸어서 인스턴스가 여러개여도 한번에 하나만 집계한다.
+ */
+@Slf4j
+@Component
+public class SalesAggregator {
+
+    private final OrderOutboxRepository orderOutboxRepository;
+    private final SalesRepository salesRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public SalesAggregator(OrderOutboxRepository orderOutboxRepository,
+                           SalesRepository salesRepository,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${jpashop.sales.batch-size:500}") int batchSize) {
+        this.orderOutboxRepository = orderOutboxRepository;
+        this.salesRepository = salesRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${jpashop.sales.aggregate-interval:1000}")
+    public void aggregate() {
+        try {
+            int applied;
+            do {
+                applied = transactionTemplate.execute(status -> aggregateBatch());
+            } while (applied == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("매출 집계 실패, 다음 주기에 재시도합니다.", e);
+        }
+    }
+
+    /**
+     * 집계를 주문/주문상품에서 다시 만든다.
+     * 체크포인트를 현재 마지막 feedSeq 로 옮기므로 이후 이벤트는 다시 증분으로 반영된다.
+     * @return 재집계 기준 feedSeq
+     */
+    public long rebuild() {
+        return transactionTemplate.execute(status -> {
+            SalesCheckpoint checkpoint = salesRepository.findCheckpointForUpdate();
+            long feedSeq = orderOutboxRepository.findMaxFeedSeq();
+            salesRepository.rebuild(feedSeq);
+            checkpoint.advance(feedSeq);
+            log.info("매출 집계 재생성 완료, feedSeq={}", feedSeq);
+            return feedSeq;
+        });
+    }
+
+    /**
+     * @return 반영한 이벤트 수
+     */
+    private int aggregateBatch() {
+        SalesCheckpoint checkpoint = salesRepository.findCheckpointForUpdate();
+        List<OrderOutboxEvent> events = orderOutboxRepository.findFeed(checkpoint.getLastFeedSeq(), batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        Set<Long> orderIds = events.stream()
+                .map(OrderOutboxEvent::getOrderId)
+                .collect(Collectors.toSet());
+        Map<Long, List<OrderItem>> orderItemMap = salesRepository.findOrderItems(orderIds).stream()
+                .collect(Collectors.groupingBy(orderItem -> orderItem.getOrder().getId()));
+
+        for (OrderOutboxEvent event : events) {
+            List<OrderItem> orderItems = orderItemMap.get(event.getOrderId());
+            if (orderItems == null) {
+                log.warn("매출 집계 대상 주문이 없습니다. feedSeq={}, orderId={}", event.getFeedSeq(), event.getOrderId());
+                continue;
+            }
+            apply(event, orderItems);
+        }
+
+        checkpoint.advance(events.get(events.size() - 1).getFeedSeq());
+        return events.size();
+    }
+
+    private void apply(OrderOutboxEvent event, List<OrderItem> orderItems) {
+        int sign = event.getType() == OrderEventType.ORDER_CANCELED ? -1 : 1;
+        LocalDate orderDate = orderItems.get(0).getOrder().getOrderDate().toLocalDate();
+
+        long orderAmount = 0;
+        for (OrderItem orderItem : orderItems) {
+            long amount = (long) orderItem.getOrderPrice() * orderItem.getCount();
+            salesRepository.findOrCreate(new ItemDailySalesId(orderItem.getItem().getId(), orderDate))
+                    .add(sign * orderItem.getCount(), sign * amount, sign);
+            orderAmount += amount;
+        }
+        salesRepository.findOrCreate(new MemberMonthlySalesId(event.getMemberId(), orderDate))
+                .add(sign * orderAmount, sign);
+    }
+}
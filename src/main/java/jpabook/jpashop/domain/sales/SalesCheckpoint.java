@@ -0,0 +1,33 @@
+package jpabook.jpashop.domain.sales;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * 매출 집계에 반영한 마지막 주문 변경 피드 순번(OrderOutboxEvent.feedSeq)
+ * 집계 갱신과 같은 트랜잭션에서 올리므로 같은 이벤트가 두번 반영되지 않는다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class SalesCheckpoint {
+
+    public static final String ID = "sales";
+
+    @Id
+    private String id;
+
+    private long lastFeedSeq;
+
+    public SalesCheckpoint(String id) {
+        this.id = id;
+    }
+
+    public void advance(long lastFeedSeq) {
+        this.lastFeedSeq = lastFeedSeq;
+    }
+}
@@ -0,0 +1,115 @@
+package jpabook.jpashop.domain.service;
+
+import jpabook.jpashop.domain.OrderTicket;
+import jpabook.jpashop.domain.queue.OrderQueue;
+import jpabook.jpashop.domain.queue.QueuedOrder;
+import jpabook.jpashop.domain.repository.OrderTicketRepository;
+import jpabook.jpashop.domain.service.query.OrderTicketView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 비동기 주문(접수 후 처리)
+ * 요청 스레드는 주문을 검증해서 대기열(OrderQueue)에 넣고 접수 번호만 돌려준다.
+ * 실제 주문(회원/상품 조회, 재고 감소, 배송 생성, 저장)은 OrderQueueWorker 가 배치로 꺼내서 process() 로 처리한다.
+ * 처리 결과는 접수 번호별로 OrderTicket 에 남기고, 클라이언트는 findTicket() 으로 상태를 조회한다.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "jpashop.order.async.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class AsyncOrderService {
+
+    private final OrderQueue orderQueue;
+    private final OrderService orderService;
+    private final OrderTicketRepository orderTicketRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final OptimisticLockRetryExecutor retryExecutor;
+
+    /**
+     * 주문 접수, DB를 사용하지 않는다.
+     * @return 접수 번호
+     */
+    public Long accept(Long memberId, List<OrderLine> lines) {
+        return orderQueue.enqueue(memberId, lines);
+    }
+
+    /**
+     * 접수 번호 상태 조회
+     * 대기열 확인을 먼저 해야 처리 완료(OrderTicket 저장 -> acknowledge) 사이에 조회해도 놓치지 않는다.
+     */
+    public OrderTicketView findTicket(Long ticketId) {
+        boolean pending = orderQueue.isPending(ticketId);
+
+        OrderTicket ticket = orderTicketRepository.findOne(ticketId);
+        if (ticket != null) {
+            return OrderTicketView.of(ticket);
+        }
+        if (pending) {
+            return OrderTicketView.queued(ticketId);
+        }
+        throw new IllegalArgumentException("존재하지 않는 접수 번호입니다. ticketId=" + ticketId);
+    }
+
+
+    /**
+     * 대기열에서 꺼낸 주문 배치 처리
+     * 배치 전체를 한 트랜잭션으로 처리하고, 한 건이라도 실패하면(배치 전체 롤백) 한 건씩 다시 처리해서 실패한 주문만 FAILED 로 남긴다.
+     * DB 장애처럼 다시 시도하면 성공할 수 있는 예외는 그대로 던져서 워커가 배치를 다시 처리하게 한다.
+     */
+    public void process(List<QueuedOrder> batch) {
+        Set<Long> processed = new HashSet<>(transactionTemplate.execute(status ->
+                orderTicketRepository.findIdsIn(batch.stream().map(QueuedOrder::getSeq).collect(Collectors.toList()))));
+        List<QueuedOrder> todo = batch.stream()
+                .filter(queued -> !processed.contains(queued.getSeq()))
+                .collect(Collectors.toList());
+        if (todo.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> todo.forEach(this::placeOrder));
+        } catch (RuntimeException e) {
+            if (todo.size() == 1 && isRetryable(e)) {
+                throw e;
+            }
+            log.debug("주문 배치 처리 실패, 한 건씩 다시 처리합니다. size={}", todo.size(), e);
+            todo.forEach(this::processOne);
+        }
+    }
+
+    private void processOne(QueuedOrder queued) {
+        try {
+            retryExecutor.execute(() -> transactionTemplate.executeWithoutResult(status -> placeOrder(queued)));
+        } catch (RuntimeException e) {
+            if (isRetryable(e)) {
+                throw e;
+            }
+            log.info("비동기 주문 실패 ticketId={}, {}", queued.getSeq(), e.getMessage());
+            transactionTemplate.executeWithoutResult(status ->
+                    orderTicketRepository.save(OrderTicket.failed(queued.getSeq(), queued.getAcceptedDate(), e.getMessage())));
+        }
+    }
+
+    private void placeOrder(QueuedOrder queued) {
+        Long orderId = orderService.order(queued.getMemberId(), queued.getLines());
+        orderTicketRepository.save(OrderTicket.completed(queued.getSeq(), queued.getAcceptedDate(), orderId));
+    }
+
+    private boolean isRetryable(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException;
+    }
+}
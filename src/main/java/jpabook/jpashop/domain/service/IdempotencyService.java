@@ -0,0 +1,210 @@
+package jpabook.jpashop.domain.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jpabook.jpashop.domain.IdempotencyRecord;
+import jpabook.jpashop.domain.IdempotencyStatus;
+import jpabook.jpashop.domain.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key 요청 헤더 처리
+ * 클라이언트가 타임아웃 후 같은 키로 다시 보낸 요청은 다시 실행하지 않고 처음 결과(주문 id)를 돌려준다.
+ *
+ *   1) 메모리 : 키별 실행 결과(Future)를 Caffeine 캐시(최대 max-size 개, ttl-seconds 후 만료)에 둔다.
+ *              같은 인스턴스에 동시에 들어온 중복 요청은 먼저 온 요청의 실행이 끝나기를 기다렸다가 같은 결과를 받는다.
+ *   2) DB    : IdempotencyRecord 를 IN_PROGRESS 로 먼저 커밋하고, 작업과 같은 트랜잭션에서 COMPLETED 로 바꾼다.
+ *              재시작했거나 다른 인스턴스로 들어온 중복 요청도 결과를 돌려받고, 처리 중이면 거절된다.
+ *
+ * 작업이 실패하면 기록을 지워서 같은 키로 다시 시도할 수 있게 한다.
+ * 낙관적 락 충돌 재시도(OptimisticLockRetryExecutor)도 여기서 하므로 컨트롤러에서 따로 감싸지 않는다.
+ */
+@Slf4j
+@Component
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final OptimisticLockRetryExecutor retryExecutor;
+    private final Duration ttl;
+    private final Duration inProgressTimeout;
+    private final Cache<String, IdempotentCall> calls;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              TransactionTemplate transactionTemplate,
+                              OptimisticLockRetryExecutor retryExecutor,
+                              @Value("${jpashop.idempotency.max-size:10000}") long maxSize,
+                              @Value("${jpashop.idempotency.ttl-seconds:86400}") long ttlSeconds,
+                              @Value("${jpashop.idempotency.in-progress-timeout-seconds:30}") long inProgressTimeoutSeconds) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.retryExecutor = retryExecutor;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.inProgressTimeout = Duration.ofSeconds(inProgressTimeoutSeconds);
+        this.calls = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * @param scope 작업 종류(order, cancel 등), 같은 키라도 작업이 다르면 다른 요청이다.
+     * @param key 클라이언트가 보낸 Idempotency-Key, 없으면 그냥 실행한다.
+     * @param fingerprint 요청 내용, 같은 키로 내용이 다른 요청을 보내면 거절한다.
+     * @param action 트랜잭션 안에서 실행할 작업, 결과로 주문 id 를 돌려준다.
+     */
+    public Long execute(String scope, String key, String fingerprint, Supplier<Long> action) {
+        if (!StringUtils.hasText(key)) {
+            return retryExecutor.execute(action);
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " 는 " + MAX_KEY_LENGTH + "자를 넘을 수 없습니다.");
+        }
+
+        String id = scope + ":" + key;
+        fingerprint = digest(fingerprint);
+        IdempotentCall mine = new IdempotentCall(fingerprint);
+        IdempotentCall running = calls.asMap().putIfAbsent(id, mine);
+        if (running != null) {
+            return running.await(fingerprint, inProgressTimeout);
+        }
+
+        try {
+            Long result = executeOnce(id, fingerprint, action);
+            mine.future.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            //기다리던 중복 요청은 같은 예외를 받고, 이후 요청은 다시 실행할 수 있다.
+            calls.asMap().remove(id, mine);
+            mine.future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Long executeOnce(String id, String fingerprint, Supplier<Long> action) {
+        IdempotencyRecord completed = claim(id, fingerprint);
+        if (completed != null) {
+            return completed.getResultId();
+        }
+
+        try {
+            return retryExecutor.execute(() -> transactionTemplate.execute(status -> {
+                Long result = action.get();
+                idempotencyRecordRepository.findOne(id).complete(result);
+                return result;
+            }));
+        } catch (RuntimeException e) {
+            transactionTemplate.executeWithoutResult(status -> {
+                IdempotencyRecord record = idempotencyRecordRepository.findOne(id);
+                if (record != null && record.getStatus() == IdempotencyStatus.IN_PROGRESS) {
+                    idempotencyRecordRepository.remove(record);
+                }
+            });
+            throw e;
+        }
+    }
+
+    /**
+     * 처리 기록을 IN_PROGRESS 로 저장(커밋)한다.
+     * @return 이미 처리가 끝난 기록, 이번 요청이 처리해야 하면 null
+     */
+    private IdempotencyRecord claim(String id, String fingerprint) {
+        try {
+            return transactionTemplate.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                IdempotencyRecord record = idempotencyRecordRepository.findOneForUpdate(id);
+                if (record == null) {
+                    idempotencyRecordRepository.save(IdempotencyRecord.start(id, fingerprint, now.plus(ttl)));
+                    return null;
+                }
+                if (record.isAbandoned(now, now.minus(inProgressTimeout))) {
+                    record.restart(fingerprint, now.plus(ttl));
+                    return null;
+                }
+
+                if (!record.getFingerprint().equals(fingerprint)) {
+                    throw new IllegalArgumentException("같은 " + HEADER + " 로 다른 요청을 보낼 수 없습니다.");
+                }
+                if (record.getStatus() == IdempotencyStatus.IN_PROGRESS) {
+                    throw new IllegalStateException("같은 요청을 처리하고 있습니다. 잠시 후 다시 시도하세요.");
+                }
+                return record;
+            });
+        } catch (DataIntegrityViolationException e) {
+            //다른 인스턴스가 같은 키를 먼저 저장했다.
+            throw new IllegalStateException("같은 요청을 처리하고 있습니다. 잠시 후 다시 시도하세요.", e);
+        }
+    }
+
+    /**
+     * 요청 내용은 길이가 제각각이므로 SHA-256 으로 줄여서 비교한다.
+     */
+    private String digest(String fingerprint) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(fingerprint.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jpashop.idempotency.cleanup-interval:600000}")
+    public void deleteExpired() {
+        Integer deleted = transactionTemplate.execute(status -> idempotencyRecordRepository.deleteExpired(LocalDateTime.now()));
+        if (deleted != null && deleted > 0) {
+            log.debug("만료된 Idempotency-Key 기록 {}건 삭제", deleted);
+        }
+    }
+
+
+    private static class IdempotentCall {
+        private final String fingerprint;
+        private final CompletableFuture<Long> future = new CompletableFuture<>();
+
+        IdempotentCall(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        Long await(String fingerprint, Duration timeout) {
+            if (!this.fingerprint.equals(fingerprint)) {
+                throw new IllegalArgumentException("같은 " + HEADER + " 로 다른 요청을 보낼 수 없습니다.");
+            }
+
+            try {
+                return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (TimeoutException e) {
+                throw new IllegalStateException("같은 요청을 처리하고 있습니다. 잠시 후 다시 시도하세요.", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package jpabook.jpashop.domain.service;
 
+import jpabook.jpashop.domain.catalog.ItemSearchIndex;
 import jpabook.jpashop.domain.item.Book;
 import jpabook.jpashop.domain.item.Item;
 import jpabook.jpashop.domain.repository.ItemRepository;
+import jpabook.jpashop.domain.stock.StockLedger;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,10 +16,14 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ItemService {
     private final ItemRepository itemRepository;
+    private final StockLedger stockLedger;
+    private final ItemSearchIndex itemSearchIndex;
 
     @Transactional
     public void saveItem(Item item) {
         itemRepository.save(item);
+        //merge 된 경우 넘어온 item 은 준영속이므로 영속 상태의 상품을 색인한다.(영속성 컨텍스트에서 찾으므로 쿼리 없음)
+        itemSearchIndex.indexAfterCommit(itemRepository.findOne(item.getId()));
     }
 
     /**
@@ -38,8 +44,15 @@ public class ItemService {
         //생성된 findItem 인스턴스의 값을 변경시킴으로 JPA가 변경점이 발생하였음을 인지하게 만듦으로
         //트랜잭션 커밋 시점에 자동으로 update가 발생되도록 유도한다.
         //이것이 유지보수하기에 편리하고, merge(병합)을 통한 데이터 갱신으로 원치 않는 필드의 값 갱신 발생 오류를 막을 수 있다.
+        //재고 원장을 사용 중이면 수정한 재고로 원장을 다시 시작한다.
+        //상품을 읽기 전에 원장 락을 잡아서, 읽은 뒤에 DB 반영(versioned update)이 끼어들어 버전 충돌이 나지 않게 한다.
+        if (stockLedger.isEnabled()) {
+            stockLedger.reset(itemId, stockQuantity);
+        }
+
         Item findItem = itemRepository.findOne(itemId);
         findItem.changeItemInfo(name, price, stockQuantity);
+        itemSearchIndex.indexAfterCommit(findItem);
     }
 
     public List<Item> findItems() {
@@ -0,0 +1,285 @@
+package jpabook.jpashop.domain.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.member.MemberNameFilter;
+import jpabook.jpashop.domain.member.MemberSearchIndex;
+import jpabook.jpashop.domain.repository.MemberRepository;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * 회원 대량 등록
+ * 파트너사 회원 파일(NDJSON)을 chunkSize 줄씩 읽어서 chunk 하나를 트랜잭션 하나로 처리한다.
+ *   1) 요청 안에서 같은 이름(정규화 기준)이 다시 나오면 중복
+ *   2) 이미 가입된 이름은 IN 쿼리(IN_LIMIT 개씩)로 한번에 확인, 이름 필터(MemberNameFilter)에 없는 이름은 확인하지 않는다.
+ *   3) Member id 는 pooled 시퀀스(allocationSize = 50), insert 는 hibernate.jdbc.batch_size 로 JDBC 배치
+ *   4) chunk 가 끝나면 flush, clear
+ * 처리 결과는 줄마다 하나씩 chunk 가 커밋될 때마다 resultConsumer 로 넘기므로 호출하는 쪽에서 바로 응답에 쓸 수 있다.
+ *
+ * 확인과 insert 사이에 같은 이름으로 가입하면 chunk 커밋이 유니크 제약으로 실패한다.
+ * 이때는 그 chunk 만 한 줄씩(MemberService.join) 다시 처리해서 실패한 줄만 중복으로 기록한다.
+ */
+@Slf4j
+@Service
+public class MemberImportService {
+
+    //IN 절 하나에 넣는 이름 수
+    private static final int IN_LIMIT = 1000;
+
+    private final MemberRepository memberRepository;
+    private final MemberService memberService;
+    private final MemberNameFilter memberNameFilter;
+    private final MemberSearchIndex memberSearchIndex;
+    private final EntityManager em;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public MemberImportService(MemberRepository memberRepository,
+                               MemberService memberService,
+                               MemberNameFilter memberNameFilter,
+                               MemberSearchIndex memberSearchIndex,
+                               EntityManager em,
+                               TransactionTemplate transactionTemplate,
+                               ObjectMapper objectMapper,
+                               @Value("${jpashop.import.chunk-size:1000}") int chunkSize) {
+        this.memberRepository = memberRepository;
+        this.memberService = memberService;
+        this.memberNameFilter = memberNameFilter;
+        this.memberSearchIndex = memberSearchIndex;
+        this.em = em;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @param input NDJSON, 한 줄에 하나씩 {"name":"kim","city":"서울","street":"강가","zipcode":"123-123"}
+     * @param resultConsumer chunk 마다 그 chunk 의 줄별 결과(입력 순서)
+     */
+    public void importMembers(InputStream input, Consumer<List<MemberImportResult>> resultConsumer) throws IOException {
+        long startNanos = System.nanoTime();
+        Set<String> seenNames = new HashSet<>();
+        long total = 0;
+        long created = 0;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            List<ImportRow> chunk = new ArrayList<>(chunkSize);
+            String line;
+            long lineNumber = 0;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                chunk.add(parse(line, lineNumber));
+
+                if (chunk.size() >= chunkSize) {
+                    created += importChunk(chunk, seenNames, resultConsumer);
+                    total += chunk.size();
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+
+            if (!chunk.isEmpty()) {
+                created += importChunk(chunk, seenNames, resultConsumer);
+                total += chunk.size();
+            }
+        }
+
+        log.info("회원 대량 등록 완료 total={}, created={}, elapsedMillis={}",
+                total, created, (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    /**
+     * @return 등록한 회원 수
+     */
+    private long importChunk(List<ImportRow> rows, Set<String> seenNames, Consumer<List<MemberImportResult>> resultConsumer) {
+        List<ImportRow> pending = new ArrayList<>();
+        for (ImportRow row : rows) {
+            if (row.result != null) {
+                continue;   //형식 오류
+            }
+            if (!seenNames.add(row.normalizedName)) {
+                row.result = MemberImportResult.duplicate(row.lineNumber, row.name, "요청 안에서 중복된 이름입니다.");
+                continue;
+            }
+            pending.add(row);
+        }
+
+        if (!pending.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> saveAll(pending));
+            } catch (DataAccessException e) {
+                log.warn("회원 대량 등록 chunk 저장 실패, 한 줄씩 다시 처리합니다. lines {} ~ {}",
+                        pending.get(0).lineNumber, pending.get(pending.size() - 1).lineNumber, e);
+                pending.forEach(this::joinOne);
+            }
+        }
+
+        List<MemberImportResult> results = rows.stream()
+                .map(row -> row.result)
+                .collect(Collectors.toList());
+        resultConsumer.accept(results);
+        return results.stream()
+                .filter(result -> result.getStatus() == MemberImportStatus.CREATED)
+                .count();
+    }
+
+    private void saveAll(List<ImportRow> rows) {
+        Set<String> existing = findExistingNames(rows);
+
+        List<ImportRow> saved = new ArrayList<>();
+        for (ImportRow row : rows) {
+            if (existing.contains(row.normalizedName)) {
+                row.result = MemberImportResult.duplicate(row.lineNumber, row.name, "이미 존재하는 회원입니다.");
+                continue;
+            }
+            row.member = row.newMember();
+            memberRepository.save(row.member);
+            saved.add(row);
+        }
+
+        memberRepository.flush();     //유니크 제약 위반이 DataAccessException 으로 변환된다.
+        em.clear();
+
+        for (ImportRow row : saved) {
+            row.result = MemberImportResult.created(row.lineNumber, row.name, row.member.getId());
+            memberNameFilter.put(row.normalizedName);
+            memberSearchIndex.indexAfterCommit(row.member.getId(), row.name);
+        }
+    }
+
+    /**
+     * 이름 필터가 있을 수도 있다고 하는 이름만 IN_LIMIT 개씩 나눠서 조회한다.
+     */
+    private Set<String> findExistingNames(List<ImportRow> rows) {
+        List<String> candidates = rows.stream()
+                .map(row -> row.normalizedName)
+                .filter(Objects::nonNull)
+                .filter(memberNameFilter::mightContain)
+                .collect(Collectors.toList());
+
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < candidates.size(); from += IN_LIMIT) {
+            existing.addAll(memberRepository.findNormalizedNamesIn(candidates.subList(from, Math.min(from + IN_LIMIT, candidates.size()))));
+        }
+        return existing;
+    }
+
+    /**
+     * chunk 저장이 실패했을 때 한 줄씩 가입(줄마다 트랜잭션)
+     */
+    private void joinOne(ImportRow row) {
+        try {
+            Long id = memberService.join(row.newMember());
+            row.result = MemberImportResult.created(row.lineNumber, row.name, id);
+        } catch (IllegalStateException e) {
+            row.result = MemberImportResult.duplicate(row.lineNumber, row.name, e.getMessage());
+        } catch (RuntimeException e) {
+            row.result = MemberImportResult.failed(row.lineNumber, row.name, e.getMessage());
+        }
+    }
+
+    private ImportRow parse(String line, long lineNumber) {
+        ImportRow row = new ImportRow(lineNumber);
+        try {
+            JsonNode node = objectMapper.readTree(line);
+            row.name = node.path("name").asText(null);
+            if (row.name == null || row.name.isBlank()) {
+                row.result = MemberImportResult.invalid(lineNumber, row.name, "name 은 필수입니다.");
+                return row;
+            }
+            row.normalizedName = Member.normalizeName(row.name);
+            row.address = new Address(node.path("city").asText(null), node.path("street").asText(null), node.path("zipcode").asText(null));
+        } catch (IOException | RuntimeException e) {
+            row.result = MemberImportResult.invalid(lineNumber, row.name, "형식 오류: " + e.getMessage());
+        }
+        return row;
+    }
+
+
+    private static class ImportRow {
+        private final long lineNumber;
+        private String name;
+        private String normalizedName;
+        private Address address;
+        private Member member;
+        private MemberImportResult result;
+
+        ImportRow(long lineNumber) {
+            this.lineNumber = lineNumber;
+        }
+
+        Member newMember() {
+            Member member = new Member();
+            member.setName(name);
+            member.setAddress(address);
+            return member;
+        }
+    }
+
+    public enum MemberImportStatus {
+        CREATED, DUPLICATE, INVALID, FAILED
+    }
+
+    /**
+     * 한 줄의 처리 결과
+     */
+    @Getter
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class MemberImportResult {
+        private final long line;
+        private final MemberImportStatus status;
+        private final String name;
+        private final Long memberId;
+        private final String message;
+
+        private MemberImportResult(long line, MemberImportStatus status, String name, Long memberId, String message) {
+            this.line = line;
+            this.status = status;
+            this.name = name;
+            this.memberId = memberId;
+            this.message = message;
+        }
+
+        static MemberImportResult created(long line, String name, Long memberId) {
+            return new MemberImportResult(line, MemberImportStatus.CREATED, name, memberId, null);
+        }
+
+        static MemberImportResult duplicate(long line, String name, String message) {
+            return new MemberImportResult(line, MemberImportStatus.DUPLICATE, name, null, message);
+        }
+
+        static MemberImportResult invalid(long line, String name, String message) {
+            return new MemberImportResult(line, MemberImportStatus.INVALID, name, null, message);
+        }
+
+        static MemberImportResult failed(long line, String name, String message) {
+            return new MemberImportResult(line, MemberImportStatus.FAILED, name, null, message);
+        }
+    }
+}
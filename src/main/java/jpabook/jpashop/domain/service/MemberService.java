@@ -1,11 +1,17 @@
 package jpabook.jpashop.domain.service;
 
+import io.micrometer.core.annotation.Timed;
 import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.member.MemberNameFilter;
+import jpabook.jpashop.domain.member.MemberSearchIndex;
 import jpabook.jpashop.domain.repository.MemberRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.SQLException;
 import java.util.List;
 
 @Service
@@ -13,25 +19,57 @@ import java.util.List;
 @RequiredArgsConstructor  //final 키워드를 가진 멤버변수에 대해 생성자 주입 코드를 자동으로 만들어 준다
 public class MemberService {
 
+    private static final String DUPLICATE_MEMBER = "이미 존재하는 회원입니다.";
+    private static final int H2_CONCURRENT_UPDATE = 90131;
+
     private final MemberRepository memberRepository;
+    private final MemberNameFilter memberNameFilter;
+    private final MemberSearchIndex memberSearchIndex;
 
     /**
         회원 가입 
      */
+    @Timed(value = "jpashop.member.join", histogram = true)
     @Transactional
     public Long join(Member member) {
         //중복회원검증
-        validateDuplicateMember(member);
-        memberRepository.save(member);
+        validateDuplicateMember(member.getNormalizedName());
+        saveUnique(member);
+        memberNameFilter.put(member.getNormalizedName());
+        memberSearchIndex.indexAfterCommit(member.getId(), member.getName());
         return member.getId();
     }
 
-    private void validateDuplicateMember(Member member) {
-        //동시에 동일 이름으로 회원가입하게 되면 동시성 문제로 인해 가입 처리가 안될 수 있다.
-        //실제 실무에서는 이름만 체크하지 말고 유니크한 정보를 만들어서 체크하도록 하자.
-        List<Member> findMembers = memberRepository.findByName(member.getName());
+    private void validateDuplicateMember(String normalizedName) {
+        //블룸 필터에 없는 이름이면 가입된 적이 없으므로 조회하지 않는다.
+        if (!memberNameFilter.mightContain(normalizedName)) {
+            return;
+        }
+        List<Member> findMembers = memberRepository.findByNormalizedName(normalizedName);
         if (!findMembers.isEmpty()) {
-            throw new IllegalStateException("이미 존재하는 회원입니다.");
+            throw new IllegalStateException(DUPLICATE_MEMBER);
+        }
+    }
+
+    /**
+     * 동시에 동일 이름으로 가입하면 위의 검증을 둘 다 통과할 수 있으므로 유니크 제약(uk_member_normalized_name)으로 막는다.
+     * 바로 flush 해서 제약 위반을 커밋 시점이 아니라 여기서 받아 중복 회원 예외로 바꾼다.
+     */
+    private void saveUnique(Member member) {
+        try {
+            if (member.getId() == null) {
+                memberRepository.save(member);
+            }
+            memberRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException(DUPLICATE_MEMBER, e);
+        } catch (DataAccessException e) {
+            //H2 는 같은 이름을 다른 트랜잭션이 넣고 아직 커밋하지 않았으면 유니크 위반 대신 동시 수정 오류를 낸다.
+            Throwable cause = e.getMostSpecificCause();
+            if (cause instanceof SQLException && ((SQLException) cause).getErrorCode() == H2_CONCURRENT_UPDATE) {
+                throw new IllegalStateException(DUPLICATE_MEMBER, e);
+            }
+            throw e;
         }
     }
 
@@ -50,5 +88,8 @@ public class MemberService {
     public void update(Long id, String name) {
         Member findMember = memberRepository.findOne(id);
         findMember.setName(name);
+        saveUnique(findMember);
+        memberNameFilter.put(findMember.getNormalizedName());
+        memberSearchIndex.indexAfterCommit(findMember.getId(), findMember.getName());
     }
 }
@@ -0,0 +1,139 @@
+package jpabook.jpashop.domain.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 낙관적 락 충돌 재시도
+ * Item, Order 는 @Version 으로 동시 수정을 감지하고, 나중에 커밋하는 트랜잭션은 실패한다.
+ * 실패한 작업은 새 트랜잭션으로 다시 실행해야 하므로 반드시 @Transactional 서비스 바깥(컨트롤러)에서 감싸서 사용한다.
+ *
+ * 재시도 간격은 지수적으로 늘어나는 상한 안에서 무작위로 정한다.(full jitter)
+ * 동시에 충돌한 요청들이 같은 시점에 다시 몰리지 않게 하기 위함이다.
+ *
+ * 충돌한 엔티티(예: Book#3)별로 충돌/재시도/포기 횟수를 집계해서, 어떤 상품이 인기 상품으로 경합하는지 확인할 수 있다.
+ */
+@Slf4j
+@Component
+public class OptimisticLockRetryExecutor {
+
+    static final String UNKNOWN = "unknown";
+
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+
+    private final Map<String, ContentionCounter> counters = new ConcurrentHashMap<>();
+
+    public OptimisticLockRetryExecutor(@Value("${jpashop.retry.max-attempts:5}") int maxAttempts,
+                                       @Value("${jpashop.retry.base-backoff:10}") long baseBackoffMillis,
+                                       @Value("${jpashop.retry.max-backoff:200}") long maxBackoffMillis) {
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    public <T> T execute(Supplier<T> action) {
+        //이미 트랜잭션 안이면 재시도해도 같은 영속성 컨텍스트라서 의미가 없다.
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+
+        int attempt = 1;
+        while (true) {
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException e) {
+                ContentionCounter counter = counters.computeIfAbsent(conflictKey(e), key -> new ContentionCounter());
+                counter.conflicts.increment();
+
+                if (attempt >= maxAttempts) {
+                    counter.giveUps.increment();
+                    log.warn("낙관적 락 충돌 재시도 포기 attempts={}", attempt, e);
+                    throw e;
+                }
+
+                counter.retries.increment();
+                sleep(backoff(attempt));
+                attempt++;
+            }
+        }
+    }
+
+    public void execute(Runnable action) {
+        execute(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * 엔티티별 충돌 통계
+     */
+    public Map<String, ContentionStats> getStats() {
+        Map<String, ContentionStats> result = new TreeMap<>();
+        counters.forEach((key, counter) -> result.put(key, new ContentionStats(
+                counter.conflicts.sum(), counter.retries.sum(), counter.giveUps.sum())));
+        return result;
+    }
+
+    /**
+     * attempt 가 크면 시프트가 long 범위를 넘어서 음수가 되므로 시프트 횟수를 30 으로 제한한다.
+     */
+    long backoff(int attempt) {
+        int shift = Math.min(attempt - 1, 30);
+        long ceiling = Math.min(maxBackoffMillis, baseBackoffMillis << shift);
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("재시도 대기 중 인터럽트", e);
+        }
+    }
+
+    /**
+     * JDBC 배치 update 에서 난 충돌(StaleStateException)은 어떤 엔티티인지 알 수 없으므로(클래스 이름 null) unknown 으로 센다.
+     */
+    private String conflictKey(OptimisticLockingFailureException e) {
+        if (e instanceof ObjectOptimisticLockingFailureException) {
+            ObjectOptimisticLockingFailureException ex = (ObjectOptimisticLockingFailureException) e;
+            String className = ex.getPersistentClassName();
+            if (className != null) {
+                String simpleName = className.substring(className.lastIndexOf('.') + 1);
+                return simpleName + "#" + ex.getIdentifier();
+            }
+        }
+        return UNKNOWN;
+    }
+
+    private static class ContentionCounter {
+        private final LongAdder conflicts = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder giveUps = new LongAdder();
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class ContentionStats {
+        private long conflicts;     //충돌 횟수
+        private long retries;       //재시도 횟수
+        private long giveUps;       //재시도 포기 횟수
+    }
+}
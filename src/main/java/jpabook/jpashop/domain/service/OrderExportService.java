@@ -0,0 +1,29 @@
+package jpabook.jpashop.domain.service;
+
+import jpabook.jpashop.domain.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.domain.repository.order.query.OrderQueryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.function.Consumer;
+
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class OrderExportService {
+
+    //JDBC 드라이버가 한번에 가져오는 row 수
+    private static final int FETCH_SIZE = 1000;
+
+    private final OrderQueryRepository orderQueryRepository;
+
+    /**
+     * 전체 주문 내보내기
+     * 주문 하나가 완성될 때마다 action 으로 넘기므로 호출하는 쪽에서 바로 응답에 써야 한다.
+     * 커서가 열려있는 동안 트랜잭션(커넥션)이 유지된다.
+     */
+    public void exportOrders(Consumer<OrderQueryDto> action) {
+        orderQueryRepository.streamAllByDto_flat(FETCH_SIZE, action);
+    }
+}
@@ -0,0 +1,247 @@
+package jpabook.jpashop.domain.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.exception.NotEnoughStockException;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.domain.outbox.OrderEvent;
+import jpabook.jpashop.domain.repository.ItemRepository;
+import jpabook.jpashop.domain.repository.MemberRepository;
+import jpabook.jpashop.domain.repository.OrderRepository;
+import jpabook.jpashop.domain.stock.StockLedger;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 주문 대량 등록
+ * 파트너사의 주문 파일(CSV, NDJSON)을 chunkSize 줄씩 읽어서 chunk 하나를 트랜잭션 하나로 처리한다.
+ *   1) chunk 에 나오는 회원, 상품은 IN 쿼리로 한번에 조회
+ *   2) Order, OrderItem, Delivery 의 id 는 pooled 시퀀스(allocationSize = 50)로 미리 할당받으므로 insert 마다 시퀀스를 조회하지 않는다.
+ *   3) insert 는 hibernate.jdbc.batch_size, order_inserts 설정으로 JDBC 배치로 실행
+ *   4) chunk 가 끝나면 flush, clear 해서 영속성 컨텍스트가 계속 커지지 않게 한다.
+ * 잘못된 줄(형식 오류, 없는 회원/상품, 재고 부족)은 건너뛰고 결과에 기록한다.
+ */
+@Slf4j
+@Service
+public class OrderImportService {
+
+    //결과에 남기는 오류 줄 최대 개수
+    private static final int MAX_ERRORS = 100;
+
+    private final OrderRepository orderRepository;
+    private final MemberRepository memberRepository;
+    private final ItemRepository itemRepository;
+    private final StockLedger stockLedger;
+    private final EntityManager em;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    public OrderImportService(OrderRepository orderRepository,
+                              MemberRepository memberRepository,
+                              ItemRepository itemRepository,
+                              StockLedger stockLedger,
+                              EntityManager em,
+                              TransactionTemplate transactionTemplate,
+                              ObjectMapper objectMapper,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${jpashop.import.chunk-size:1000}") int chunkSize) {
+        this.orderRepository = orderRepository;
+        this.memberRepository = memberRepository;
+        this.itemRepository = itemRepository;
+        this.stockLedger = stockLedger;
+        this.em = em;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    public OrderImportResult importOrders(InputStream input, OrderImportFormat format) throws IOException {
+        long startNanos = System.nanoTime();
+        OrderImportResult result = new OrderImportResult();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            List<ImportRow> chunk = new ArrayList<>(chunkSize);
+            String line;
+            long lineNumber = 0;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                try {
+                    ImportRow row = parse(line, lineNumber, format);
+                    if (row == null) {
+                        continue;   //CSV 헤더
+                    }
+                    chunk.add(row);
+                } catch (RuntimeException e) {
+                    result.addTotal(1);
+                    result.fail(lineNumber, "형식 오류: " + e.getMessage());
+                }
+
+                if (chunk.size() >= chunkSize) {
+                    importChunk(chunk, result);
+                    chunk.clear();
+                }
+            }
+
+            if (!chunk.isEmpty()) {
+                importChunk(chunk, result);
+            }
+        }
+
+        result.finish(System.nanoTime() - startNanos);
+        log.info("주문 대량 등록 완료 total={}, imported={}, failed={}, rows/sec={}",
+                result.getTotalRows(), result.getImportedRows(), result.getFailedRows(), result.getRowsPerSecond());
+        return result;
+    }
+
+    private void importChunk(List<ImportRow> rows, OrderImportResult result) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<Long> memberIds = rows.stream().map(ImportRow::getMemberId).collect(Collectors.toSet());
+            Set<Long> itemIds = rows.stream().map(ImportRow::getItemId).collect(Collectors.toSet());
+
+            Map<Long, Member> members = memberRepository.findAllById(memberIds).stream()
+                    .collect(Collectors.toMap(Member::getId, Function.identity()));
+            Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                    .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+            for (ImportRow row : rows) {
+                result.addTotal(1);
+
+                Member member = members.get(row.getMemberId());
+                Item item = items.get(row.getItemId());
+                if (member == null || item == null) {
+                    result.fail(row.getLineNumber(), "존재하지 않는 회원 또는 상품");
+                    continue;
+                }
+
+                try {
+                    Delivery delivery = new Delivery();
+                    delivery.setAddress(member.getAddress());
+
+                    Order order = Order.createOrder(member, delivery, createOrderItem(item, row.getCount()));
+                    orderRepository.save(order);
+                    eventPublisher.publishEvent(OrderEvent.placed(order));
+                    result.addImported(1);
+                } catch (NotEnoughStockException e) {
+                    //재고 감소 전에 예외가 발생하므로 엔티티 상태는 바뀌지 않는다.
+                    result.fail(row.getLineNumber(), "재고 부족");
+                }
+            }
+
+            em.flush();
+            em.clear();
+        });
+    }
+
+    private OrderItem createOrderItem(Item item, int count) {
+        if (stockLedger.isEnabled()) {
+            stockLedger.reserve(item, count);
+            return OrderItem.createReservedOrderItem(item, item.getPrice(), count);
+        }
+        return OrderItem.createOrderItem(item, item.getPrice(), count);
+    }
+
+    /**
+     * CSV  : memberId,itemId,count (첫 줄이 헤더면 무시)
+     * NDJSON : {"memberId":1,"itemId":2,"count":3}
+     * count 는 1 이상(/api/orders/batch 의 @Min(1), OrderQueue.enqueue 와 같다), 0 이하이면 재고가 늘어나므로 형식 오류로 처리한다.
+     */
+    private ImportRow parse(String line, long lineNumber, OrderImportFormat format) throws IOException {
+        ImportRow row;
+        if (format == OrderImportFormat.CSV) {
+            String[] tokens = line.split(",");
+            if (tokens.length != 3) {
+                throw new IllegalArgumentException("컬럼 수가 3개가 아닙니다.");
+            }
+            if (lineNumber == 1 && !Character.isDigit(tokens[0].trim().charAt(0))) {
+                return null;
+            }
+            row = new ImportRow(lineNumber, Long.valueOf(tokens[0].trim()), Long.valueOf(tokens[1].trim()), Integer.parseInt(tokens[2].trim()));
+        } else {
+            JsonNode node = objectMapper.readTree(line);
+            if (!node.hasNonNull("memberId") || !node.hasNonNull("itemId") || !node.hasNonNull("count")) {
+                throw new IllegalArgumentException("memberId, itemId, count 는 필수입니다.");
+            }
+            row = new ImportRow(lineNumber, node.get("memberId").asLong(), node.get("itemId").asLong(), node.get("count").asInt());
+        }
+
+        if (row.getCount() < 1) {
+            throw new IllegalArgumentException("count 는 1 이상이어야 합니다. count=" + row.getCount());
+        }
+        return row;
+    }
+
+
+    public enum OrderImportFormat {
+        CSV, NDJSON
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class ImportRow {
+        private final long lineNumber;
+        private final Long memberId;
+        private final Long itemId;
+        private final int count;
+    }
+
+    @Data
+    public static class OrderImportResult {
+        private long totalRows;
+        private long importedRows;
+        private long failedRows;
+        private long elapsedMillis;
+        private long rowsPerSecond;
+        private List<String> errors = new ArrayList<>();
+
+        void addTotal(long count) {
+            totalRows += count;
+        }
+
+        void addImported(long count) {
+            importedRows += count;
+        }
+
+        void fail(long lineNumber, String reason) {
+            failedRows++;
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(lineNumber + ": " + reason);
+            }
+        }
+
+        void finish(long elapsedNanos) {
+            elapsedMillis = elapsedNanos / 1_000_000;
+            rowsPerSecond = elapsedNanos > 0 ? importedRows * 1_000_000_000L / elapsedNanos : importedRows;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package jpabook.jpashop.domain.service;
+
+import lombok.Getter;
+
+/**
+ * 주문 한 줄(상품, 수량)
+ */
+@Getter
+public class OrderLine {
+    private final Long itemId;
+    private final int count;
+
+    public OrderLine(Long itemId, int count) {
+        this.itemId = itemId;
+        this.count = count;
+    }
+}
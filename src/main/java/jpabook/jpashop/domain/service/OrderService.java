@@ -1,19 +1,27 @@
 package jpabook.jpashop.domain.service;
 
+import io.micrometer.core.annotation.Timed;
 import jpabook.jpashop.domain.Delivery;
 import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderItem;
 import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.domain.outbox.OrderEvent;
 import jpabook.jpashop.domain.repository.ItemRepository;
 import jpabook.jpashop.domain.repository.MemberRepository;
 import jpabook.jpashop.domain.repository.OrderRepository;
 import jpabook.jpashop.domain.repository.OrderSearch;
+import jpabook.jpashop.domain.stock.StockLedger;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional(readOnly = true)
@@ -23,11 +31,14 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final MemberRepository memberRepository;
     private final ItemRepository itemRepository;
+    private final StockLedger stockLedger;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     /**
      * 주문
      */
+    @Timed(value = "jpashop.order.place", extraTags = {"type", "single"}, histogram = true)
     @Transactional
     public Long order(Long memberId, Long itemId, int count) {
         //엔티티 조회
@@ -39,13 +50,65 @@ public class OrderService {
         delivery.setAddress(member.getAddress());
 
         //주문상품 생성
-        OrderItem orderItem = OrderItem.createOrderItem(item, item.getPrice(), count);
+        OrderItem orderItem = createOrderItem(item, count);
 
         //주문 생성
         Order order = Order.createOrder(member, delivery, orderItem);
 
         //주문 저장
         orderRepository.save(order);
+        eventPublisher.publishEvent(OrderEvent.placed(order));
+
+        return order.getId();
+    }
+
+
+    /**
+     * 여러 상품 주문
+     * 상품마다 order() 를 호출하면 상품 수만큼 트랜잭션과 회원 조회가 반복된다.
+     * 한 트랜잭션에서 회원은 한번, 상품은 IN 쿼리 한번으로 조회하고 주문 하나에 모든 주문상품을 담는다.
+     * 주문상품 insert 는 hibernate.jdbc.batch_size 설정으로 JDBC 배치로 실행된다.
+     */
+    @Timed(value = "jpashop.order.place", extraTags = {"type", "batch"}, histogram = true)
+    @Transactional
+    public Long order(Long memberId, List<OrderLine> lines) {
+        if (lines.isEmpty()) {
+            throw new IllegalArgumentException("주문 상품이 없습니다.");
+        }
+
+        //엔티티 조회
+        Member member = memberRepository.findOne(memberId);
+        if (member == null) {
+            throw new IllegalArgumentException("존재하지 않는 회원입니다. memberId=" + memberId);
+        }
+
+        Set<Long> itemIds = lines.stream()
+                .map(OrderLine::getItemId)
+                .collect(Collectors.toSet());
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        //배송정보 생성
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+
+        //주문상품 생성
+        OrderItem[] orderItems = lines.stream()
+                .map(line -> {
+                    Item item = items.get(line.getItemId());
+                    if (item == null) {
+                        throw new IllegalArgumentException("존재하지 않는 상품입니다. itemId=" + line.getItemId());
+                    }
+                    return createOrderItem(item, line.getCount());
+                })
+                .toArray(OrderItem[]::new);
+
+        //주문 생성
+        Order order = Order.createOrder(member, delivery, orderItems);
+
+        //주문 저장
+        orderRepository.save(order);
+        eventPublisher.publishEvent(OrderEvent.placed(order));
 
         return order.getId();
     }
@@ -54,13 +117,34 @@ public class OrderService {
     /**
      * 주문 취소
      */
+    @Timed(value = "jpashop.order.cancel", histogram = true)
     @Transactional
     public void cancelOrder(Long orderId) {
         //주문 엔티티 조회
         Order order = orderRepository.findOne(orderId);
 
         //주문 취소
-        order.cancel();
+        if (stockLedger.isEnabled()) {
+            order.cancelWithoutRestock();
+            for (OrderItem orderItem : order.getOrderItems()) {
+                stockLedger.release(orderItem.getItem(), orderItem.getCount());
+            }
+        } else {
+            order.cancel();
+        }
+        eventPublisher.publishEvent(OrderEvent.canceled(order));
+    }
+
+
+    /**
+     * 재고 원장을 사용하면 원장에서 재고를 예약하고, 아니면 엔티티의 재고를 직접 감소시킨다.
+     */
+    private OrderItem createOrderItem(Item item, int count) {
+        if (stockLedger.isEnabled()) {
+            stockLedger.reserve(item, count);
+            return OrderItem.createReservedOrderItem(item, item.getPrice(), count);
+        }
+        return OrderItem.createOrderItem(item, item.getPrice(), count);
     }
 
 
@@ -68,6 +152,6 @@ public class OrderService {
      * 주문 검색
      */
     public List<Order> findOrders(OrderSearch orderSearch) {
-        return orderRepository.findAllByString(orderSearch);
+        return orderRepository.findAll(orderSearch);
     }
 }
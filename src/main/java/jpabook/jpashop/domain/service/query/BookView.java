@@ -0,0 +1,27 @@
+package jpabook.jpashop.domain.service.query;
+
+import jpabook.jpashop.domain.item.Book;
+import lombok.Getter;
+
+/**
+ * 상품(도서) 수정 화면용 DTO
+ */
+@Getter
+public class BookView {
+
+    private final Long id;
+    private final String name;
+    private final int price;
+    private final int stockQuantity;
+    private final String author;
+    private final String isbn;
+
+    public BookView(Book book) {
+        this.id = book.getId();
+        this.name = book.getName();
+        this.price = book.getPrice();
+        this.stockQuantity = book.getStockQuantity();
+        this.author = book.getAuthor();
+        this.isbn = book.getIsbn();
+    }
+}
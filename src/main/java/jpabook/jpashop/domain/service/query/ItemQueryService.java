@@ -0,0 +1,43 @@
+package jpabook.jpashop.domain.service.query;
+
+import jpabook.jpashop.domain.catalog.ItemCatalogCache;
+import jpabook.jpashop.domain.catalog.ItemSnapshot;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.domain.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * 상품 조회 전용 서비스(화면용 DTO 리턴)
+ */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class ItemQueryService {
+
+    private final ItemRepository itemRepository;
+    private final ItemCatalogCache catalogCache;
+
+    /**
+     * 상품 목록 화면용 조회
+     * 카탈로그 캐시에서 읽고, 캐시에 없는 상품만 DB에서 읽어서 채운다.
+     */
+    public List<ItemSnapshot> findCatalog() {
+        return catalogCache.getAll(itemRepository::findAllIds, itemRepository::findAllById);
+    }
+
+    /**
+     * 도서 수정 화면용 조회
+     */
+    public BookView findBook(Long itemId) {
+        Item item = itemRepository.findOne(itemId);
+        if (!(item instanceof Book)) {
+            throw new IllegalArgumentException("도서가 아닌 상품입니다. itemId=" + itemId);
+        }
+        return new BookView((Book) item);
+    }
+}
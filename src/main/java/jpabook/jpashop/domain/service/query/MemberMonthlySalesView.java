@@ -0,0 +1,23 @@
+package jpabook.jpashop.domain.service.query;
+
+import jpabook.jpashop.domain.sales.MemberMonthlySales;
+import lombok.Getter;
+
+import java.time.YearMonth;
+
+/**
+ * 회원 월별 구매 집계
+ */
+@Getter
+public class MemberMonthlySalesView {
+
+    private final YearMonth month;
+    private final long amount;
+    private final long orderCount;
+
+    public MemberMonthlySalesView(MemberMonthlySales sales) {
+        this.month = YearMonth.from(sales.getId().getSalesMonth());
+        this.amount = sales.getAmount();
+        this.orderCount = sales.getOrderCount();
+    }
+}
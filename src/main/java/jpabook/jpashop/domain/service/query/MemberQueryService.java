@@ -0,0 +1,26 @@
+package jpabook.jpashop.domain.service.query;
+
+import jpabook.jpashop.domain.repository.MemberRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 회원 조회 전용 서비스(화면용 DTO 리턴)
+ */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class MemberQueryService {
+
+    private final MemberRepository memberRepository;
+
+    public List<MemberView> findMembers() {
+        return memberRepository.findAll().stream()
+                .map(MemberView::new)
+                .collect(Collectors.toList());
+    }
+}
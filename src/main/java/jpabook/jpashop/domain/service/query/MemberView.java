@@ -0,0 +1,22 @@
+package jpabook.jpashop.domain.service.query;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import lombok.Getter;
+
+/**
+ * 회원 목록, 주문 화면용 DTO
+ */
+@Getter
+public class MemberView {
+
+    private final Long id;
+    private final String name;
+    private final Address address;      //값 타입(임베디드)이므로 그대로 사용
+
+    public MemberView(Member member) {
+        this.id = member.getId();
+        this.name = member.getName();
+        this.address = member.getAddress();
+    }
+}
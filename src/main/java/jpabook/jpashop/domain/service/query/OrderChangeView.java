@@ -0,0 +1,33 @@
+package jpabook.jpashop.domain.service.query;
+
+import jpabook.jpashop.domain.OrderEventType;
+import jpabook.jpashop.domain.OrderOutboxEvent;
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 주문 변경 피드 한 건
+ */
+@Getter
+public class OrderChangeView {
+
+    private final long seq;     //feedSeq, 다음 요청의 since 로 사용
+    private final OrderEventType type;
+    private final Long orderId;
+    private final Long memberId;
+    private final OrderStatus orderStatus;
+    private final int totalPrice;
+    private final LocalDateTime occurredAt;
+
+    public OrderChangeView(OrderOutboxEvent event) {
+        this.seq = event.getFeedSeq();
+        this.type = event.getType();
+        this.orderId = event.getOrderId();
+        this.memberId = event.getMemberId();
+        this.orderStatus = event.getOrderStatus();
+        this.totalPrice = event.getTotalPrice();
+        this.occurredAt = event.getOccurredAt();
+    }
+}
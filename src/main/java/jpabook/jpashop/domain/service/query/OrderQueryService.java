@@ -0,0 +1,73 @@
+package jpabook.jpashop.domain.service.query;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.repository.OrderCursor;
+import jpabook.jpashop.domain.repository.OrderOutboxRepository;
+import jpabook.jpashop.domain.repository.OrderRepository;
+import jpabook.jpashop.domain.repository.OrderSearch;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 주문 조회 전용 서비스
+ * OSIV 를 끄면(spring.jpa.open-in-view: false) 트랜잭션이 끝나는 순간 영속성 컨텍스트와 DB 커넥션이 반환되므로
+ * 컨트롤러나 뷰에서는 지연 로딩을 할 수 없다.
+ * 그래서 엔티티를 화면/API 용 DTO 로 바꾸는 작업까지 이 서비스의 트랜잭션 안에서 끝내고 DTO 만 리턴한다.
+ *
+ * API 용 DTO 는 컨트롤러마다 다르므로 변환 함수(mapper)를 받아서 트랜잭션 안에서 실행한다.
+ */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class OrderQueryService {
+
+    private final OrderRepository orderRepository;
+    private final OrderOutboxRepository orderOutboxRepository;
+
+    /**
+     * 주문 목록 화면
+     */
+    public List<OrderView> findOrderViews(OrderSearch orderSearch) {
+        return map(orderRepository.findAll(orderSearch), OrderView::new);
+    }
+
+    public <T> List<T> findAllByString(OrderSearch orderSearch, Function<Order, T> mapper) {
+        return map(orderRepository.findAllByString(orderSearch), mapper);
+    }
+
+    public <T> List<T> findAllWithMemberDelivery(Function<Order, T> mapper) {
+        return map(orderRepository.findAllWithMemberDelivery(), mapper);
+    }
+
+    public <T> List<T> findAllWithMemberDelivery(int offset, int limit, Function<Order, T> mapper) {
+        return map(orderRepository.findAllWithMemberDelivery(offset, limit), mapper);
+    }
+
+    public <T> List<T> findAllWithMemberDelivery(OrderCursor after, int limit, Function<Order, T> mapper) {
+        return map(orderRepository.findAllWithMemberDelivery(after, limit), mapper);
+    }
+
+    public <T> List<T> findAllWithItem(Function<Order, T> mapper) {
+        return map(orderRepository.findAllWithItem(), mapper);
+    }
+
+    /**
+     * 주문 변경 피드(since 이후 feedSeq 순서)
+     */
+    public List<OrderChangeView> findChanges(long since, int limit) {
+        return orderOutboxRepository.findFeed(since, limit).stream()
+                .map(OrderChangeView::new)
+                .collect(Collectors.toList());
+    }
+
+    private <T> List<T> map(List<Order> orders, Function<Order, T> mapper) {
+        return orders.stream()
+                .map(mapper)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,31 @@
+package jpabook.jpashop.domain.service.query;
+
+import jpabook.jpashop.domain.OrderTicket;
+import jpabook.jpashop.domain.OrderTicketStatus;
+import lombok.Getter;
+
+/**
+ * 비동기 주문 접수 번호의 처리 상태
+ */
+@Getter
+public class OrderTicketView {
+    private final Long ticketId;
+    private final OrderTicketStatus status;
+    private final Long orderId;     //COMPLETED 일 때만
+    private final String message;   //FAILED 일 때만
+
+    private OrderTicketView(Long ticketId, OrderTicketStatus status, Long orderId, String message) {
+        this.ticketId = ticketId;
+        this.status = status;
+        this.orderId = orderId;
+        this.message = message;
+    }
+
+    public static OrderTicketView queued(Long ticketId) {
+        return new OrderTicketView(ticketId, OrderTicketStatus.QUEUED, null, null);
+    }
+
+    public static OrderTicketView of(OrderTicket ticket) {
+        return new OrderTicketView(ticket.getId(), ticket.getStatus(), ticket.getOrderId(), ticket.getMessage());
+    }
+}
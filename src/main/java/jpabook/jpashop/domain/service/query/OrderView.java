@@ -0,0 +1,36 @@
+package jpabook.jpashop.domain.service.query;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 주문 목록 화면(order/orderList.html)용 DTO
+ * 화면은 주문의 첫번째 주문상품만 보여준다.
+ */
+@Getter
+public class OrderView {
+
+    private final Long id;
+    private final String memberName;
+    private final String itemName;
+    private final int orderPrice;
+    private final int count;
+    private final OrderStatus status;
+    private final LocalDateTime orderDate;
+
+    public OrderView(Order order) {
+        this.id = order.getId();
+        this.memberName = order.getMember().getName();
+        this.status = order.getStatus();
+        this.orderDate = order.getOrderDate();
+
+        OrderItem first = order.getOrderItems().isEmpty() ? null : order.getOrderItems().get(0);
+        this.itemName = first != null ? first.getItem().getName() : null;
+        this.orderPrice = first != null ? first.getOrderPrice() : 0;
+        this.count = first != null ? first.getCount() : 0;
+    }
+}
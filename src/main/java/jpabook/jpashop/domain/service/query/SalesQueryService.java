@@ -0,0 +1,38 @@
+package jpabook.jpashop.domain.service.query;
+
+import jpabook.jpashop.domain.repository.sales.DailySalesDto;
+import jpabook.jpashop.domain.repository.sales.ItemSalesDto;
+import jpabook.jpashop.domain.repository.sales.SalesRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 매출 리포트 조회 전용 서비스
+ * 집계 테이블(SalesAggregator 가 갱신)만 읽는다. 집계는 주문 후 aggregate-interval 안에 반영된다.
+ */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class SalesQueryService {
+
+    private final SalesRepository salesRepository;
+
+    public List<ItemSalesDto> findItemSales(LocalDate from, LocalDate to, int limit) {
+        return salesRepository.findItemSales(from, to, limit);
+    }
+
+    public List<DailySalesDto> findDailySales(LocalDate from, LocalDate to) {
+        return salesRepository.findDailySales(from, to);
+    }
+
+    public List<MemberMonthlySalesView> findMemberMonthlySales(Long memberId) {
+        return salesRepository.findMemberMonthlySales(memberId).stream()
+                .map(MemberMonthlySalesView::new)
+                .collect(Collectors.toList());
+    }
+}
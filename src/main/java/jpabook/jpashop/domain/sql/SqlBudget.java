@@ -0,0 +1,20 @@
+package jpabook.jpashop.domain.sql;
+
+import java.lang.annotation.*;
+
+/**
+ * 요청 하나에서 실행할 수 있는 SQL 수
+ * 컨트롤러 메서드(또는 클래스)에 선언하면 SqlBudgetInterceptor 가 요청마다 실행된 SQL 수를 세서 비교한다.
+ * 응답 JSON 변환 중 지연 로딩으로 실행되는 SQL 도 포함된다.
+ * 예> @SqlBudget(1) : 페치 조인으로 한번에 조회하는 API
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface SqlBudget {
+
+    /**
+     * 최대 SQL 수
+     */
+    int value();
+}
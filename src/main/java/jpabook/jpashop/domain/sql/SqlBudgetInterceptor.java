@@ -0,0 +1,75 @@
+package jpabook.jpashop.domain.sql;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 요청마다 실행된 SQL 수를 세서 @SqlBudget 예산, N+1 의심 여부를 확인한다.
+ * afterCompletion 에서 끝내므로 뷰 렌더링, JSON 변환 중의 지연 로딩(OSIV)까지 포함된다.
+ *
+ * 같은 모양의 SQL이 repeat-threshold 번 이상 실행되면 예산 선언 여부와 상관없이 N+1 의심으로 기록한다.
+ */
+@Slf4j
+@Component
+public class SqlBudgetInterceptor implements HandlerInterceptor {
+
+    private final SqlStatementCounter counter;
+    private final SqlBudgetStats budgetStats;
+    private final int repeatThreshold;
+
+    public SqlBudgetInterceptor(SqlStatementCounter counter,
+                                SqlBudgetStats budgetStats,
+                                @Value("${jpashop.sql-budget.repeat-threshold:5}") int repeatThreshold) {
+        this.counter = counter;
+        this.budgetStats = budgetStats;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            counter.begin(requestName(request), budget((HandlerMethod) handler));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        SqlRequestStats stats = counter.end();
+        if (stats == null) {
+            return;
+        }
+
+        boolean nPlusOne = stats.getMaxRepeat() >= repeatThreshold;
+        budgetStats.record(stats, nPlusOne);
+
+        if (stats.isOverBudget()) {
+            log.warn("SQL 예산 초과 {} budget={}, count={}", stats.getName(), stats.getBudget(), stats.getCount());
+        }
+        if (nPlusOne) {
+            log.warn("N+1 의심 {} 같은 SQL {}번 실행: {}", stats.getName(), stats.getMaxRepeat(), stats.getMostRepeatedShape());
+        }
+    }
+
+    private int budget(HandlerMethod handlerMethod) {
+        SqlBudget budget = handlerMethod.getMethodAnnotation(SqlBudget.class);
+        if (budget == null) {
+            budget = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), SqlBudget.class);
+        }
+        return budget != null ? budget.value() : 0;
+    }
+
+    //경로 변수 값이 달라도 같은 API로 집계하도록 매핑 패턴을 사용한다.(예: /orders/{orderId}/cancel)
+    private String requestName(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+    }
+}
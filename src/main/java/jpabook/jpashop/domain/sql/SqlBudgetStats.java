@@ -0,0 +1,74 @@
+package jpabook.jpashop.domain.sql;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * API별 SQL 실행 통계(요청 수, SQL 수, 최대 SQL 수, 예산 초과, N+1 의심 횟수)
+ */
+@Component
+public class SqlBudgetStats {
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public void record(SqlRequestStats stats, boolean nPlusOne) {
+        Counter counter = counters.computeIfAbsent(stats.getName(), name -> new Counter());
+        counter.budget = stats.getBudget();
+        counter.requests.increment();
+        counter.statements.add(stats.getCount());
+        counter.maxStatements.accumulate(stats.getCount());
+        if (stats.isOverBudget()) {
+            counter.overBudget.increment();
+        }
+        if (nPlusOne) {
+            counter.nPlusOne.increment();
+            counter.lastRepeatedShape = stats.getMostRepeatedShape();
+        }
+    }
+
+    public Map<String, SqlBudgetReport> getReports() {
+        Map<String, SqlBudgetReport> result = new TreeMap<>();
+        counters.forEach((name, counter) -> result.put(name, new SqlBudgetReport(
+                counter.budget,
+                counter.requests.sum(),
+                counter.statements.sum(),
+                counter.maxStatements.get(),
+                counter.overBudget.sum(),
+                counter.nPlusOne.sum(),
+                counter.lastRepeatedShape)));
+        return result;
+    }
+
+    public SqlBudgetReport getReport(String name) {
+        return getReports().get(name);
+    }
+
+    private static class Counter {
+        private volatile int budget;
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAccumulator maxStatements = new LongAccumulator(Math::max, 0);
+        private final LongAdder overBudget = new LongAdder();
+        private final LongAdder nPlusOne = new LongAdder();
+        private volatile String lastRepeatedShape;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class SqlBudgetReport {
+        private int budget;                 //@SqlBudget 값, 없으면 0
+        private long requests;
+        private long statements;            //전체 SQL 수
+        private long maxStatements;         //요청 하나의 최대 SQL 수
+        private long overBudget;            //예산 초과 요청 수
+        private long suspectedNPlusOne;     //N+1 의심 요청 수
+        private String lastRepeatedShape;   //마지막으로 반복 실행된 SQL 모양
+    }
+}
@@ -0,0 +1,67 @@
+package jpabook.jpashop.domain.sql;
+
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 요청 하나에서 실행된 SQL 집계
+ * 파라미터 값만 다른 SQL은 같은 모양(shape)으로 묶는다.
+ * 같은 모양이 여러번 실행됐다면 루프 안의 지연 로딩(N+1)일 가능성이 높다.
+ */
+@Getter
+public class SqlRequestStats {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)in\\s*\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+
+    private final String name;
+    private final int budget;
+    private int count;
+    private final Map<String, Integer> shapes = new LinkedHashMap<>();
+
+    public SqlRequestStats(String name, int budget) {
+        this.name = name;
+        this.budget = budget;
+    }
+
+    void record(String sql) {
+        count++;
+        shapes.merge(shape(sql), 1, Integer::sum);
+    }
+
+    public boolean isOverBudget() {
+        return budget > 0 && count > budget;
+    }
+
+    /**
+     * 가장 많이 반복된 SQL 모양의 실행 횟수
+     */
+    public int getMaxRepeat() {
+        return shapes.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+    }
+
+    /**
+     * 가장 많이 반복된 SQL 모양, 없으면 null
+     */
+    public String getMostRepeatedShape() {
+        return shapes.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .orElse(null);
+    }
+
+    /**
+     * 값(리터럴, IN 목록 길이)과 공백을 지운 SQL 모양
+     */
+    static String shape(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("in (?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,55 @@
+package jpabook.jpashop.domain.sql;
+
+import jpabook.jpashop.domain.exception.SqlBudgetExceededException;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 요청(스레드)별 SQL 카운터
+ * 하이버네이트가 SQL을 실행하기 전에 StatementInspector 로 넘겨주는 SQL을 세고, 같은 모양끼리 묶는다.
+ * begin() ~ end() 사이에 현재 스레드에서 실행된 SQL만 센다.(요청 처리 스레드 기준)
+ *
+ * strict 모드(jpashop.sql-budget.strict=true)에서는 예산을 넘는 SQL이 실행되는 순간 SqlBudgetExceededException 을 던진다.
+ * 응답을 이미 쓰기 시작한 뒤에는 결과를 바꿀 수 없으므로 테스트에서 N+1 을 실패로 잡기 위한 용도이다.
+ */
+@Component
+public class SqlStatementCounter implements StatementInspector {
+
+    private final ThreadLocal<SqlRequestStats> current = new ThreadLocal<>();
+    private final boolean strict;
+
+    public SqlStatementCounter(@Value("${jpashop.sql-budget.strict:false}") boolean strict) {
+        this.strict = strict;
+    }
+
+    /**
+     * @param name 요청 이름(예: GET /api/v3/orders)
+     * @param budget 최대 SQL 수, 제한이 없으면 0
+     */
+    public void begin(String name, int budget) {
+        current.set(new SqlRequestStats(name, budget));
+    }
+
+    /**
+     * 집계를 끝내고 결과를 리턴한다. begin() 하지 않았으면 null
+     */
+    public SqlRequestStats end() {
+        SqlRequestStats stats = current.get();
+        current.remove();
+        return stats;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        SqlRequestStats stats = current.get();
+        if (stats != null) {
+            stats.record(sql);
+            if (strict && stats.isOverBudget()) {
+                throw new SqlBudgetExceededException(stats.getName() + " SQL 예산 초과 budget=" + stats.getBudget()
+                        + ", count=" + stats.getCount() + ", sql=" + sql);
+            }
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,148 @@
+package jpabook.jpashop.domain.stock;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 상품 하나의 재고 카운터
+ * 남은 재고를 여러 샤드로 나눠서 가지고 있고, 주문 스레드는 무작위 샤드에서 CAS 로 재고를 꺼내간다.
+ * 모든 스레드가 하나의 카운터(DB row)를 두고 경쟁하지 않으므로 인기 상품에서도 처리량이 유지된다.
+ * 샤드 값은 CAS 로만 줄어들고 0 미만이 되지 않으므로 샤드 합계(전체 재고)보다 많이 팔리는 일은 없다.
+ *
+ * pending 은 아직 DB(item.stock_quantity)에 반영되지 않은 재고 감소량이다.
+ * replaced 는 관리자 재고 수정(StockLedger.reset)으로 새 카운터로 바뀌었다는 표시, 이후의 예약/취소는 새 카운터에서 다시 한다.
+ */
+class ItemStock {
+
+    //샤드끼리 같은 캐시 라인을 쓰지 않도록(false sharing) int 16개(64byte) 간격으로 배치
+    private static final int PADDING = 16;
+
+    private final int shardCount;
+    private final AtomicIntegerArray shards;
+    private final LongAdder pending = new LongAdder();
+    private volatile boolean replaced;
+
+    ItemStock(int stockQuantity, int shardCount) {
+        this.shardCount = shardCount;
+        this.shards = new AtomicIntegerArray(shardCount * PADDING);
+
+        //재고를 샤드에 고르게 나눠 담는다.
+        int base = stockQuantity / shardCount;
+        int rest = stockQuantity % shardCount;
+        for (int i = 0; i < shardCount; i++) {
+            shards.set(i * PADDING, base + (i < rest ? 1 : 0));
+        }
+    }
+
+    /**
+     * 재고 예약
+     * 1) 빠른 경로 : 샤드 하나에서 count 만큼 꺼낼 수 있으면 락 없이 CAS 로 처리
+     * 2) 느린 경로 : 재고가 여러 샤드에 조금씩 흩어져 있는 경우에만 모아서 처리
+     * @return 재고가 부족하면 false
+     */
+    boolean reserve(int count) {
+        int start = ThreadLocalRandom.current().nextInt(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            if (tryTake((start + i) % shardCount, count)) {
+                pending.add(count);
+                return true;
+            }
+        }
+        return reserveAcrossShards(count);
+    }
+
+    /**
+     * 느린 경로끼리만 직렬화한다. 빠른 경로의 CAS 와 동시에 실행되어도
+     * 각 샤드는 0 미만으로 내려가지 않으므로 초과 판매는 생기지 않는다.
+     */
+    private synchronized boolean reserveAcrossShards(int count) {
+        int[] taken = new int[shardCount];
+        int total = 0;
+        for (int i = 0; i < shardCount && total < count; i++) {
+            taken[i] = takeUpTo(i, count - total);
+            total += taken[i];
+        }
+
+        if (total < count) {
+            //모자라면 꺼낸 재고를 원래 샤드에 돌려놓는다.
+            for (int i = 0; i < shardCount; i++) {
+                if (taken[i] > 0) {
+                    shards.addAndGet(i * PADDING, taken[i]);
+                }
+            }
+            return false;
+        }
+
+        pending.add(count);
+        return true;
+    }
+
+    /**
+     * 예약 취소(주문 취소, 트랜잭션 롤백)
+     */
+    void release(int count) {
+        shards.addAndGet(ThreadLocalRandom.current().nextInt(shardCount) * PADDING, count);
+        pending.add(-count);
+    }
+
+    int available() {
+        int sum = 0;
+        for (int i = 0; i < shardCount; i++) {
+            sum += shards.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    /**
+     * DB에 반영할 감소량을 꺼내간다.
+     * sumThenReset() 은 동시에 더해지는 값을 잃어버릴 수 있으므로 읽은 값만큼만 빼준다.
+     */
+    long drainPending() {
+        long delta = pending.sum();
+        pending.add(-delta);
+        return delta;
+    }
+
+    /**
+     * DB 반영에 실패한 감소량을 되돌려 놓는다.
+     */
+    void restorePending(long delta) {
+        pending.add(delta);
+    }
+
+    void markReplaced() {
+        replaced = true;
+    }
+
+    boolean isReplaced() {
+        return replaced;
+    }
+
+    private boolean tryTake(int shard, int count) {
+        int index = shard * PADDING;
+        while (true) {
+            int current = shards.get(index);
+            if (current < count) {
+                return false;
+            }
+            if (shards.compareAndSet(index, current, current - count)) {
+                return true;
+            }
+        }
+    }
+
+    private int takeUpTo(int shard, int count) {
+        int index = shard * PADDING;
+        while (true) {
+            int current = shards.get(index);
+            if (current == 0) {
+                return 0;
+            }
+            int take = Math.min(current, count);
+            if (shards.compareAndSet(index, current, current - take)) {
+                return take;
+            }
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package jpabook.jpashop.domain.stock;
+
+import jpabook.jpashop.domain.exception.NotEnoughStockException;
+import jpabook.jpashop.domain.item.Item;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 메모리 재고 원장
+ * Item.removeStock() 은 엔티티 값을 읽고-수정-쓰기 하므로 동시에 주문이 들어오면 재고 감소가 유실되거나(초과 판매),
+ * 락을 걸면 같은 row 에서 모든 주문이 줄을 서게 된다.
+ * 원장을 켜면(jpashop.stock.ledger.enabled=true) 재고 예약은 상품별 샤드 카운터(ItemStock)에서 처리하고,
+ * DB의 item.stock_quantity 는 StockLedgerFlusher 가 주기적으로 모아서 상대값(stock_quantity - n)으로 반영한다.
+ *
+ * 상품의 원장은 처음 예약(또는 취소)할 때 DB에서 읽은 재고로 만들어지며, 이후에는 원장이 기준이 된다.
+ * 그러므로 애플리케이션 인스턴스가 하나인 환경을 전제로 한다.
+ *
+ * 주의 : DB에 아직 반영하지 않은 감소량(pending)은 메모리에만 있다.
+ * 반영 주기(flush-interval) 사이에 프로세스가 죽으면 이미 커밋된 주문의 재고 감소가 DB에 반영되지 않고 사라지며,
+ * 재시작 후에는 DB 재고로 원장을 다시 만들므로 그만큼 초과 판매될 수 있다.
+ *
+ * 관리자 재고 수정(reset)과 DB 반영(flush)은 상품별 락으로 한번에 하나씩만 한다.
+ * 반영 중인 상대값(stock_quantity - n)이 수정한 절대값 위에 덮어써지거나, 실패한 반영량이 새 원장에 되돌려지지 않게 하기 위해서다.
+ */
+@Component
+public class StockLedger {
+
+    private final boolean enabled;
+    private final int shardCount;
+    private final Map<Long, ItemStock> stocks = new ConcurrentHashMap<>();
+    //상품별 재고 수정(reset) / DB 반영(flush) 락
+    private final Map<Long, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    public StockLedger(@Value("${jpashop.stock.ledger.enabled:false}") boolean enabled,
+                       @Value("${jpashop.stock.ledger.shards:16}") int shardCount) {
+        this.enabled = enabled;
+        this.shardCount = shardCount;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 재고 예약
+     * 트랜잭션 안에서 호출되면 롤백될 때 예약도 자동으로 취소된다.
+     */
+    public void reserve(Item item, int count) {
+        ItemStock stock;
+        while (true) {
+            stock = stocks.computeIfAbsent(item.getId(), id -> new ItemStock(item.getStockQuantity(), shardCount));
+            boolean reserved = stock.reserve(count);
+            if (!stock.isReplaced()) {
+                if (!reserved) {
+                    throw new NotEnoughStockException("need more stock");
+                }
+                break;
+            }
+            //그 사이 재고 수정으로 바뀐 원장이면 새 원장에서 다시 예약한다.
+            if (reserved) {
+                stock.release(count);
+            }
+        }
+        ItemStock reservedStock = stock;
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        reservedStock.release(count);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * 예약한 재고를 돌려놓는다.(주문 취소)
+     * 트랜잭션 안에서 호출되면 커밋된 후에 반영한다.
+     * 원장에 없는 상품(재시작 전에 주문했거나 기동 후 아직 예약이 없는 상품)은 예약과 같이 DB 재고로 원장을 만든 뒤 돌려놓는다.
+     * 돌려놓은 수량은 감소량(pending)에서 빠지므로 StockLedgerFlusher 가 DB 재고를 그만큼 늘린다.
+     */
+    public void release(Item item, int count) {
+        Long itemId = item.getId();
+        int stockQuantity = item.getStockQuantity();    //원장을 만들 때 쓸 DB 재고, 커밋 후에는 엔티티를 읽지 않는다.
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doRelease(itemId, stockQuantity, count);
+                }
+            });
+        } else {
+            doRelease(itemId, stockQuantity, count);
+        }
+    }
+
+    /**
+     * 관리자가 재고를 직접 수정한 경우 원장을 그 값으로 다시 시작한다.
+     * 상품을 읽기 전에 호출해야 한다. 상품 락을 잡고 트랜잭션이 끝날 때까지 이 상품의 DB 반영(flush)을 막는다.
+     *
+     * 트랜잭션 안이면
+     *   커밋 직전 : 그때까지의 감소량(pending)을 꺼내서 버린다.(수정한 값이 기준)
+     *   커밋 후   : 새 원장으로 바꾸고, 커밋 직전 이후에 예약된 감소량은 새 원장으로 옮긴다.(수정한 값에서 빠진다)
+     *   롤백      : 꺼낸 감소량을 원래 원장에 되돌려 놓는다.
+     */
+    public void reset(Long itemId, int stockQuantity) {
+        ReentrantLock lock = lockOf(itemId);
+        lock.lock();
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                ItemStock previous = stocks.get(itemId);
+                if (previous != null) {
+                    previous.drainPending();
+                }
+                replace(itemId, stockQuantity);
+            } finally {
+                lock.unlock();
+            }
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private ItemStock previous;
+            private long discarded;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                previous = stocks.get(itemId);
+                discarded = previous != null ? previous.drainPending() : 0;
+            }
+
+            @Override
+            public void afterCommit() {
+                replace(itemId, stockQuantity);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status != STATUS_COMMITTED && previous != null && !previous.isReplaced()) {
+                        previous.restorePending(discarded);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        });
+    }
+
+    /**
+     * 원장의 남은 재고, 원장에 없는 상품이면 -1
+     */
+    public int getAvailable(Long itemId) {
+        ItemStock stock = stocks.get(itemId);
+        return stock != null ? stock.available() : -1;
+    }
+
+    /**
+     * 상품별 재고 감소량(감소량이 0인 상품은 제외)을 꺼내서 writer 로 DB에 반영한다.
+     * 반영하는 동안 상품 락을 잡고 있으므로 재고 수정(reset)은 반영이 끝난 뒤에 된다. 재고 수정 중인 상품은 다음 반영 때 한다.
+     * writer 가 실패하면 꺼낸 감소량을 원래 원장에 되돌려 놓고(다음 반영 때 재시도) 예외를 다시 던진다.
+     */
+    public void flush(Consumer<Map<Long, Long>> writer) {
+        Map<Long, Long> pending = new HashMap<>();
+        Map<Long, ItemStock> drained = new HashMap<>();
+        List<ReentrantLock> held = new ArrayList<>();
+        try {
+            for (Long itemId : stocks.keySet()) {
+                ReentrantLock lock = lockOf(itemId);
+                if (!lock.tryLock()) {
+                    continue;
+                }
+                held.add(lock);
+                ItemStock stock = stocks.get(itemId);
+                long delta = stock.drainPending();
+                if (delta != 0) {
+                    pending.put(itemId, delta);
+                    drained.put(itemId, stock);
+                }
+            }
+            if (pending.isEmpty()) {
+                return;
+            }
+
+            try {
+                writer.accept(pending);
+            } catch (RuntimeException e) {
+                drained.forEach((itemId, stock) -> {
+                    //재고 수정으로 바뀐 원장에는 되돌리지 않는다.(수정한 값이 기준)
+                    if (!stock.isReplaced()) {
+                        stock.restorePending(pending.get(itemId));
+                    }
+                });
+                throw e;
+            }
+        } finally {
+            held.forEach(ReentrantLock::unlock);
+        }
+    }
+
+    /**
+     * DB에 반영할 상품별 재고 감소량을 꺼내간다.(반영하지 않고 버린다, 테스트용)
+     */
+    public Map<Long, Long> drainPending() {
+        Map<Long, Long> result = new HashMap<>();
+        flush(result::putAll);
+        return result;
+    }
+
+    /**
+     * 새 원장으로 바꾼다. 상품 락을 잡은 상태에서 호출한다.
+     * 이전 원장에 남은 감소량은 수정한 재고에서 빼고 새 원장으로 옮긴다.
+     * 바뀐다는 표시(markReplaced)를 먼저 하므로 그 뒤에 이전 원장에 예약/취소한 쪽은 새 원장에서 다시 한다.(새 원장이 들어갈 때까지 잠깐 재시도)
+     */
+    private void replace(Long itemId, int stockQuantity) {
+        ItemStock previous = stocks.get(itemId);
+        long carried = 0;
+        if (previous != null) {
+            previous.markReplaced();
+            carried = previous.drainPending();
+        }
+        ItemStock replacement = new ItemStock((int) Math.max(0, stockQuantity - carried), shardCount);
+        replacement.restorePending(carried);
+        stocks.put(itemId, replacement);
+    }
+
+    private ReentrantLock lockOf(Long itemId) {
+        return locks.computeIfAbsent(itemId, id -> new ReentrantLock());
+    }
+
+    private void doRelease(Long itemId, int stockQuantity, int count) {
+        while (true) {
+            ItemStock stock = stocks.computeIfAbsent(itemId, id -> new ItemStock(stockQuantity, shardCount));
+            stock.release(count);
+            if (!stock.isReplaced()) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package jpabook.jpashop.domain.stock;
+
+import jpabook.jpashop.domain.catalog.ItemCatalogCache;
+import jpabook.jpashop.domain.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 재고 원장의 감소량을 주기적으로 DB(item.stock_quantity)에 반영한다.
+ * 주문마다 row 를 갱신하지 않고, 상품별로 모인 감소량을 한 트랜잭션에서 한번씩만 update 한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StockLedgerFlusher {
+
+    private final StockLedger stockLedger;
+    private final ItemRepository itemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ItemCatalogCache catalogCache;
+
+    @Scheduled(fixedDelayString = "${jpashop.stock.ledger.flush-interval:1000}")
+    public void flush() {
+        if (!stockLedger.isEnabled()) {
+            return;
+        }
+
+        try {
+            //반영이 끝날 때(커밋/롤백)까지 상품 락을 잡고 있으므로 그 사이 재고 수정(StockLedger.reset)은 기다린다.
+            stockLedger.flush(pending -> transactionTemplate.executeWithoutResult(status ->
+                    pending.forEach((itemId, delta) -> {
+                        itemRepository.removeStock(itemId, delta.intValue());
+                        //벌크 update 는 엔티티 리스너를 거치지 않으므로 직접 무효화(커밋 후)
+                        catalogCache.evict(itemId);
+                    })));
+        } catch (RuntimeException e) {
+            //반영하지 못한 감소량은 원장에 되돌려 놓았으므로 다음 주기에 다시 시도한다.
+            log.warn("재고 원장 DB 반영 실패, 다음 주기에 재시도합니다.", e);
+        }
+    }
+}
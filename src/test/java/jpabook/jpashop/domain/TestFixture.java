@@ -0,0 +1,45 @@
+package jpabook.jpashop.domain;
+
+import jpabook.jpashop.domain.item.Book;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+
+/**
+ * 테스트 트랜잭션(@Transactional) 없이 실행하는 테스트의 회원, 상품
+ * 주문 서비스가 새 트랜잭션에서 조회할 수 있도록 저장할 때마다 바로 커밋한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class TestFixture {
+
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager em;
+
+    public Member createMember() {
+        Member member = new Member();
+        member.setName(uniqueMemberName("회원"));
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        transactionTemplate.executeWithoutResult(status -> em.persist(member));
+        return member;
+    }
+
+    /**
+     * 회원 이름은 유니크(uk_member_normalized_name)이고 테스트가 커밋한 회원은 컨텍스트가 끝날 때까지 남아있으므로
+     * 테스트마다, 실행할 때마다 다른 이름을 만든다.
+     */
+    private static String uniqueMemberName(String prefix) {
+        return prefix + System.nanoTime();
+    }
+
+    public Book createBook(int stockQuantity) {
+        Book book = new Book();
+        book.setName("시골JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(stockQuantity);
+        transactionTemplate.executeWithoutResult(status -> em.persist(book));
+        return book;
+    }
+}
@@ -0,0 +1,79 @@
+package jpabook.jpashop.domain.api;
+
+import jpabook.jpashop.domain.*;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.repository.OrderCursor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * /api/v7/orders 키셋 페이징
+ * MockMvc 는 테스트와 같은 스레드에서 실행되므로 테스트 트랜잭션에서 저장한 주문을 조회한다.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class OrderApiControllerTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired EntityManager em;
+
+    @Test
+    public void 키셋_페이징_마지막_페이지() throws Exception {
+        //given
+        //다른 주문보다 뒤에 오는 아주 오래된 주문 2건
+        Member member = new Member();
+        member.setName("마지막페이지회원" + System.nanoTime());
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        em.persist(member);
+        Book book = new Book();
+        book.setName("마지막페이지JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        em.persist(book);
+        Order first = createOrder(member, book, LocalDateTime.of(1900, 1, 2, 10, 0));
+        Order second = createOrder(member, book, LocalDateTime.of(1900, 1, 1, 10, 0));
+        em.flush();
+        em.clear();
+        String after = new OrderCursor(LocalDateTime.of(1900, 1, 3, 0, 0), Long.MAX_VALUE).encode();
+
+        //when
+        //then
+        mockMvc.perform(get("/api/v7/orders").param("after", after).param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[*].orderId", contains(first.getId().intValue())))
+                .andExpect(jsonPath("$.next", notNullValue()));
+        mockMvc.perform(get("/api/v7/orders").param("after", after).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[*].orderId", contains(first.getId().intValue(), second.getId().intValue())))
+                .andExpect(jsonPath("$.next", nullValue()));
+    }
+
+    @Test
+    public void 잘못된_페이지_토큰은_400() throws Exception {
+        mockMvc.perform(get("/api/v7/orders").param("after", "not-a-token"))
+                .andExpect(status().isBadRequest());
+    }
+
+
+    private Order createOrder(Member member, Book book, LocalDateTime orderDate) {
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+        Order order = Order.createOrder(member, delivery, OrderItem.createOrderItem(book, book.getPrice(), 1));
+        order.setOrderDate(orderDate);
+        em.persist(order);
+        return order;
+    }
+}
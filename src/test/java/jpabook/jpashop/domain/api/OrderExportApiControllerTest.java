@@ -0,0 +1,145 @@
+package jpabook.jpashop.domain.api;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.domain.*;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.repository.order.query.OrderAssemblers;
+import jpabook.jpashop.domain.repository.order.query.OrderFetchStrategy;
+import jpabook.jpashop.domain.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.domain.service.OrderExportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * /api/orders/export 스트리밍 내보내기
+ * 내보내기 서비스가 직접 연 트랜잭션(커서)을 확인해야 하므로 테스트 트랜잭션(@Transactional) 없이 실행하고
+ * 주문은 TransactionTemplate 으로 커밋해서 만든다.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrderExportApiControllerTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired ObjectMapper objectMapper;
+    @Autowired OrderExportService orderExportService;
+    @Autowired OrderAssemblers orderAssemblers;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired EntityManagerFactory emf;
+    @Autowired EntityManager em;
+
+    @Test
+    public void 내보낸_주문은_DB의_주문과_같음() throws Exception {
+        //given
+        Set<Long> orderIds = createOrders();
+        List<OrderQueryDto> expected = transactionTemplate.execute(status ->
+                orderAssemblers.get(OrderFetchStrategy.PER_ROW).assemble().stream()
+                        .filter(order -> orderIds.contains(order.getOrderId()))
+                        .sorted(Comparator.comparing(OrderQueryDto::getOrderId))
+                        .collect(Collectors.toList()));
+
+        //when
+        String body = mockMvc.perform(get("/api/orders/export"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        //then
+        List<Map<String, Object>> exported = objectMapper.readValue(body, new TypeReference<List<Map<String, Object>>>() {});
+        List<Map<String, Object>> actual = exported.stream()
+                .filter(order -> orderIds.contains(((Number) order.get("orderId")).longValue()))
+                .collect(Collectors.toList());
+        assertThat(actual).extracting(order -> ((List<?>) order.get("orderItems")).size())
+                .containsExactly(2, 3, 0);
+        assertThat(actual)
+                .usingRecursiveComparison()
+                .ignoringCollectionOrder()
+                .isEqualTo(objectMapper.convertValue(expected, new TypeReference<List<Map<String, Object>>>() {}));
+    }
+
+    @Test
+    public void 마지막_주문을_쓸때까지_트랜잭션_유지() throws Exception {
+        //given
+        Set<Long> orderIds = createOrders();
+
+        //when
+        List<Long> written = new ArrayList<>();
+        List<Object> entityManagerHolders = new ArrayList<>();
+        orderExportService.exportOrders(order -> {
+            //주문을 쓰는 동안 읽기 전용 트랜잭션과 커서를 연 영속성 컨텍스트가 그대로 열려있어야 한다.
+            assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isTrue();
+            assertThat(TransactionSynchronizationManager.isCurrentTransactionReadOnly()).isTrue();
+            assertThat(em.isOpen()).isTrue();
+            entityManagerHolders.add(TransactionSynchronizationManager.getResource(emf));
+            written.add(order.getOrderId());
+        });
+
+        //then
+        assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isFalse();
+        assertThat(written).containsAll(orderIds).isSorted().doesNotHaveDuplicates();
+        //모든 주문을 하나의 트랜잭션(커넥션)에서 썼다.
+        assertThat(entityManagerHolders).doesNotContainNull();
+        assertThat(Set.copyOf(entityManagerHolders)).hasSize(1);
+    }
+
+
+    /**
+     * 주문상품 2개, 3개, 0개인 주문
+     */
+    private Set<Long> createOrders() {
+        return transactionTemplate.execute(status -> {
+            Member member = new Member();
+            member.setName("내보내기회원" + System.nanoTime());
+            member.setAddress(new Address("서울", "강가", "123-123"));
+            em.persist(member);
+
+            Book jpa = createBook("내보내기JPA", 10000);
+            Book spring = createBook("내보내기SPRING", 20000);
+            Book querydsl = createBook("내보내기QUERYDSL", 30000);
+            Order twoItems = createOrder(member,
+                    OrderItem.createOrderItem(jpa, jpa.getPrice(), 1),
+                    OrderItem.createOrderItem(spring, 19000, 2));
+            Order threeItems = createOrder(member,
+                    OrderItem.createOrderItem(jpa, jpa.getPrice(), 3),
+                    OrderItem.createOrderItem(spring, spring.getPrice(), 1),
+                    OrderItem.createOrderItem(querydsl, querydsl.getPrice(), 2));
+            Order noItems = createOrder(member);
+            return Set.of(twoItems.getId(), threeItems.getId(), noItems.getId());
+        });
+    }
+
+    private Order createOrder(Member member, OrderItem... orderItems) {
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+        Order order = Order.createOrder(member, delivery, orderItems);
+        em.persist(order);
+        return order;
+    }
+
+    private Book createBook(String name, int price) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(price);
+        book.setStockQuantity(10);
+        em.persist(book);
+        return book;
+    }
+}
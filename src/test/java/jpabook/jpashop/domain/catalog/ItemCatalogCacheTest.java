@@ -0,0 +1,112 @@
+package jpabook.jpashop.domain.catalog;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.service.ItemService;
+import jpabook.jpashop.domain.service.MemberService;
+import jpabook.jpashop.domain.service.OrderService;
+import jpabook.jpashop.domain.service.query.ItemQueryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 커밋 후에 무효화되는지 확인해야 하므로 테스트 트랜잭션(@Transactional) 없이 실행한다.
+ * 다른 테스트와 캐시를 공유하지 않도록 크기를 바꿔서 별도의 컨텍스트를 사용한다.
+ */
+@SpringBootTest(properties = "jpashop.catalog.max-size=1000")
+class ItemCatalogCacheTest {
+
+    @Autowired ItemService itemService;
+    @Autowired ItemQueryService itemQueryService;
+    @Autowired MemberService memberService;
+    @Autowired OrderService orderService;
+    @Autowired ItemCatalogCache catalogCache;
+
+    @Test
+    public void 두번째_조회는_캐시에서_읽는다() throws Exception {
+        //given
+        Book book = createBook("캐시JPA", 10000, 10);
+        itemQueryService.findCatalog();
+        long hitBefore = catalogCache.stats().getHitCount();
+
+        //when
+        List<ItemSnapshot> catalog = itemQueryService.findCatalog();
+
+        //then
+        assertThat(catalog).extracting(ItemSnapshot::getId).contains(book.getId());
+        assertThat(catalogCache.stats().getHitCount() - hitBefore).isEqualTo(catalog.size());
+    }
+
+    @Test
+    public void 상품수정_시_해당상품만_무효화() throws Exception {
+        //given
+        Book book = createBook("수정전", 10000, 10);
+        Book other = createBook("그대로", 20000, 10);
+        itemQueryService.findCatalog();
+        long missBefore = catalogCache.stats().getMissCount();
+
+        //when
+        itemService.updateItem(book.getId(), "수정후", 15000, 5);
+        List<ItemSnapshot> catalog = itemQueryService.findCatalog();
+
+        //then
+        ItemSnapshot updated = find(catalog, book.getId());
+        assertThat(updated.getName()).isEqualTo("수정후");
+        assertThat(updated.getPrice()).isEqualTo(15000);
+        assertThat(updated.getStockQuantity()).isEqualTo(5);
+        assertThat(find(catalog, other.getId()).getName()).isEqualTo("그대로");
+        assertThat(catalogCache.stats().getMissCount() - missBefore).isEqualTo(1);
+    }
+
+    @Test
+    public void 주문_시_재고변경_반영() throws Exception {
+        //given
+        Book book = createBook("주문JPA", 10000, 10);
+        Member member = new Member();
+        member.setName("캐시회원");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        memberService.join(member);
+        itemQueryService.findCatalog();
+
+        //when
+        orderService.order(member.getId(), book.getId(), 3);
+
+        //then
+        assertThat(find(itemQueryService.findCatalog(), book.getId()).getStockQuantity()).isEqualTo(7);
+    }
+
+    @Test
+    public void 상품추가_시_목록에_포함() throws Exception {
+        //given
+        itemQueryService.findCatalog();
+
+        //when
+        Book book = createBook("새상품", 10000, 10);
+
+        //then
+        assertThat(itemQueryService.findCatalog()).extracting(ItemSnapshot::getId).contains(book.getId());
+    }
+
+
+    private ItemSnapshot find(List<ItemSnapshot> catalog, Long itemId) {
+        return catalog.stream()
+                .filter(snapshot -> snapshot.getId().equals(itemId))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private Book createBook(String name, int price, int stockQuantity) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(price);
+        book.setStockQuantity(stockQuantity);
+        itemService.saveItem(book);
+        return book;
+    }
+}
@@ -0,0 +1,210 @@
+package jpabook.jpashop.domain.catalog;
+
+import jpabook.jpashop.domain.catalog.ItemSearchIndex.ItemSearchPage;
+import jpabook.jpashop.domain.catalog.ItemSearchIndex.ItemSearchResult;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.domain.service.ItemService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 커밋 후에 색인되는지 확인해야 하므로 테스트 트랜잭션(@Transactional) 없이 실행한다.
+ * 스냅샷 파일은 실행할 때마다 새 경로를 쓴다.
+ */
+@SpringBootTest
+class ItemSearchIndexTest {
+
+    private static final String SNAPSHOT_FILE = "build/tmp/item-search-test/" + UUID.randomUUID() + ".snapshot";
+
+    @DynamicPropertySource
+    static void snapshotFile(DynamicPropertyRegistry registry) {
+        registry.add("jpashop.search.snapshot-file", () -> SNAPSHOT_FILE);
+    }
+
+    @Autowired ItemService itemService;
+    @Autowired ItemSearchIndex itemSearchIndex;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired EntityManager em;
+
+    @Test
+    public void 관련도순_검색() throws Exception {
+        //given
+        ItemSearchIndex index = new ItemSearchIndex(null, null, null);
+        index.index(new ItemDocument(1L, 0L, "Book", "자바 ORM 표준 JPA 프로그래밍", 10000, "김영한", "978-89-6077-733-0", null, null, null));
+        index.index(new ItemDocument(2L, 0L, "Book", "토비의 스프링", 20000, "이일민", null, null, null, null));
+        index.index(new ItemDocument(3L, 0L, "Movie", "JPA 다큐멘터리", 5000, null, null, null, "김영한", "김영한"));
+        index.index(new ItemDocument(4L, 0L, "Album", "Spring Album", 15000, null, null, "스프링", null, null));
+
+        //when
+        ItemSearchPage page = index.search("jpa", 0, 10);
+
+        //then
+        assertThat(page.getTotal()).isEqualTo(2);
+        assertThat(page.getItems()).extracting(ItemSearchResult::getId).containsExactly(3L, 1L);     //이름이 짧은 쪽이 먼저
+        assertThat(index.search("김영한", 0, 10).getItems()).extracting(ItemSearchResult::getId).containsExactly(3L, 1L);
+        assertThat(index.search("9788960777330", 0, 10).getItems()).extracting(ItemSearchResult::getId).containsExactly(1L);
+        assertThat(index.search("스프링", 0, 10).getItems()).extracting(ItemSearchResult::getId).containsExactly(2L, 4L);     //이름 > 아티스트
+        assertThat(index.search("토비", 0, 10).getItems()).extracting(ItemSearchResult::getId).containsExactly(2L);       //'토비의' 2글자 조각
+        assertThat(index.search("없는상품", 0, 10).getItems()).isEmpty();
+    }
+
+    @Test
+    public void 페이지_나누기() throws Exception {
+        //given
+        ItemSearchIndex index = new ItemSearchIndex(null, null, null);
+        for (long id = 1; id <= 5; id++) {
+            index.index(new ItemDocument(id, 0L, "Book", "페이지 상품 " + id, 10000, null, null, null, null, null));
+        }
+
+        //when
+        ItemSearchPage second = index.search("페이지", 1, 2);
+
+        //then
+        assertThat(second.getTotal()).isEqualTo(5);
+        assertThat(second.getItems()).extracting(ItemSearchResult::getId).containsExactly(3L, 4L);
+        assertThat(index.search("페이지", 2, 2).getItems()).extracting(ItemSearchResult::getId).containsExactly(5L);
+        assertThat(index.search("페이지", 3, 2).getItems()).isEmpty();
+    }
+
+    @Test
+    public void 오래된_버전으로_덮어쓰지_않음() throws Exception {
+        //given
+        ItemSearchIndex index = new ItemSearchIndex(null, null, null);
+        index.index(new ItemDocument(1L, 2L, "Book", "새상품명", 10000, null, null, null, null, null));
+
+        //when
+        index.index(new ItemDocument(1L, 1L, "Book", "옛것", 10000, null, null, null, null, null));
+
+        //then
+        assertThat(index.search("옛것", 0, 10).getItems()).isEmpty();
+        assertThat(index.search("새상품명", 0, 10).getItems()).extracting(ItemSearchResult::getId).containsExactly(1L);
+    }
+
+    @Test
+    public void 상품_등록_수정은_커밋후_색인() throws Exception {
+        //given
+        Book book = createBook("가나다라마", "하카타파");
+
+        //when
+        itemService.updateItem(book.getId(), "바사아자차", 12000, 5);
+
+        //then
+        assertThat(itemSearchIndex.search("하카타파", 0, 10).getItems()).extracting(ItemSearchResult::getId).containsExactly(book.getId());
+        assertThat(itemSearchIndex.search("가나다라마", 0, 10).getItems()).isEmpty();
+        ItemSearchResult result = itemSearchIndex.search("바사아자차", 0, 10).getItems().get(0);
+        assertThat(result.getId()).isEqualTo(book.getId());
+        assertThat(result.getPrice()).isEqualTo(12000);
+    }
+
+    @Test
+    public void 스냅샷_적재후_DB와_다른_상품만_다시_색인() throws Exception {
+        //given
+        Book book = createBook("거너더러머", "허커터퍼");
+        itemSearchIndex.saveSnapshot();
+        assertThat(Files.exists(Paths.get(SNAPSHOT_FILE))).isTrue();
+
+        //색인 훅을 거치지 않고 DB만 변경(version 증가)
+        transactionTemplate.executeWithoutResult(status -> em.find(Item.class, book.getId()).setName("버서어저처"));
+
+        //when
+        itemSearchIndex.load();
+
+        //then
+        assertThat(itemSearchIndex.search("거너더러머", 0, 10).getItems()).isEmpty();
+        assertThat(itemSearchIndex.search("버서어저처", 0, 10).getItems()).extracting(ItemSearchResult::getId).containsExactly(book.getId());
+        assertThat(itemSearchIndex.search("허커터퍼", 0, 10).getItems()).extracting(ItemSearchResult::getId).containsExactly(book.getId());
+    }
+
+    @Test
+    public void 스냅샷_적재시_버전이_같아도_이름이_다르면_다시_색인() throws Exception {
+        //given
+        Book book = createBook("고노도로모", "호코토포");
+        itemSearchIndex.saveSnapshot();
+
+        //DB를 새로 만들어서 같은 id, version 에 다른 상품이 들어간 경우(벌크 update 는 version 을 올리지 않는다)
+        transactionTemplate.executeWithoutResult(status -> em.createQuery("update Item i set i.name = :name where i.id = :id")
+                .setParameter("name", "보소오조초")
+                .setParameter("id", book.getId())
+                .executeUpdate());
+
+        //when
+        itemSearchIndex.load();
+
+        //then
+        assertThat(itemSearchIndex.search("고노도로모", 0, 10).getItems()).isEmpty();
+        assertThat(itemSearchIndex.search("보소오조초", 0, 10).getItems()).extracting(ItemSearchResult::getId).containsExactly(book.getId());
+    }
+
+    @Test
+    public void 스냅샷_동시_저장() throws Exception {
+        //given
+        Path file = Paths.get("build/tmp/item-search-test/" + UUID.randomUUID() + ".snapshot");
+        List<ItemDocument> documents = List.of(new ItemDocument(1L, 0L, "Book", "JPA", 10000, null, null, null, null, null));
+
+        //when
+        //주기 저장과 종료 시 저장이 겹쳐도 임시 파일이 겹치지 않는다.
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            writes.add(CompletableFuture.runAsync(() -> {
+                try {
+                    ItemSearchSnapshot.write(file, documents);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        }
+        CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).join();
+
+        //then
+        assertThat(ItemSearchSnapshot.read(file)).extracting(ItemDocument::getName).containsExactly("JPA");
+        try (Stream<Path> files = Files.list(file.getParent())) {
+            assertThat(files.filter(path -> path.getFileName().toString().startsWith(file.getFileName().toString())))
+                    .containsExactly(file);      //남은 임시 파일 없음
+        }
+    }
+
+    @Test
+    public void 스냅샷_파일_읽기_쓰기() throws Exception {
+        //given
+        Path file = Paths.get("build/tmp/item-search-test/" + UUID.randomUUID() + ".snapshot");
+        List<ItemDocument> documents = List.of(
+                new ItemDocument(1L, 3L, "Book", "JPA", 10000, "김영한", "978-89-6077-733-0", null, null, null),
+                new ItemDocument(2L, null, "Movie", "영화", 5000, null, null, null, "감독", "배우"));
+
+        //when
+        ItemSearchSnapshot.write(file, documents);
+        List<ItemDocument> read = ItemSearchSnapshot.read(file);
+
+        //then
+        assertThat(read).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(documents);
+    }
+
+    private Book createBook(String name, String author) {
+        Book book = new Book();
+        book.setName(name);
+        book.setAuthor(author);
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        itemService.saveItem(book);
+        return book;
+    }
+}
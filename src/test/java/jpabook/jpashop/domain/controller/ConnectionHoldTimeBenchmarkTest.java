@@ -0,0 +1,126 @@
+package jpabook.jpashop.domain.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jpabook.jpashop.JpashopApplication;
+import jpabook.jpashop.domain.*;
+import jpabook.jpashop.domain.item.Book;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * OSIV 를 켰을 때와 껐을 때 요청 하나가 DB 커넥션을 잡고 있는 시간 비교(./gradlew benchmark)
+ * 같은 데이터, 같은 요청(/orders, /items 화면)을 동시에 보내고 HikariCP 의 커넥션 사용 시간(hikaricp.connections.usage)을 비교한다.
+ * OSIV 를 켜면 화면 렌더링이 끝날 때까지 커넥션을 반환하지 않으므로 사용 시간이 더 길다.
+ */
+@Tag("benchmark")
+class ConnectionHoldTimeBenchmarkTest {
+
+    private static final int ORDER_COUNT = 500;
+    private static final int CLIENTS = 32;
+    private static final int REQUESTS_PER_CLIENT = 50;
+
+    @Test
+    public void OSIV_끄면_커넥션_사용시간_감소() throws Exception {
+        double osivOn = run(true);
+        double osivOff = run(false);
+
+        assertThat(osivOff).isLessThan(osivOn);
+    }
+
+    /**
+     * @return 커넥션 한번 사용 시 평균 보유 시간(ms)
+     */
+    private double run(boolean openInView) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(JpashopApplication.class)
+                .run("--server.port=0",
+                        "--spring.jpa.open-in-view=" + openInView,
+                        "--decorator.datasource.enabled=false",
+                        "--logging.level.org.hibernate.SQL=info",
+                        "--logging.level.org.hibernate.type=info")) {
+
+            seed(context.getBean(EntityManager.class), context.getBean(TransactionTemplate.class));
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient client = HttpClient.newHttpClient();
+            List<URI> uris = List.of(
+                    URI.create("http://localhost:" + port + "/orders"),
+                    URI.create("http://localhost:" + port + "/items"));
+
+            load(client, uris, 2);      //워밍업
+
+            Timer usage = context.getBean(MeterRegistry.class).get("hikaricp.connections.usage").timer();
+            long countBefore = usage.count();
+            double totalBefore = usage.totalTime(TimeUnit.MILLISECONDS);
+
+            long start = System.nanoTime();
+            load(client, uris, REQUESTS_PER_CLIENT);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            long count = usage.count() - countBefore;
+            double mean = (usage.totalTime(TimeUnit.MILLISECONDS) - totalBefore) / count;
+            System.out.printf("open-in-view=%-5s requests=%d elapsed=%dms connections=%d hold(mean)=%.3fms%n",
+                    openInView, CLIENTS * REQUESTS_PER_CLIENT, elapsedMillis, count, mean);
+            return mean;
+        }
+    }
+
+    private void load(HttpClient client, List<URI> uris, int requestsPerClient) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int c = 0; c < CLIENTS; c++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < requestsPerClient; i++) {
+                    HttpRequest request = HttpRequest.newBuilder(uris.get(i % uris.size())).GET().build();
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    assertThat(response.statusCode()).isEqualTo(200);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+    }
+
+    private void seed(EntityManager em, TransactionTemplate transactionTemplate) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Member member = new Member();
+            member.setName("부하회원");
+            member.setAddress(new Address("서울", "강가", "123-123"));
+            em.persist(member);
+
+            Book book = new Book();
+            book.setName("부하JPA");
+            book.setPrice(10000);
+            book.setStockQuantity(ORDER_COUNT);
+            em.persist(book);
+
+            for (int i = 0; i < ORDER_COUNT; i++) {
+                Delivery delivery = new Delivery();
+                delivery.setAddress(member.getAddress());
+                em.persist(Order.createOrder(member, delivery, OrderItem.createOrderItem(book, book.getPrice(), 1)));
+            }
+        });
+    }
+
+}
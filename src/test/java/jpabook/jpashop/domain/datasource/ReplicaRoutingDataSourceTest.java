@@ -0,0 +1,115 @@
+package jpabook.jpashop.domain.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 메모리 H2 두개를 프라이머리, 레플리카로 사용한다.
+ * 실제 복제는 없으므로 레플리카의 heartbeat 는 테스트에서 직접 쓴다.
+ * 각 DB의 db_marker 테이블에 DB 이름을 넣어두고, 어느 DB에서 읽었는지 확인한다.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "jpashop.datasource.routing.enabled=true",
+        "jpashop.datasource.routing.replica.url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1",
+        "jpashop.datasource.routing.replica.username=sa",
+        "jpashop.datasource.routing.max-lag=5000",
+        "jpashop.datasource.routing.lag-check-interval=3600000",    //테스트에서 직접 check() 호출
+        "decorator.datasource.exclude-beans=primaryDataSource, replicaDataSource, routingDataSource"
+})
+class ReplicaRoutingDataSourceTest {
+
+    @Autowired DataSource dataSource;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired ReplicaLagMonitor lagMonitor;
+
+    JdbcTemplate primaryAdmin = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:routing-primary", "sa", ""));
+    JdbcTemplate replicaAdmin = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:routing-replica", "sa", ""));
+
+    @BeforeEach
+    public void setUp() {
+        for (JdbcTemplate admin : new JdbcTemplate[]{primaryAdmin, replicaAdmin}) {
+            admin.execute("create table if not exists db_marker (name varchar(20))");
+            admin.update("delete from db_marker");
+        }
+        primaryAdmin.update("insert into db_marker (name) values ('primary')");
+        replicaAdmin.update("insert into db_marker (name) values ('replica')");
+
+        replicaAdmin.execute(ReplicaLagMonitor.CREATE_HEARTBEAT_TABLE);
+        replicaAdmin.update("delete from replication_heartbeat");
+    }
+
+    @Test
+    public void 읽기전용_트랜잭션은_레플리카() throws Exception {
+        //given
+        replicateHeartbeat(System.currentTimeMillis());
+
+        //when
+        lagMonitor.check();
+
+        //then
+        assertThat(lagMonitor.isReplicaAvailable()).isTrue();
+        assertThat(readMarker(true)).isEqualTo("replica");
+        assertThat(readMarker(false)).isEqualTo("primary");
+    }
+
+    @Test
+    public void 레플리카_지연_시_프라이머리() throws Exception {
+        //given
+        replicateHeartbeat(System.currentTimeMillis() - 60_000);
+
+        //when
+        lagMonitor.check();
+
+        //then
+        assertThat(lagMonitor.isReplicaAvailable()).isFalse();
+        assertThat(lagMonitor.getLagMillis()).isGreaterThanOrEqualTo(60_000);
+        assertThat(readMarker(true)).isEqualTo("primary");
+    }
+
+    @Test
+    public void 레플리카_heartbeat_없으면_프라이머리() throws Exception {
+        //given
+        replicaAdmin.execute("drop table replication_heartbeat");
+
+        //when
+        lagMonitor.check();
+
+        //then
+        assertThat(lagMonitor.isReplicaAvailable()).isFalse();
+        assertThat(readMarker(true)).isEqualTo("primary");
+    }
+
+    @Test
+    public void 프라이머리에_heartbeat_기록() throws Exception {
+        //when
+        lagMonitor.check();
+
+        //then
+        assertThat(primaryAdmin.queryForObject("select count(*) from replication_heartbeat", Integer.class)).isEqualTo(1);
+    }
+
+
+    private String readMarker(boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("select name from db_marker", String.class));
+    }
+
+    private void replicateHeartbeat(long beatAt) {
+        replicaAdmin.update("insert into replication_heartbeat (id, beat_at) values (1, ?)", new Timestamp(beatAt));
+    }
+}
@@ -0,0 +1,84 @@
+package jpabook.jpashop.domain.execution;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 커넥션 풀(2개)보다 훨씬 많은 가상 스레드가 동시에 트랜잭션을 실행해도
+ * 세마포어(ConnectionLimitingDataSource)에서 기다렸다가 모두 처리되는지 확인한다.
+ */
+@SpringBootTest(properties = {
+        "jpashop.execution.mode=virtual",
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.connection-timeout=30000"
+})
+class VirtualThreadExecutionTest {
+
+    @Autowired DataSource dataSource;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired MeterRegistry meterRegistry;
+
+    @Test
+    public void 풀_크기만큼만_커넥션_발급() throws Exception {
+        //given
+        ConnectionLimitingDataSource limiter = new ConnectionLimitingDataSource(
+                new DriverManagerDataSource("jdbc:h2:mem:limiter;DB_CLOSE_DELAY=-1", "sa", ""), 2, 100);
+        Connection first = limiter.getConnection();
+        Connection second = limiter.getConnection();
+
+        //when, then
+        assertThatThrownBy(limiter::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+
+        first.close();
+        first.close();      //두번 닫아도 허가는 한번만 돌려준다.
+        try (Connection third = limiter.getConnection()) {
+            assertThat(third.isValid(1)).isTrue();
+        }
+        second.close();
+    }
+
+    @Test
+    public void 가상_스레드_동시_트랜잭션() throws Exception {
+        //given
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        int threadCount = 500;
+        AtomicInteger done = new AtomicInteger();
+
+        //when
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < threadCount; i++) {
+                futures.add(executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.queryForObject("select count(*) from member", Long.class);
+                    done.incrementAndGet();
+                })));
+            }
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        //then
+        assertThat(done.get()).isEqualTo(threadCount);
+        assertThat(meterRegistry.get("jpashop.datasource.connections.waiting").gauge().value()).isZero();
+    }
+}
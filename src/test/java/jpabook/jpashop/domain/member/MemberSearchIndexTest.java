@@ -0,0 +1,88 @@
+package jpabook.jpashop.domain.member;
+
+import jpabook.jpashop.domain.member.MemberSearchIndex.MemberSearchResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class MemberSearchIndexTest {
+
+    MemberSearchIndex index = new MemberSearchIndex(null, null);
+
+    @Test
+    public void 부분일치_검색_순위() throws Exception {
+        //given
+        index.index(1L, "김영한");
+        index.index(2L, "영한");
+        index.index(3L, "영한 김");
+        index.index(4L, "박영수");
+        index.index(5L, "Kim YoungHan");
+
+        //when
+        List<MemberSearchResult> results = index.search("영한", 10);
+
+        //then
+        assertThat(results).extracting(MemberSearchResult::getId).containsExactly(2L, 3L, 1L);     //전체 일치 > 앞부분 일치 > 부분 일치
+        assertThat(index.search("영", 10)).extracting(MemberSearchResult::getId).containsExactly(2L, 3L, 1L, 4L);
+        assertThat(index.search("  kim   young", 10)).extracting(MemberSearchResult::getName).containsExactly("Kim YoungHan");
+        assertThat(index.search("영한", 2)).extracting(MemberSearchResult::getId).containsExactly(2L, 3L);
+        assertThat(index.search("없는이름", 10)).isEmpty();
+    }
+
+    @Test
+    public void 이름_변경후_이전_이름으로_검색안됨() throws Exception {
+        //given
+        index.index(1L, "김영한");
+
+        //when
+        index.index(1L, "박지성");
+
+        //then
+        assertThat(index.search("영한", 10)).isEmpty();
+        assertThat(index.search("지성", 10)).extracting(MemberSearchResult::getName).containsExactly("박지성");
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void 회원id_조회는_최대_max_더하기_1개() throws Exception {
+        //given
+        for (long id = 1; id <= 5; id++) {
+            index.index(id, "회원" + id);
+        }
+
+        //when
+        List<Long> ids = index.findIds("회원", 3);
+
+        //then
+        assertThat(ids).hasSize(4);
+        assertThat(index.findIds("회원", 10)).containsExactlyInAnyOrder(1L, 2L, 3L, 4L, 5L);
+        assertThat(index.findIds("원3", 10)).containsExactly(3L);
+    }
+
+    @Test
+    public void 생성중_변경된_이름은_DB에서_읽은_이름으로_덮어쓰지_않음() throws Exception {
+        //given
+        index.startRebuild();
+        //생성이 DB 에서 옛 이름을 읽은 뒤, 이름 변경이 커밋되어 먼저 색인된다.
+        index.index(1L, "박지성");
+
+        //when
+        index.indexLoaded(1L, "김영한");
+        index.indexLoaded(2L, "차범근");
+        index.finishRebuild();
+
+        //then
+        assertThat(index.search("영한", 10)).isEmpty();
+        assertThat(index.search("지성", 10)).extracting(MemberSearchResult::getId).containsExactly(1L);
+        assertThat(index.search("범근", 10)).extracting(MemberSearchResult::getId).containsExactly(2L);
+
+        //생성이 끝난 뒤에는 다시 DB 에서 읽은 이름을 반영한다.(다른 인스턴스에서 변경)
+        index.startRebuild();
+        index.indexLoaded(1L, "손흥민");
+        index.finishRebuild();
+        assertThat(index.search("흥민", 10)).extracting(MemberSearchResult::getId).containsExactly(1L);
+        assertThat(index.isReady()).isFalse();      //rebuild() 를 거치지 않았으므로
+    }
+}
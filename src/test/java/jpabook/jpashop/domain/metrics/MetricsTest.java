@@ -0,0 +1,58 @@
+package jpabook.jpashop.domain.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.service.MemberService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+class MetricsTest {
+
+    @Autowired MemberService memberService;
+    @Autowired MeterRegistry registry;
+
+    @Test
+    public void 회원가입_메트릭_기록() throws Exception {
+        //given
+        Member member = new Member();
+        member.setName("메트릭회원");
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        //캐시된 스프링 컨텍스트의 레지스트리를 다른 테스트와 같이 쓰므로 증가량으로 확인한다.
+        long joins = joinCount();
+        long lookups = rowsCount();
+
+        //when
+        memberService.join(member);
+        //처음 가입하는 이름은 이름 필터(MemberNameFilter)로 중복 조회를 생략하므로, 같은 이름으로 한번 더 가입해서 조회하게 한다.
+        Member duplicate = new Member();
+        duplicate.setName("메트릭회원");
+        duplicate.setAddress(new Address("서울", "강가", "123-123"));
+        assertThatThrownBy(() -> memberService.join(duplicate)).isInstanceOf(IllegalStateException.class);
+
+        //then
+        assertThat(joinCount() - joins).isEqualTo(1);
+        assertThat(rowsCount() - lookups).isGreaterThanOrEqualTo(1);      //중복 가입의 조회(처음 가입도 필터 오탐이면 조회)
+        assertThat(registry.get("jpashop.persistence.context.entities")
+                .tag("read-only", "false")
+                .summary().max()).isGreaterThanOrEqualTo(1);
+    }
+
+    private long rowsCount() {
+        DistributionSummary summary = registry.find("jpashop.repository.rows")
+                .tags("repository", "MemberRepository", "method", "findByNormalizedName")
+                .summary();
+        return summary != null ? summary.count() : 0;
+    }
+
+    private long joinCount() {
+        Timer timer = registry.find("jpashop.member.join").tag("exception", "none").timer();
+        return timer != null ? timer.count() : 0;
+    }
+}
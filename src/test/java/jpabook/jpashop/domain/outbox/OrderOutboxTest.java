@@ -0,0 +1,77 @@
+package jpabook.jpashop.domain.outbox;
+
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.TestFixture;
+import jpabook.jpashop.domain.OrderEventType;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.exception.NotEnoughStockException;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.repository.OrderOutboxRepository;
+import jpabook.jpashop.domain.service.OrderService;
+import jpabook.jpashop.domain.service.query.OrderChangeView;
+import jpabook.jpashop.domain.service.query.OrderQueryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 주문/취소 -> 아웃박스(같은 트랜잭션) -> 릴레이(feedSeq) -> 변경 피드
+ * 릴레이 주기를 길게 잡고 테스트에서 직접 relay() 를 호출한다.
+ */
+@SpringBootTest(properties = "jpashop.order.outbox.relay-interval=3600000")
+class OrderOutboxTest {
+
+    @Autowired OrderService orderService;
+    @Autowired OrderQueryService orderQueryService;
+    @Autowired OrderOutboxRelay relay;
+    @Autowired OrderOutboxRepository orderOutboxRepository;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired TestFixture testFixture;
+
+    @Test
+    public void 주문_취소_변경피드() throws Exception {
+        //given
+        relay.relay();
+        long since = transactionTemplate.execute(status -> orderOutboxRepository.findMaxFeedSeq());
+        Member member = testFixture.createMember();
+        Book book = testFixture.createBook(10);
+
+        //when
+        Long orderId = orderService.order(member.getId(), book.getId(), 2);
+        orderService.cancelOrder(orderId);
+        assertThat(orderQueryService.findChanges(since, 100)).isEmpty();    //릴레이 전에는 피드에 없다.
+        relay.relay();
+
+        //then
+        List<OrderChangeView> changes = orderQueryService.findChanges(since, 100);
+        assertThat(changes).extracting(OrderChangeView::getSeq).containsExactly(since + 1, since + 2);
+        assertThat(changes).extracting(OrderChangeView::getType).containsExactly(OrderEventType.ORDER_PLACED, OrderEventType.ORDER_CANCELED);
+        assertThat(changes).extracting(OrderChangeView::getOrderStatus).containsExactly(OrderStatus.ORDER, OrderStatus.CANCEL);
+        assertThat(changes).extracting(OrderChangeView::getOrderId).containsOnly(orderId);
+        assertThat(changes.get(0).getTotalPrice()).isEqualTo(20000);
+
+        assertThat(orderQueryService.findChanges(since + 1, 100)).extracting(OrderChangeView::getSeq).containsExactly(since + 2);
+    }
+
+    @Test
+    public void 주문_롤백시_이벤트_없음() throws Exception {
+        //given
+        relay.relay();
+        long since = transactionTemplate.execute(status -> orderOutboxRepository.findMaxFeedSeq());
+        Member member = testFixture.createMember();
+        Book book = testFixture.createBook(1);
+
+        //when
+        assertThatThrownBy(() -> orderService.order(member.getId(), book.getId(), 2))
+                .isInstanceOf(NotEnoughStockException.class);
+        relay.relay();
+
+        //then
+        assertThat(orderQueryService.findChanges(since, 100)).isEmpty();
+    }
+}
@@ -0,0 +1,80 @@
+package jpabook.jpashop.domain.queue;
+
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.OrderTicketStatus;
+import jpabook.jpashop.domain.TestFixture;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.repository.OrderRepository;
+import jpabook.jpashop.domain.service.AsyncOrderService;
+import jpabook.jpashop.domain.service.OrderLine;
+import jpabook.jpashop.domain.service.query.OrderTicketView;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 접수 -> 워커 배치 처리 -> 상태 조회
+ */
+@SpringBootTest(properties = {
+        "jpashop.order.async.enabled=true",
+        "jpashop.order.async.fsync=false",
+        "jpashop.order.async.batch-size=10"
+})
+class AsyncOrderPipelineTest {
+
+    @DynamicPropertySource
+    static void queueFile(DynamicPropertyRegistry registry) {
+        registry.add("jpashop.order.async.queue-file", () -> "build/tmp/order-queue-test/" + UUID.randomUUID() + ".queue");
+    }
+
+    @Autowired AsyncOrderService asyncOrderService;
+    @Autowired OrderRepository orderRepository;
+    @Autowired EntityManager em;
+    @Autowired TestFixture testFixture;
+
+    @Test
+    public void 비동기_주문_처리() throws Exception {
+        //given
+        Member member = testFixture.createMember();
+        Book book = testFixture.createBook(3);
+
+        //when
+        Long ok = asyncOrderService.accept(member.getId(), List.of(new OrderLine(book.getId(), 2)));
+        Long notEnoughStock = asyncOrderService.accept(member.getId(), List.of(new OrderLine(book.getId(), 2)));
+        Long unknownMember = asyncOrderService.accept(-1L, List.of(new OrderLine(book.getId(), 1)));
+
+        //then
+        OrderTicketView completed = await(ok);
+        assertThat(completed.getStatus()).isEqualTo(OrderTicketStatus.COMPLETED);
+        assertThat(orderRepository.findOne(completed.getOrderId())).isNotNull();
+
+        assertThat(await(notEnoughStock).getStatus()).isEqualTo(OrderTicketStatus.FAILED);
+        assertThat(await(unknownMember).getStatus()).isEqualTo(OrderTicketStatus.FAILED);
+        assertThat(em.find(Book.class, book.getId()).getStockQuantity()).isEqualTo(1);
+    }
+
+    @Test
+    public void 없는_접수번호() throws Exception {
+        assertThatThrownBy(() -> asyncOrderService.findTicket(Long.MAX_VALUE))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private OrderTicketView await(Long ticketId) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            OrderTicketView ticket = asyncOrderService.findTicket(ticketId);
+            if (ticket.getStatus() != OrderTicketStatus.QUEUED) {
+                return ticket;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("처리되지 않았습니다. ticketId=" + ticketId);
+    }
+}
@@ -0,0 +1,84 @@
+package jpabook.jpashop.domain.queue;
+
+import jpabook.jpashop.domain.service.OrderLine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class OrderQueueTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void 재시작후_미처리_주문_다시_꺼내기() throws Exception {
+        //given
+        Path file = dir.resolve("order.queue");
+        try (OrderQueue queue = OrderQueue.open(file, 10, 1, true)) {
+            queue.enqueue(1L, List.of(new OrderLine(10L, 1)));
+            queue.enqueue(2L, List.of(new OrderLine(20L, 2), new OrderLine(21L, 3)));
+            queue.enqueue(3L, List.of(new OrderLine(30L, 1)));
+
+            List<QueuedOrder> first = queue.claim(1, 0, TimeUnit.MILLISECONDS);
+            queue.claim(1, 0, TimeUnit.MILLISECONDS);      //꺼냈지만 완료하지 못하고 종료
+            queue.acknowledge(first);
+        }
+
+        //when
+        try (OrderQueue reopened = OrderQueue.open(file, 10, 1, true)) {
+            List<QueuedOrder> batch = reopened.claim(10, 0, TimeUnit.MILLISECONDS);
+
+            //then
+            assertThat(batch).extracting(QueuedOrder::getSeq).containsExactly(2L, 3L);
+            QueuedOrder second = batch.get(0);
+            assertThat(second.getMemberId()).isEqualTo(2L);
+            assertThat(second.getLines()).extracting(OrderLine::getItemId).containsExactly(20L, 21L);
+            assertThat(second.getLines()).extracting(OrderLine::getCount).containsExactly(2, 3);
+            assertThat(reopened.isPending(1L)).isFalse();
+            assertThat(reopened.isPending(2L)).isTrue();
+            assertThat(reopened.enqueue(4L, List.of(new OrderLine(40L, 1)))).isEqualTo(4L);
+        }
+    }
+
+    @Test
+    public void 뒤_배치가_먼저_완료되면_앞_배치_완료까지_유지() throws Exception {
+        //given
+        try (OrderQueue queue = OrderQueue.open(dir.resolve("order.queue"), 10, 1, false)) {
+            for (long i = 1; i <= 4; i++) {
+                queue.enqueue(i, List.of(new OrderLine(i, 1)));
+            }
+            List<QueuedOrder> front = queue.claim(2, 0, TimeUnit.MILLISECONDS);
+            List<QueuedOrder> back = queue.claim(2, 0, TimeUnit.MILLISECONDS);
+
+            //when
+            queue.acknowledge(back);
+
+            //then
+            assertThat(queue.size()).isEqualTo(4);
+            queue.acknowledge(front);
+            assertThat(queue.size()).isZero();
+        }
+    }
+
+    @Test
+    public void 대기열_가득참() throws Exception {
+        //given
+        try (OrderQueue queue = OrderQueue.open(dir.resolve("order.queue"), 2, 1, false)) {
+            queue.enqueue(1L, List.of(new OrderLine(1L, 1)));
+            queue.enqueue(1L, List.of(new OrderLine(1L, 1)));
+
+            //when, then
+            assertThatThrownBy(() -> queue.enqueue(1L, List.of(new OrderLine(1L, 1))))
+                    .isInstanceOf(IllegalStateException.class);
+
+            //처리가 끝난 칸은 다시 사용한다.
+            queue.acknowledge(queue.claim(1, 0, TimeUnit.MILLISECONDS));
+            assertThat(queue.enqueue(1L, List.of(new OrderLine(1L, 1)))).isEqualTo(3L);
+        }
+    }
+}
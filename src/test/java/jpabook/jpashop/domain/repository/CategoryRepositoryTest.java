@@ -0,0 +1,114 @@
+package jpabook.jpashop.domain.repository;
+
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class CategoryRepositoryTest {
+
+    @Autowired
+    CategoryRepository categoryRepository;
+
+    @Autowired
+    EntityManager em;
+
+    @Test
+    public void 하위트리_상품_조회() throws Exception {
+        //given
+        Category root = createCategory("도서", null);
+        Category it = createCategory("IT", root);
+        Category java = createCategory("자바", it);
+        Category novel = createCategory("소설", root);
+
+        Book book1 = createBook("JPA");
+        Book book2 = createBook("스프링");
+        Book book3 = createBook("토지");
+        java.getItems().add(book1);
+        java.getItems().add(book2);
+        novel.getItems().add(book2);    //여러 카테고리에 속한 상품
+        novel.getItems().add(book3);
+        em.flush();
+        em.clear();
+
+        //when
+        List<Item> rootItems = categoryRepository.findSubtreeItems(root.getId(), 0, 10);
+        List<Item> itItems = categoryRepository.findSubtreeItems(it.getId(), 0, 10);
+        List<Item> secondPage = categoryRepository.findSubtreeItems(root.getId(), 2, 2);
+
+        //then
+        assertThat(rootItems).extracting(Item::getName).containsExactly("JPA", "스프링", "토지");
+        assertThat(itItems).extracting(Item::getName).containsExactly("JPA", "스프링");
+        assertThat(secondPage).extracting(Item::getName).containsExactly("토지");
+        assertThat(categoryRepository.findSubtreeIds(root.getId()))
+                .containsExactly(root.getId(), it.getId(), novel.getId(), java.getId());
+    }
+
+    @Test
+    public void 카테고리_이동시_하위트리_함께_이동() throws Exception {
+        //given
+        Category root1 = createCategory("루트1", null);
+        Category root2 = createCategory("루트2", null);
+        Category parent = createCategory("부모", root1);
+        Category child = createCategory("자식", parent);
+        em.flush();
+        em.clear();
+
+        //when
+        Category newRoot = categoryRepository.findOne(root2.getId());
+        newRoot.addChildCategory(categoryRepository.findOne(parent.getId()));
+        em.flush();
+        em.clear();
+
+        //then
+        assertThat(categoryRepository.findSubtreeIds(root1.getId())).containsExactly(root1.getId());
+        assertThat(categoryRepository.findSubtreeIds(root2.getId())).containsExactly(root2.getId(), parent.getId(), child.getId());
+        assertThat(categoryRepository.findSubtreeIds(parent.getId())).containsExactly(parent.getId(), child.getId());
+        assertThat(categoryRepository.findOne(child.getId()).getAncestors())
+                .extracting(closure -> closure.getAncestor().getId())
+                .containsExactlyInAnyOrder(child.getId(), parent.getId(), root2.getId());
+    }
+
+    @Test
+    public void 하위_카테고리를_부모로_지정하면_예외() throws Exception {
+        //given
+        Category root = createCategory("루트", null);
+        Category child = createCategory("자식", root);
+
+        //when
+        //then
+        assertThatThrownBy(() -> child.addChildCategory(root))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> root.addChildCategory(root))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Category createCategory(String name, Category parent) {
+        Category category = new Category();
+        category.setName(name);
+        if (parent != null) {
+            parent.addChildCategory(category);
+        }
+        categoryRepository.save(category);
+        return category;
+    }
+
+    private Book createBook(String name) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        em.persist(book);
+        return book;
+    }
+}
@@ -0,0 +1,55 @@
+package jpabook.jpashop.domain.repository;
+
+import jpabook.jpashop.domain.exception.InvalidPageTokenException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.*;
+
+class OrderCursorTest {
+
+    @Test
+    public void 토큰_변환후_복원() throws Exception {
+        //given
+        OrderCursor cursor = new OrderCursor(LocalDateTime.of(2024, 3, 1, 10, 20, 30, 123456000), 42L);
+
+        //when
+        OrderCursor decoded = OrderCursor.decode(cursor.encode());
+
+        //then
+        assertThat(decoded.getOrderDate()).isEqualTo(cursor.getOrderDate());
+        assertThat(decoded.getOrderId()).isEqualTo(42L);
+        assertThat(cursor.encode()).doesNotContain("=", "+", "/");      //URL 에 그대로 쓸 수 있는 토큰
+        assertThat(OrderCursor.decode(null)).isNull();
+        assertThat(OrderCursor.decode("")).isNull();
+    }
+
+    @Test
+    public void 주문일시_없는_주문의_토큰() throws Exception {
+        //given
+        OrderCursor cursor = new OrderCursor(null, 7L);
+
+        //when
+        OrderCursor decoded = OrderCursor.decode(cursor.encode());
+
+        //then
+        assertThat(decoded.getOrderDate()).isNull();
+        assertThat(decoded.getOrderId()).isEqualTo(7L);
+    }
+
+    @Test
+    public void 잘못된_토큰() throws Exception {
+        assertThatThrownBy(() -> OrderCursor.decode("***")).isInstanceOf(InvalidPageTokenException.class);
+        assertThatThrownBy(() -> OrderCursor.decode(token("2024-03-01T10:20:30"))).isInstanceOf(InvalidPageTokenException.class);
+        assertThatThrownBy(() -> OrderCursor.decode(token("어제|42"))).isInstanceOf(InvalidPageTokenException.class);
+        assertThatThrownBy(() -> OrderCursor.decode(token("2024-03-01T10:20:30|abc"))).isInstanceOf(InvalidPageTokenException.class);
+    }
+
+
+    private String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
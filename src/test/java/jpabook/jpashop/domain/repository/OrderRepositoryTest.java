@@ -0,0 +1,221 @@
+package jpabook.jpashop.domain.repository;
+
+import jpabook.jpashop.domain.*;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.member.MemberSearchIndex;
+import jpabook.jpashop.domain.repository.order.simplequery.OrderSimpleQueryDto;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class OrderRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Autowired
+    MemberSearchIndex memberSearchIndex;
+
+    @Test
+    public void 동적검색_조건() throws Exception {
+        //given
+        Member member = createMember("검색회원");
+        Book book = createBook("검색JPA", 10000, 10);
+        Order order = createOrder(member, book, 2);
+        em.flush();
+        em.clear();
+
+        //when
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName("검색");
+        orderSearch.setOrderStatus(OrderStatus.ORDER);
+        orderSearch.setOrderDateFrom(LocalDate.now());
+        orderSearch.setOrderDateTo(LocalDate.now());
+        orderSearch.setItemName("검색J");
+
+        List<Order> orders = orderRepository.findAll(orderSearch);
+        List<OrderSimpleQueryDto> dtos = orderRepository.findAllDto(orderSearch);
+
+        orderSearch.setItemName("없는상품");
+        List<Order> empty = orderRepository.findAll(orderSearch);
+
+        //then
+        assertThat(orders).extracting(Order::getId).containsExactly(order.getId());
+        assertThat(dtos).extracting(OrderSimpleQueryDto::getName).containsExactly("검색회원");
+        assertThat(empty).isEmpty();
+    }
+
+    @Test
+    public void 동적검색_쿼리플랜_캐시() throws Exception {
+        //given
+        Member member = createMember("플랜회원");
+        Book book = createBook("플랜JPA", 10000, 100);
+        createOrder(member, book, 1);
+        em.flush();
+        em.clear();
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        //when
+        //조건 조합과 값 모두 무작위로 만든 검색 요청
+        Random random = new Random(42);
+        int searchCount = 500;
+        //회원 이름 조건 모양 : like(색인에서 못 찾았거나 너무 많음) 또는 회원 id IN(padding 된 크기)
+        Set<Integer> memberNameShapes = new HashSet<>();
+        for (int i = 0; i < searchCount; i++) {
+            OrderSearch orderSearch = new OrderSearch();
+            if (random.nextBoolean()) {
+                orderSearch.setOrderStatus(OrderStatus.values()[random.nextInt(OrderStatus.values().length)]);
+            }
+            if (random.nextBoolean()) {
+                orderSearch.setMemberName("회원" + random.nextInt(1000));
+                memberNameShapes.add(memberNameShape(orderSearch.getMemberName()));
+            }
+            if (random.nextBoolean()) {
+                orderSearch.setOrderDateFrom(LocalDate.now().minusDays(random.nextInt(365)));
+            }
+            if (random.nextBoolean()) {
+                orderSearch.setOrderDateTo(LocalDate.now().plusDays(random.nextInt(365)));
+            }
+            if (random.nextBoolean()) {
+                orderSearch.setItemName("상품" + random.nextInt(1000));
+            }
+            orderRepository.findAll(orderSearch);
+        }
+
+        //then
+        //값이 달라도 쿼리 문자열은 나머지 조건 조합(2^4) x 회원 이름 조건 모양(없음 + 나온 모양)만큼만 생기고, 나머지는 플랜 캐시에서 재사용되어야 한다.
+        //회원 id IN 목록 크기는 in_clause_parameter_padding 으로 2의 거듭제곱 단위로만 달라진다.
+        int maxPlans = (1 << 4) * (1 + memberNameShapes.size());
+        assertThat(statistics.getQueries().length).isLessThanOrEqualTo(maxPlans);
+        assertThat(statistics.getQueryPlanCacheMissCount()).isLessThanOrEqualTo(maxPlans);
+        assertThat(statistics.getQueryPlanCacheHitCount()).isGreaterThanOrEqualTo(searchCount - maxPlans);
+    }
+
+    @Test
+    public void 회원색인_생성전에는_like로_검색() throws Exception {
+        //given
+        Member member = createMember("색인전회원");
+        Book book = createBook("색인전JPA", 10000, 10);
+        Order order = createOrder(member, book, 1);
+        em.flush();
+        em.clear();
+        //기동 직후 아직 만들어지지 않은 색인
+        OrderRepository notReady = new OrderRepository(em, new MemberSearchIndex(null, null));
+
+        //when
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName("색인전");
+        List<Order> orders = notReady.findAll(orderSearch);
+        List<OrderSimpleQueryDto> dtos = notReady.findAllDto(orderSearch);
+        List<Order> byCriteria = notReady.findAllByCriteria(orderSearch);
+
+        //then
+        assertThat(orders).extracting(Order::getId).containsExactly(order.getId());
+        assertThat(dtos).extracting(OrderSimpleQueryDto::getName).containsExactly("색인전회원");
+        assertThat(byCriteria).extracting(Order::getId).containsExactly(order.getId());
+    }
+
+    @Test
+    public void 키셋_페이징_같은_주문일시는_id_역순() throws Exception {
+        //given
+        //다른 테스트의 주문보다 뒤에 오도록 아주 오래된 주문일시, 마지막은 주문일시가 없는 주문
+        Member member = createMember("페이징회원");
+        Book book = createBook("페이징JPA", 10000, 100);
+        LocalDateTime later = LocalDateTime.of(1900, 1, 2, 10, 0);
+        LocalDateTime earlier = LocalDateTime.of(1900, 1, 1, 10, 0);
+        Order a = createOrder(member, book, 1, later);
+        Order b = createOrder(member, book, 1, later);
+        Order c = createOrder(member, book, 1, later);
+        Order d = createOrder(member, book, 1, earlier);
+        Order e = createOrder(member, book, 1, earlier);
+        Order noDate = createOrder(member, book, 1, null);
+        em.flush();
+        em.clear();
+        OrderCursor start = new OrderCursor(LocalDateTime.of(1900, 1, 3, 0, 0), Long.MAX_VALUE);
+
+        //when
+        List<Order> page1 = orderRepository.findAllWithMemberDelivery(start, 2);
+        List<Order> page2 = orderRepository.findAllWithMemberDelivery(nextOf(page1), 2);
+        List<Order> page3 = orderRepository.findAllWithMemberDelivery(nextOf(page2), 2);
+        List<Order> page4 = orderRepository.findAllWithMemberDelivery(nextOf(page3), 2);
+
+        //then
+        assertThat(page1).extracting(Order::getId).containsExactly(c.getId(), b.getId());
+        assertThat(page2).extracting(Order::getId).containsExactly(a.getId(), e.getId());     //같은 주문일시 사이에서 끊긴 페이지
+        assertThat(page3).extracting(Order::getId).containsExactly(d.getId(), noDate.getId());
+        assertThat(page4).isEmpty();
+    }
+
+    /**
+     * 페이지의 마지막 주문으로 토큰을 만들고 다시 해석한 커서(API 가 주고받는 그대로)
+     */
+    private OrderCursor nextOf(List<Order> page) {
+        Order last = page.get(page.size() - 1);
+        return OrderCursor.decode(new OrderCursor(last.getOrderDate(), last.getId()).encode());
+    }
+
+    /**
+     * 회원 이름 조건이 어떤 모양의 쿼리가 되는지, 0 이면 like, 아니면 padding 된 IN 목록 크기
+     */
+    private int memberNameShape(String memberName) {
+        int size = memberSearchIndex.findIds(memberName, 1000).size();
+        if (!memberSearchIndex.isReady() || size == 0 || size > 1000) {
+            return 0;
+        }
+        return Integer.highestOneBit(size) == size ? size : Integer.highestOneBit(size) << 1;
+    }
+
+    private Order createOrder(Member member, Book book, int count) {
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+        OrderItem orderItem = OrderItem.createOrderItem(book, book.getPrice(), count);
+        Order order = Order.createOrder(member, delivery, orderItem);
+        em.persist(order);
+        return order;
+    }
+
+    private Order createOrder(Member member, Book book, int count, LocalDateTime orderDate) {
+        Order order = createOrder(member, book, count);
+        order.setOrderDate(orderDate);
+        return order;
+    }
+
+    private Book createBook(String name, int price, int stockQuantity) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(price);
+        book.setStockQuantity(stockQuantity);
+        em.persist(book);
+        return book;
+    }
+
+    private Member createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        em.persist(member);
+        memberSearchIndex.index(member.getId(), name);     //회원 이름 검색 조건은 색인에서 찾는다.
+        return member;
+    }
+}
@@ -0,0 +1,136 @@
+package jpabook.jpashop.domain.repository;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 2차 캐시, 쿼리 캐시 적용 확인
+ * 트랜잭션(영속성 컨텍스트)을 바꿔가며 조회해야 하므로 테스트 트랜잭션 없이 TransactionTemplate 으로 실행한다.
+ * 테스트용 application.yml 에는 캐시 설정이 없으므로 여기서 지정한다.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+        "spring.jpa.properties.hibernate.cache.region.factory_class=jcache",
+        "spring.jpa.properties.hibernate.javax.cache.provider=org.ehcache.jsr107.EhcacheCachingProvider",
+        "spring.jpa.properties.hibernate.javax.cache.uri=ehcache.xml",
+        "spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy=fail",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class SecondLevelCacheTest {
+
+    @Autowired EntityManager em;
+    @Autowired MemberRepository memberRepository;
+    @Autowired ItemRepository itemRepository;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    Statistics statistics;
+    Long memberId;
+    Long itemId;
+    Long parentId;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Member member = new Member();
+            member.setName("캐시회원" + System.nanoTime());
+            member.setAddress(new Address("서울", "강가", "123-123"));
+            memberRepository.save(member);
+
+            Book book = new Book();
+            book.setName("캐시JPA");
+            book.setPrice(10000);
+            book.setStockQuantity(10);
+            itemRepository.save(book);
+
+            Category parent = new Category();
+            parent.setName("도서");
+            Category child = new Category();
+            child.setName("IT");
+            parent.addChildCategory(child);
+            parent.getItems().add(book);
+            em.persist(parent);
+            em.persist(child);
+
+            memberId = member.getId();
+            itemId = book.getId();
+            parentId = parent.getId();
+        });
+    }
+
+    @Test
+    public void 엔티티_컬렉션_재조회시_SQL_없음() throws Exception {
+        //given
+        readAll();      //캐시 적재
+
+        //when
+        statistics.clear();
+        readAll();
+
+        //then
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(0);
+        assertThat(statistics.getSecondLevelCacheHitCount()).isGreaterThan(0);
+        assertThat(statistics.getCacheRegionStatistics("category.items").getHitCount()).isEqualTo(1);
+        assertThat(statistics.getCacheRegionStatistics("category.child").getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void 이름조회_쿼리캐시_재조회시_SQL_없음() throws Exception {
+        //given
+        String name = transactionTemplate.execute(status -> memberRepository.findOne(memberId).getName());
+        transactionTemplate.execute(status -> memberRepository.findByName(name));
+
+        //when
+        statistics.clear();
+        int size = transactionTemplate.execute(status -> memberRepository.findByName(name).size());
+
+        //then
+        assertThat(size).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(0);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void 회원변경_시_쿼리캐시_무효화() throws Exception {
+        //given
+        String name = transactionTemplate.execute(status -> memberRepository.findOne(memberId).getName());
+        transactionTemplate.execute(status -> memberRepository.findByName(name));
+
+        //when
+        transactionTemplate.executeWithoutResult(status -> memberRepository.findOne(memberId).setName(name + "변경"));
+        statistics.clear();
+        int size = transactionTemplate.execute(status -> memberRepository.findByName(name).size());
+
+        //then
+        assertThat(size).isEqualTo(0);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(0);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+
+    private void readAll() {
+        transactionTemplate.executeWithoutResult(status -> {
+            memberRepository.findOne(memberId).getName();
+            itemRepository.findOne(itemId).getName();
+
+            Category parent = em.find(Category.class, parentId);
+            parent.getItems().forEach(item -> item.getName());
+            parent.getChild().forEach(child -> child.getName());
+        });
+    }
+}
@@ -0,0 +1,112 @@
+package jpabook.jpashop.domain.repository.order.query;
+
+import jpabook.jpashop.domain.*;
+import jpabook.jpashop.domain.item.Book;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 주문 조회 방법(OrderFetchStrategy)별 성능 비교(./gradlew benchmark)
+ * 주문 수와 주문당 상품 수를 바꿔가며 방법마다 실행 시간과 SQL 실행 수를 출력한다.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=100",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "decorator.datasource.p6spy.enable-logging=false",
+        "logging.level.org.hibernate.SQL=info",
+        "logging.level.org.hibernate.type=info",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=warn"
+})
+class OrderAssemblerBenchmarkTest {
+
+    private static final int[] ORDER_COUNTS = {100, 1000, 5000};
+    private static final int[] ITEMS_PER_ORDER = {1, 5, 20};
+    private static final int REPEAT = 5;
+
+    @Autowired EntityManager em;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired OrderAssemblers orderAssemblers;
+
+    @Test
+    public void 조회방법별_성능비교() throws Exception {
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+        System.out.printf("%-10s %8s %8s %12s %8s%n", "strategy", "orders", "items", "avg(ms)", "sql");
+        for (int orderCount : ORDER_COUNTS) {
+            for (int itemsPerOrder : ITEMS_PER_ORDER) {
+                seed(orderCount, itemsPerOrder);
+
+                for (OrderFetchStrategy strategy : OrderFetchStrategy.values()) {
+                    OrderAssembler assembler = orderAssemblers.get(strategy);
+
+                    //워밍업
+                    transactionTemplate.execute(status -> assembler.assemble());
+
+                    statistics.clear();
+                    long start = System.nanoTime();
+                    for (int i = 0; i < REPEAT; i++) {
+                        List<OrderQueryDto> result = transactionTemplate.execute(status -> assembler.assemble());
+                        assertThat(result).hasSize(orderCount);
+                        assertThat(result.get(0).getOrderItems()).hasSize(itemsPerOrder);
+                    }
+                    long avgMillis = (System.nanoTime() - start) / REPEAT / 1_000_000;
+
+                    System.out.printf("%-10s %8d %8d %12d %8d%n", strategy, orderCount, itemsPerOrder,
+                            avgMillis, statistics.getPrepareStatementCount() / REPEAT);
+                }
+            }
+        }
+    }
+
+    /**
+     * 기존 주문을 모두 지우고 orderCount 건의 주문을 주문당 itemsPerOrder 개의 상품으로 만든다.
+     */
+    private void seed(int orderCount, int itemsPerOrder) {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createNativeQuery("delete from order_item").executeUpdate();
+            em.createNativeQuery("delete from orders").executeUpdate();
+            em.createNativeQuery("delete from delivery").executeUpdate();
+
+            Member member = new Member();
+            member.setName("벤치회원" + orderCount + "_" + itemsPerOrder);
+            member.setAddress(new Address("서울", "강가", "123-123"));
+            em.persist(member);
+
+            List<Book> books = new ArrayList<>();
+            for (int i = 0; i < itemsPerOrder; i++) {
+                Book book = new Book();
+                book.setName("벤치JPA" + i);
+                book.setPrice(10000);
+                book.setStockQuantity(orderCount);
+                em.persist(book);
+                books.add(book);
+            }
+
+            for (int i = 0; i < orderCount; i++) {
+                Delivery delivery = new Delivery();
+                delivery.setAddress(member.getAddress());
+                OrderItem[] orderItems = books.stream()
+                        .map(book -> OrderItem.createOrderItem(book, book.getPrice(), 1))
+                        .toArray(OrderItem[]::new);
+                em.persist(Order.createOrder(member, delivery, orderItems));
+
+                if (i % 500 == 0) {
+                    em.flush();
+                }
+            }
+        });
+    }
+}
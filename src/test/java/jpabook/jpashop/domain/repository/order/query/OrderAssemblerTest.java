@@ -0,0 +1,96 @@
+package jpabook.jpashop.domain.repository.order.query;
+
+import jpabook.jpashop.domain.*;
+import jpabook.jpashop.domain.item.Book;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 조회 방법(OrderFetchStrategy)마다 같은 주문 목록을 만드는지 확인한다.
+ * 다른 테스트가 커밋한 주문도 조회되므로 이 테스트에서 만든 주문만 골라서 비교한다.
+ */
+@SpringBootTest
+@Transactional
+class OrderAssemblerTest {
+
+    @Autowired EntityManager em;
+    @Autowired OrderAssemblers orderAssemblers;
+
+    @Test
+    public void 조회방법마다_같은_결과() throws Exception {
+        //given
+        Member member = new Member();
+        member.setName("조립회원" + System.nanoTime());
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        em.persist(member);
+
+        Book jpa = createBook("조립JPA", 10000);
+        Book spring = createBook("조립SPRING", 20000);
+        Order twoItems = createOrder(member,
+                OrderItem.createOrderItem(jpa, jpa.getPrice(), 1),
+                OrderItem.createOrderItem(spring, 19000, 3));
+        Order oneItem = createOrder(member, OrderItem.createOrderItem(spring, spring.getPrice(), 2));
+        oneItem.cancel();
+        //주문상품이 없는 주문(JSON_AGG 의 주문상품 JSON 이 null)
+        Order noItems = createOrder(member);
+        em.flush();
+        em.clear();
+        Set<Long> orderIds = Set.of(twoItems.getId(), oneItem.getId(), noItems.getId());
+
+        //when
+        List<OrderQueryDto> expected = assemble(OrderFetchStrategy.PER_ROW, orderIds);
+
+        //then
+        assertThat(expected).extracting(OrderQueryDto::getOrderId)
+                .containsExactly(twoItems.getId(), oneItem.getId(), noItems.getId());
+        assertThat(expected.get(0).getOrderItems())
+                .extracting(OrderItemQueryDto::getItemName, OrderItemQueryDto::getOrderPrice, OrderItemQueryDto::getCount)
+                .containsExactlyInAnyOrder(tuple("조립JPA", 10000, 1), tuple("조립SPRING", 19000, 3));
+        assertThat(expected.get(1).getOrderStatus()).isEqualTo(OrderStatus.CANCEL);
+        assertThat(expected.get(2).getOrderItems()).isEmpty();
+
+        for (OrderFetchStrategy strategy : OrderFetchStrategy.values()) {
+            List<OrderQueryDto> actual = assemble(strategy, orderIds);
+            assertThat(actual)
+                    .as(strategy.name())
+                    .usingRecursiveComparison()
+                    .ignoringCollectionOrder()
+                    .isEqualTo(expected);
+        }
+    }
+
+
+    private List<OrderQueryDto> assemble(OrderFetchStrategy strategy, Set<Long> orderIds) {
+        return orderAssemblers.get(strategy).assemble().stream()
+                .filter(order -> orderIds.contains(order.getOrderId()))
+                .sorted(Comparator.comparing(OrderQueryDto::getOrderId))
+                .collect(Collectors.toList());
+    }
+
+    private Order createOrder(Member member, OrderItem... orderItems) {
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+        Order order = Order.createOrder(member, delivery, orderItems);
+        em.persist(order);
+        return order;
+    }
+
+    private Book createBook(String name, int price) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(price);
+        book.setStockQuantity(10);
+        em.persist(book);
+        return book;
+    }
+}
@@ -0,0 +1,110 @@
+package jpabook.jpashop.domain.sales;
+
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.TestFixture;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.outbox.OrderOutboxRelay;
+import jpabook.jpashop.domain.repository.sales.ItemSalesDto;
+import jpabook.jpashop.domain.service.OrderService;
+import jpabook.jpashop.domain.service.query.MemberMonthlySalesView;
+import jpabook.jpashop.domain.service.query.SalesQueryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 주문/취소 -> 아웃박스 -> 릴레이 -> 매출 집계
+ * 릴레이, 집계 주기를 길게 잡고 테스트에서 직접 호출한다.
+ */
+@SpringBootTest(properties = {
+        "jpashop.order.outbox.relay-interval=3600000",
+        "jpashop.sales.aggregate-interval=3600000"
+})
+class SalesAggregatorTest {
+
+    @Autowired OrderService orderService;
+    @Autowired OrderOutboxRelay relay;
+    @Autowired SalesAggregator salesAggregator;
+    @Autowired SalesQueryService salesQueryService;
+    @Autowired TestFixture testFixture;
+
+    @Test
+    public void 주문_취소_매출집계() throws Exception {
+        //given
+        Member member = testFixture.createMember();
+        Book book = testFixture.createBook(10);
+
+        //when
+        Long orderId = orderService.order(member.getId(), book.getId(), 2);
+        orderService.order(member.getId(), book.getId(), 1);
+        orderService.cancelOrder(orderId);
+        relay.relay();
+        salesAggregator.aggregate();
+
+        //then
+        ItemSalesDto itemSales = findItemSales(book.getId());
+        assertThat(itemSales.getQuantity()).isEqualTo(1L);
+        assertThat(itemSales.getAmount()).isEqualTo(10000L);
+
+        List<MemberMonthlySalesView> monthly = salesQueryService.findMemberMonthlySales(member.getId());
+        assertThat(monthly).hasSize(1);
+        assertThat(monthly.get(0).getMonth()).isEqualTo(YearMonth.now());
+        assertThat(monthly.get(0).getAmount()).isEqualTo(10000L);
+        assertThat(monthly.get(0).getOrderCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void 같은_이벤트_두번_반영안함() throws Exception {
+        //given
+        Member member = testFixture.createMember();
+        Book book = testFixture.createBook(10);
+        orderService.order(member.getId(), book.getId(), 3);
+        relay.relay();
+        salesAggregator.aggregate();
+
+        //when
+        salesAggregator.aggregate();
+
+        //then
+        assertThat(findItemSales(book.getId()).getQuantity()).isEqualTo(3L);
+    }
+
+    @Test
+    public void 재집계() throws Exception {
+        //given
+        Member member = testFixture.createMember();
+        Book book = testFixture.createBook(10);
+        Long orderId = orderService.order(member.getId(), book.getId(), 2);
+        orderService.order(member.getId(), book.getId(), 3);
+        orderService.cancelOrder(orderId);
+        relay.relay();
+
+        //when
+        salesAggregator.rebuild();
+        orderService.order(member.getId(), book.getId(), 4);    //재집계 이후 주문은 증분으로 반영
+        relay.relay();
+        salesAggregator.aggregate();
+
+        //then
+        ItemSalesDto itemSales = findItemSales(book.getId());
+        assertThat(itemSales.getQuantity()).isEqualTo(7L);
+        assertThat(itemSales.getAmount()).isEqualTo(70000L);
+
+        List<MemberMonthlySalesView> monthly = salesQueryService.findMemberMonthlySales(member.getId());
+        assertThat(monthly).extracting(MemberMonthlySalesView::getOrderCount).containsExactly(2L);
+    }
+
+    private ItemSalesDto findItemSales(Long itemId) {
+        LocalDate today = LocalDate.now();
+        return salesQueryService.findItemSales(today, today, 1000).stream()
+                .filter(sales -> sales.getItemId().equals(itemId))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("상품 매출 집계가 없습니다."));
+    }
+}
@@ -0,0 +1,123 @@
+package jpabook.jpashop.domain.service;
+
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.TestFixture;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+class IdempotencyServiceTest {
+
+    @Autowired IdempotencyService idempotencyService;
+    @Autowired IdempotencyRecordRepository idempotencyRecordRepository;
+    @Autowired OrderService orderService;
+    @Autowired OptimisticLockRetryExecutor retryExecutor;
+    @Autowired EntityManager em;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired TestFixture testFixture;
+
+    @Test
+    public void 같은_키로_다시_요청하면_처음_결과() throws Exception {
+        //given
+        Member member = testFixture.createMember();
+        Book book = testFixture.createBook(10);
+        String key = UUID.randomUUID().toString();
+
+        //when
+        Long first = idempotencyService.execute("order", key, "2", () -> orderService.order(member.getId(), book.getId(), 2));
+        Long second = idempotencyService.execute("order", key, "2", () -> orderService.order(member.getId(), book.getId(), 2));
+
+        //재시작해서 메모리 기록이 없어도 DB 기록으로 처음 결과를 돌려준다.
+        IdempotencyService restarted = new IdempotencyService(idempotencyRecordRepository, transactionTemplate, retryExecutor, 100, 60, 30);
+        Long third = restarted.execute("order", key, "2", () -> orderService.order(member.getId(), book.getId(), 2));
+
+        //then
+        assertThat(second).isEqualTo(first);
+        assertThat(third).isEqualTo(first);
+        assertThat(em.find(Book.class, book.getId()).getStockQuantity()).isEqualTo(8);
+    }
+
+    @Test
+    public void 동시_중복_요청은_한번만_실행() throws Exception {
+        //given
+        Member member = testFixture.createMember();
+        Book book = testFixture.createBook(100);
+        String key = UUID.randomUUID().toString();
+        AtomicInteger executions = new AtomicInteger();
+        int threadCount = 20;
+        CountDownLatch start = new CountDownLatch(1);
+
+        //when
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        List<Future<Long>> results = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return idempotencyService.execute("order", key, "1", () -> {
+                    executions.incrementAndGet();
+                    return orderService.order(member.getId(), book.getId(), 1);
+                });
+            }));
+        }
+        start.countDown();
+
+        List<Long> orderIds = new ArrayList<>();
+        for (Future<Long> result : results) {
+            orderIds.add(result.get());
+        }
+        executor.shutdown();
+
+        //then
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(orderIds).containsOnly(orderIds.get(0));
+        assertThat(em.find(Book.class, book.getId()).getStockQuantity()).isEqualTo(99);
+    }
+
+    @Test
+    public void 같은_키로_다른_요청은_거절() throws Exception {
+        //given
+        Member member = testFixture.createMember();
+        Book book = testFixture.createBook(10);
+        String key = UUID.randomUUID().toString();
+        idempotencyService.execute("order", key, "1", () -> orderService.order(member.getId(), book.getId(), 1));
+
+        //when, then
+        assertThatThrownBy(() -> idempotencyService.execute("order", key, "3", () -> orderService.order(member.getId(), book.getId(), 3)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(em.find(Book.class, book.getId()).getStockQuantity()).isEqualTo(9);
+    }
+
+    @Test
+    public void 실패한_요청은_같은_키로_다시_실행() throws Exception {
+        //given
+        Member member = testFixture.createMember();
+        Book book = testFixture.createBook(10);
+        String key = UUID.randomUUID().toString();
+
+        //when
+        assertThatThrownBy(() -> idempotencyService.execute("order", key, "1", () -> {
+            throw new IllegalStateException("일시적인 실패");
+        })).isInstanceOf(IllegalStateException.class);
+        Long orderId = idempotencyService.execute("order", key, "1", () -> orderService.order(member.getId(), book.getId(), 1));
+
+        //then
+        assertThat(orderId).isNotNull();
+        assertThat(em.find(Book.class, book.getId()).getStockQuantity()).isEqualTo(9);
+    }
+}
@@ -0,0 +1,69 @@
+package jpabook.jpashop.domain.service;
+
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.repository.MemberRepository;
+import jpabook.jpashop.domain.service.MemberImportService.MemberImportResult;
+import jpabook.jpashop.domain.service.MemberImportService.MemberImportStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * chunk 경계를 넘는 중복도 확인하기 위해 chunk 크기를 2로 줄인다.
+ * chunk 마다 커밋되므로 테스트 트랜잭션 없이 실행한다.
+ */
+@SpringBootTest(properties = "jpashop.import.chunk-size=2")
+class MemberImportServiceTest {
+
+    @Autowired MemberImportService memberImportService;
+    @Autowired MemberService memberService;
+    @Autowired MemberRepository memberRepository;
+
+    @Test
+    public void 회원_대량등록_줄별_결과() throws Exception {
+        //given
+        String suffix = String.valueOf(System.nanoTime());
+        Member existing = new Member();
+        existing.setName("existing" + suffix);
+        memberService.join(existing);
+
+        String body = String.join("\n",
+                "{\"name\":\"bulkA" + suffix + "\",\"city\":\"서울\",\"street\":\"강가\",\"zipcode\":\"123-123\"}",
+                "{\"name\":\"EXISTING" + suffix + "\"}",
+                "{\"name\":\" bulka" + suffix + " \"}",     //1번 줄과 같은 이름(다른 chunk)
+                "not json",
+                "",
+                "{\"city\":\"서울\"}",
+                "{\"name\":\"bulkB" + suffix + "\"}");
+        List<List<MemberImportResult>> chunks = new ArrayList<>();
+
+        //when
+        memberImportService.importMembers(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), chunks::add);
+
+        //then
+        assertThat(chunks).hasSize(3);
+        List<MemberImportResult> results = new ArrayList<>();
+        chunks.forEach(results::addAll);
+        assertThat(results).extracting(MemberImportResult::getLine).containsExactly(1L, 2L, 3L, 4L, 6L, 7L);
+        assertThat(results).extracting(MemberImportResult::getStatus).containsExactly(
+                MemberImportStatus.CREATED,
+                MemberImportStatus.DUPLICATE,
+                MemberImportStatus.DUPLICATE,
+                MemberImportStatus.INVALID,
+                MemberImportStatus.INVALID,
+                MemberImportStatus.CREATED);
+
+        Member bulkA = memberService.findOne(results.get(0).getMemberId());
+        assertThat(bulkA.getName()).isEqualTo("bulkA" + suffix);
+        assertThat(bulkA.getAddress().getCity()).isEqualTo("서울");
+        assertThat(memberRepository.findByNormalizedName(Member.normalizeName("bulkA" + suffix))).hasSize(1);
+        assertThat(memberRepository.findByNormalizedName(Member.normalizeName("existing" + suffix))).hasSize(1);
+    }
+}
@@ -1,6 +1,7 @@
 package jpabook.jpashop.domain.service;
 
 import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.member.MemberNameFilter;
 import jpabook.jpashop.domain.repository.MemberRepository;
 import junit.framework.Assert;
 import org.assertj.core.api.Assertions;
@@ -10,9 +11,13 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -28,6 +33,9 @@ class MemberServiceTest {
     @Autowired
     MemberRepository memberRepository;
 
+    @Autowired
+    MemberNameFilter memberNameFilter;
+
     @Autowired
     EntityManager em;
 
@@ -65,4 +73,92 @@ class MemberServiceTest {
         });
     }
 
-}
\ No newline at end of file
+    @Test
+    public void 정규화_이름_중복_예외() throws Exception {
+        //given
+        Member member1 = new Member();
+        member1.setName("Kim Jpa");
+
+        Member member2 = new Member();
+        member2.setName("  kim   JPA ");
+
+        //when
+        memberService.join(member1);
+
+        //then
+        assertThatIllegalStateException().isThrownBy(() -> {
+            memberService.join(member2);
+        });
+    }
+
+    @Test
+    public void 처음_보는_이름은_중복조회_생략() throws Exception {
+        //given
+        Member member = new Member();
+        member.setName("새회원" + System.nanoTime());
+        long skipped = memberNameFilter.getSkipped();
+
+        //when
+        memberService.join(member);
+
+        //then
+        assertThat(memberNameFilter.isReady()).isTrue();
+        assertThat(memberNameFilter.getSkipped()).isEqualTo(skipped + 1);
+        assertThat(memberNameFilter.mightContain(member.getNormalizedName())).isTrue();
+    }
+
+    @Test
+    public void 이름이_없으면_이름필터에_없음() throws Exception {
+        //given
+        Member member = new Member();
+
+        //when
+        memberNameFilter.put(member.getNormalizedName());
+
+        //then
+        assertThat(member.getNormalizedName()).isNull();
+        assertThat(memberNameFilter.mightContain(member.getNormalizedName())).isFalse();
+    }
+
+    /**
+     * 같은 이름으로 동시에 가입하면 중복 조회를 모두 통과하더라도 유니크 제약으로 한명만 성공한다.
+     * 각 가입이 커밋되어야 하므로 테스트 트랜잭션 없이 실행한다.
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void 동시_가입_한명만_성공() throws Exception {
+        //given
+        int threads = 8;
+        String name = "동시회원" + System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            String variant = i % 2 == 0 ? name : " " + name.toUpperCase() + " ";
+            futures.add(executor.submit(() -> {
+                Member member = new Member();
+                member.setName(variant);
+                start.await();
+                return memberService.join(member);
+            }));
+        }
+
+        //when
+        start.countDown();
+        int joined = 0;
+        for (Future<Long> future : futures) {
+            try {
+                future.get();
+                joined++;
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(IllegalStateException.class)
+                        .hasMessage("이미 존재하는 회원입니다.");
+            }
+        }
+        executor.shutdown();
+
+        //then
+        assertThat(joined).isEqualTo(1);
+        assertThat(memberRepository.findByNormalizedName(Member.normalizeName(name))).hasSize(1);
+    }
+}
@@ -0,0 +1,171 @@
+package jpabook.jpashop.domain.service;
+
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.domain.service.OptimisticLockRetryExecutor.ContentionStats;
+import org.hibernate.StaleStateException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 실제 버전 충돌로 재시도를 확인한다.
+ * 작업 트랜잭션이 상품을 읽은 뒤 다른 트랜잭션(REQUIRES_NEW)이 같은 상품을 먼저 수정, 커밋하면 작업 트랜잭션 커밋이 실패한다.
+ * 재시도는 트랜잭션 바깥에서만 하므로 테스트 트랜잭션(@Transactional) 없이 실행한다.
+ */
+@SpringBootTest
+class OptimisticLockRetryExecutorTest {
+
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired EntityManager em;
+
+    TransactionTemplate requiresNew;
+    Long itemId;
+
+    @BeforeEach
+    void setUp() {
+        requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        itemId = transactionTemplate.execute(status -> {
+            Book book = new Book();
+            book.setName("충돌JPA");
+            book.setPrice(10000);
+            book.setStockQuantity(100);
+            em.persist(book);
+            return book.getId();
+        });
+    }
+
+    @Test
+    public void 충돌후_재시도_성공() throws Exception {
+        //given
+        OptimisticLockRetryExecutor executor = new OptimisticLockRetryExecutor(5, 1, 2);
+        AtomicInteger attempts = new AtomicInteger();
+
+        //when
+        int attempt = executor.execute(removeStockWithConflicts(attempts, 2));
+
+        //then
+        assertThat(attempt).isEqualTo(3);       //2번 충돌, 3번째 성공
+        assertThat(stockQuantity()).isEqualTo(99);
+        ContentionStats stats = statsOfItem(executor);
+        assertThat(stats.getConflicts()).isEqualTo(2);
+        assertThat(stats.getRetries()).isEqualTo(2);
+        assertThat(stats.getGiveUps()).isEqualTo(0);
+    }
+
+    @Test
+    public void 최대_시도횟수_넘으면_포기() throws Exception {
+        //given
+        OptimisticLockRetryExecutor executor = new OptimisticLockRetryExecutor(3, 1, 2);
+        AtomicInteger attempts = new AtomicInteger();
+
+        //when
+        //then
+        assertThatThrownBy(() -> executor.execute(removeStockWithConflicts(attempts, Integer.MAX_VALUE)))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(attempts.get()).isEqualTo(3);
+        assertThat(stockQuantity()).isEqualTo(100);
+        ContentionStats stats = statsOfItem(executor);
+        assertThat(stats.getConflicts()).isEqualTo(3);
+        assertThat(stats.getRetries()).isEqualTo(2);
+        assertThat(stats.getGiveUps()).isEqualTo(1);
+    }
+
+    @Test
+    public void 트랜잭션_안에서는_재시도하지_않음() throws Exception {
+        //given
+        OptimisticLockRetryExecutor executor = new OptimisticLockRetryExecutor(5, 1, 2);
+        AtomicInteger attempts = new AtomicInteger();
+
+        //when
+        //then
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status ->
+                executor.execute(() -> {
+                    attempts.incrementAndGet();
+                    throw new ObjectOptimisticLockingFailureException(Book.class, itemId);
+                })))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(attempts.get()).isEqualTo(1);
+        assertThat(executor.getStats()).isEmpty();
+    }
+
+    @Test
+    public void 엔티티를_알수없는_배치_충돌은_unknown_으로_집계() throws Exception {
+        //given
+        //JDBC 배치 update 의 행 수 불일치는 클래스 이름 없이 변환된다.
+        OptimisticLockRetryExecutor executor = new OptimisticLockRetryExecutor(2, 1, 2);
+        ObjectOptimisticLockingFailureException batchConflict = new ObjectOptimisticLockingFailureException(
+                "Batch update returned unexpected row count", new StaleStateException("Batch update returned unexpected row count"));
+
+        //when
+        //then
+        assertThatThrownBy(() -> executor.execute(() -> {
+            throw batchConflict;
+        })).isSameAs(batchConflict);
+        assertThat(executor.getStats()).containsOnlyKeys(OptimisticLockRetryExecutor.UNKNOWN);
+        assertThat(executor.getStats().get(OptimisticLockRetryExecutor.UNKNOWN).getConflicts()).isEqualTo(2);
+    }
+
+    @Test
+    public void 재시도_간격은_지수_상한_안에서_무작위() throws Exception {
+        //given
+        OptimisticLockRetryExecutor executor = new OptimisticLockRetryExecutor(10, 10, 200);
+
+        //when
+        //then
+        for (int i = 0; i < 1000; i++) {
+            assertThat(executor.backoff(1)).isBetween(0L, 10L);
+            assertThat(executor.backoff(3)).isBetween(0L, 40L);
+            assertThat(executor.backoff(10)).isBetween(0L, 200L);     //10 << 9 = 5120 이지만 max-backoff 로 제한
+            assertThat(executor.backoff(63)).isBetween(0L, 200L);     //10 << 62 는 음수가 되지만 시프트를 제한
+            assertThat(executor.backoff(Integer.MAX_VALUE)).isBetween(0L, 200L);
+        }
+    }
+
+
+    /**
+     * 재고를 1개 줄이는 작업, 처음 conflicts 번은 읽은 뒤 다른 트랜잭션이 먼저 가격을 수정해서 충돌한다.
+     * @return 몇 번째 시도에서 성공했는지
+     */
+    private Supplier<Integer> removeStockWithConflicts(AtomicInteger attempts, int conflicts) {
+        return () -> transactionTemplate.execute(status -> {
+            int attempt = attempts.incrementAndGet();
+            Item item = em.find(Item.class, itemId);
+            if (attempt <= conflicts) {
+                requiresNew.executeWithoutResult(inner -> {
+                    Item other = em.find(Item.class, itemId);
+                    other.setPrice(other.getPrice() + 1);
+                });
+            }
+            item.setStockQuantity(item.getStockQuantity() - 1);
+            return attempt;
+        });
+    }
+
+    private int stockQuantity() {
+        return transactionTemplate.execute(status -> em.find(Item.class, itemId).getStockQuantity());
+    }
+
+    private ContentionStats statsOfItem(OptimisticLockRetryExecutor executor) {
+        Map<String, ContentionStats> stats = executor.getStats();
+        assertThat(stats).hasSize(1);
+        Map.Entry<String, ContentionStats> entry = stats.entrySet().iterator().next();
+        assertThat(entry.getKey()).endsWith("#" + itemId);
+        return entry.getValue();
+    }
+}
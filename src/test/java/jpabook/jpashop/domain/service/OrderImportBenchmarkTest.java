@@ -0,0 +1,92 @@
+package jpabook.jpashop.domain.service;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.service.OrderImportService.OrderImportFormat;
+import jpabook.jpashop.domain.service.OrderImportService.OrderImportResult;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 주문 대량 등록 성능 비교(./gradlew benchmark)
+ * OrderService.order() 를 한 줄씩 호출하는 방식과 OrderImportService 의 chunk + JDBC 배치 방식을 비교한다.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.jdbc.batch_size=100",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.order_updates=true",
+        "decorator.datasource.p6spy.enable-logging=false",
+        "logging.level.org.hibernate.SQL=info",
+        "logging.level.org.hibernate.type=info"
+})
+class OrderImportBenchmarkTest {
+
+    private static final int ROWS = 5000;
+    private static final int MEMBERS = 100;
+    private static final int ITEMS = 100;
+
+    @Autowired EntityManager em;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired OrderService orderService;
+    @Autowired OrderImportService orderImportService;
+
+    @Test
+    public void 주문등록_속도비교() throws Exception {
+        //given
+        List<Long> memberIds = new ArrayList<>();
+        List<Long> itemIds = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < MEMBERS; i++) {
+                Member member = new Member();
+                member.setName("벤치회원" + i);
+                member.setAddress(new Address("서울", "강가", "123-123"));
+                em.persist(member);
+                memberIds.add(member.getId());
+            }
+            for (int i = 0; i < ITEMS; i++) {
+                Book book = new Book();
+                book.setName("벤치JPA" + i);
+                book.setPrice(10000);
+                book.setStockQuantity(ROWS * 10);
+                em.persist(book);
+                itemIds.add(book.getId());
+            }
+        });
+
+        //when
+        long loopStart = System.nanoTime();
+        for (int i = 0; i < ROWS; i++) {
+            orderService.order(memberIds.get(i % MEMBERS), itemIds.get(i % ITEMS), 1);
+        }
+        long loopNanos = System.nanoTime() - loopStart;
+
+        StringBuilder csv = new StringBuilder("memberId,itemId,count\n");
+        for (int i = 0; i < ROWS; i++) {
+            csv.append(memberIds.get(i % MEMBERS)).append(',').append(itemIds.get(i % ITEMS)).append(",1\n");
+        }
+        OrderImportResult result = orderImportService.importOrders(
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), OrderImportFormat.CSV);
+
+        //then
+        long loopRowsPerSecond = ROWS * 1_000_000_000L / loopNanos;
+        System.out.printf("[order loop] rows=%d, elapsed=%dms, rows/sec=%d%n", ROWS, loopNanos / 1_000_000, loopRowsPerSecond);
+        System.out.printf("[bulk import] rows=%d, elapsed=%dms, rows/sec=%d%n", ROWS, result.getElapsedMillis(), result.getRowsPerSecond());
+        System.out.printf("speed-up x%.1f%n", (double) result.getRowsPerSecond() / loopRowsPerSecond);
+
+        assertThat(result.getImportedRows()).isEqualTo(ROWS);
+        assertThat(result.getFailedRows()).isZero();
+    }
+}
@@ -0,0 +1,71 @@
+package jpabook.jpashop.domain.service;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.domain.service.OrderImportService.OrderImportFormat;
+import jpabook.jpashop.domain.service.OrderImportService.OrderImportResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * chunk 마다 트랜잭션을 커밋하므로 테스트 트랜잭션(@Transactional) 없이 실행한다.
+ */
+@SpringBootTest
+class OrderImportServiceTest {
+
+    @Autowired OrderImportService orderImportService;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired EntityManager em;
+
+    @Test
+    public void 수량이_1보다_작은_줄은_형식오류() throws Exception {
+        //given
+        Long[] ids = transactionTemplate.execute(status -> {
+            Member member = new Member();
+            member.setName("등록회원" + System.nanoTime());
+            member.setAddress(new Address("서울", "강가", "123-123"));
+            em.persist(member);
+
+            Book book = new Book();
+            book.setName("등록JPA");
+            book.setPrice(10000);
+            book.setStockQuantity(10);
+            em.persist(book);
+            return new Long[]{member.getId(), book.getId()};
+        });
+        String csv = "memberId,itemId,count\n"
+                + ids[0] + "," + ids[1] + ",2\n"
+                + ids[0] + "," + ids[1] + ",0\n"
+                + ids[0] + "," + ids[1] + ",-3\n";
+        String ndjson = "{\"memberId\":" + ids[0] + ",\"itemId\":" + ids[1] + ",\"count\":-1}\n";
+
+        //when
+        OrderImportResult csvResult = orderImportService.importOrders(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), OrderImportFormat.CSV);
+        OrderImportResult ndjsonResult = orderImportService.importOrders(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), OrderImportFormat.NDJSON);
+
+        //then
+        assertThat(csvResult.getImportedRows()).isEqualTo(1);
+        assertThat(csvResult.getFailedRows()).isEqualTo(2);
+        assertThat(csvResult.getErrors()).hasSize(2)
+                .allSatisfy(error -> assertThat(error).contains("count 는 1 이상이어야 합니다."));
+        assertThat(csvResult.getErrors().get(0)).startsWith("3: ");
+        assertThat(ndjsonResult.getImportedRows()).isZero();
+        assertThat(ndjsonResult.getFailedRows()).isEqualTo(1);
+
+        //음수 수량으로 재고가 늘어나지 않는다.
+        Integer stockQuantity = transactionTemplate.execute(status -> em.find(Item.class, ids[1]).getStockQuantity());
+        assertThat(stockQuantity).isEqualTo(8);
+    }
+}
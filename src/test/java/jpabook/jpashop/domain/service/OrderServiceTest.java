@@ -15,9 +15,12 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
@@ -32,6 +35,7 @@ class OrderServiceTest {
     @Autowired OrderService orderService;
     @Autowired
     OrderRepository orderRepository;
+    @Autowired TransactionTemplate transactionTemplate;
 
     @Test
     public void 상품주문() throws Exception {
@@ -74,6 +78,21 @@ class OrderServiceTest {
     }
 
 
+    @Test
+    public void 주문_두번_취소() throws Exception {
+        //given
+        Member member = createMember("회원1", "서울", "강가", "123-123");
+        Item item = createBook("시골JPA", 10000, 10);
+        Long orderId = orderService.order(member.getId(), item.getId(), 2);
+        orderService.cancelOrder(orderId);
+
+        //when, then
+        Assertions.assertThatThrownBy(() -> orderService.cancelOrder(orderId))
+                .isInstanceOf(IllegalStateException.class);
+        assertEquals("두번 취소해도 재고는 한번만 복구된다.", 10, item.getStockQuantity());
+    }
+
+
     @Test
     public void 상품주문_재고수량초과() throws Exception {
         //given
@@ -92,6 +111,68 @@ class OrderServiceTest {
     }
 
 
+    @Test
+    public void 여러상품_주문() throws Exception {
+        //given
+        Member member = createMember("회원1", "서울", "강가", "123-123");
+        Book book1 = createBook("시골JPA", 10000, 10);
+        Book book2 = createBook("시골SPRING", 20000, 10);
+
+        //when
+        Long orderId = orderService.order(member.getId(), List.of(new OrderLine(book1.getId(), 2), new OrderLine(book2.getId(), 3)));
+
+        //then
+        Order getOrder = orderRepository.findOne(orderId);
+
+        assertEquals("상품 주문 시 상태는 ORDER", OrderStatus.ORDER, getOrder.getStatus());
+        assertEquals("주문 하나에 모든 주문상품이 담겨야 한다.", 2, getOrder.getOrderItems().size());
+        assertEquals("주문 가격은 주문상품 가격 * 수량의 합이다.", 10000 * 2 + 20000 * 3, getOrder.getTotalPrice());
+        assertEquals("주문 수량만큼 재고가 줄어야 한다.", 8, book1.getStockQuantity());
+        assertEquals("주문 수량만큼 재고가 줄어야 한다.", 7, book2.getStockQuantity());
+    }
+
+    @Test
+    public void 여러상품_주문_없는상품() throws Exception {
+        //given
+        Member member = createMember("회원1", "서울", "강가", "123-123");
+        Book book = createBook("시골JPA", 10000, 10);
+
+        //when
+        //then
+        Assertions.assertThatThrownBy(() -> orderService.order(member.getId(), List.of(new OrderLine(book.getId(), 1), new OrderLine(-1L, 1))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("itemId=-1");
+    }
+
+    /**
+     * 롤백되었는지 DB에서 확인해야 하므로 테스트 트랜잭션 없이 실행한다.
+     */
+    @Test
+    @org.springframework.transaction.annotation.Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void 여러상품_주문_재고부족시_전체_롤백() throws Exception {
+        //given
+        Long[] ids = transactionTemplate.execute(status -> {
+            Member member = createMember("롤백회원" + System.nanoTime(), "서울", "강가", "123-123");
+            Book enough = createBook("시골JPA", 10000, 10);
+            Book shortage = createBook("시골SPRING", 20000, 1);
+            return new Long[]{member.getId(), enough.getId(), shortage.getId()};
+        });
+        List<OrderLine> lines = List.of(new OrderLine(ids[1], 2), new OrderLine(ids[2], 2));
+
+        //when
+        Assertions.assertThatThrownBy(() -> orderService.order(ids[0], lines))
+                .isInstanceOf(NotEnoughStockException.class);
+
+        //then
+        transactionTemplate.executeWithoutResult(status -> {
+            assertEquals("재고가 충분한 상품도 재고가 그대로여야 한다.", 10, em.find(Item.class, ids[1]).getStockQuantity());
+            assertEquals("재고가 부족한 상품은 재고가 그대로여야 한다.", 1, em.find(Item.class, ids[2]).getStockQuantity());
+            assertEquals("회원의 주문이 없어야 한다.", 0L, (long) em.createQuery("select count(o) from Order o where o.member.id = :memberId", Long.class)
+                    .setParameter("memberId", ids[0])
+                    .getSingleResult());
+        });
+    }
+
 
     private Book createBook(String name, int price, int stockQuantity) {
         Book book = new Book();
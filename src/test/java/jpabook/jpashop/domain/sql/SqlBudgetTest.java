@@ -0,0 +1,81 @@
+package jpabook.jpashop.domain.sql;
+
+import jpabook.jpashop.domain.exception.SqlBudgetExceededException;
+import jpabook.jpashop.domain.repository.MemberRepository;
+import jpabook.jpashop.domain.sql.SqlBudgetStats.SqlBudgetReport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * InitDb 가 회원 2명, 주문 2건을 만든 상태에서 실행한다.
+ */
+@SpringBootTest(properties = {
+        "jpashop.sql-budget.strict=true",
+        "jpashop.sql-budget.repeat-threshold=2"
+})
+@AutoConfigureMockMvc
+class SqlBudgetTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired SqlStatementCounter counter;
+    @Autowired SqlBudgetStats sqlBudgetStats;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    @Test
+    public void 지연로딩_N플러스1_감지() throws Exception {
+        //when
+        //주문 1번 + 주문마다 회원, 배송 지연 로딩
+        mockMvc.perform(get("/api/v2/simple-orders")).andExpect(status().isOk());
+
+        //then
+        SqlBudgetReport report = sqlBudgetStats.getReport("GET /api/v2/simple-orders");
+        assertThat(report.getStatements()).isEqualTo(5);
+        assertThat(report.getSuspectedNPlusOne()).isEqualTo(1);
+        assertThat(report.getLastRepeatedShape()).containsIgnoringCase("from member");
+    }
+
+    @Test
+    public void 페치조인_예산_이내() throws Exception {
+        //when
+        mockMvc.perform(get("/api/v3/simple-orders")).andExpect(status().isOk());
+
+        //then
+        SqlBudgetReport report = sqlBudgetStats.getReport("GET /api/v3/simple-orders");
+        assertThat(report.getBudget()).isEqualTo(1);
+        assertThat(report.getMaxStatements()).isEqualTo(1);
+        assertThat(report.getOverBudget()).isEqualTo(0);
+        assertThat(report.getSuspectedNPlusOne()).isEqualTo(0);
+    }
+
+    @Test
+    public void 예산초과_시_예외() throws Exception {
+        //given
+        counter.begin("test", 1);
+
+        //when
+        try {
+            //then
+            assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+                memberRepository.findByName("userA");
+                memberRepository.findByName("userB");
+            })).isInstanceOf(SqlBudgetExceededException.class);
+        } finally {
+            counter.end();
+        }
+    }
+
+    @Test
+    public void 값만_다른_SQL은_같은_모양() throws Exception {
+        assertThat(SqlRequestStats.shape("select * from member where id in (?, ?, ?) and name = 'a'"))
+                .isEqualTo(SqlRequestStats.shape("select * from member where id in (?) and name = 'bb'"));
+    }
+}
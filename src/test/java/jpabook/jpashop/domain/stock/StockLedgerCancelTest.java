@@ -0,0 +1,71 @@
+package jpabook.jpashop.domain.stock;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.domain.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 재고 원장을 켠 상태에서 원장에 없는 상품의 주문 취소
+ * 원장 반영이 커밋 후에 일어나므로 테스트 트랜잭션(@Transactional) 없이 실행한다.
+ */
+@SpringBootTest(properties = "jpashop.stock.ledger.enabled=true")
+class StockLedgerCancelTest {
+
+    @Autowired OrderService orderService;
+    @Autowired StockLedger stockLedger;
+    @Autowired StockLedgerFlusher stockLedgerFlusher;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired EntityManager em;
+
+    @Test
+    public void 재시작전_주문_취소시_재고_복구() throws Exception {
+        //given
+        //원장 없이 재고를 줄인 주문(재시작 전 주문), 재고 10 -> 8
+        Long[] ids = transactionTemplate.execute(status -> {
+            Member member = new Member();
+            member.setName("원장회원" + System.nanoTime());
+            member.setAddress(new Address("서울", "강가", "123-123"));
+            em.persist(member);
+
+            Book book = new Book();
+            book.setName("원장JPA");
+            book.setPrice(10000);
+            book.setStockQuantity(10);
+            em.persist(book);
+
+            Delivery delivery = new Delivery();
+            delivery.setAddress(member.getAddress());
+            Order order = Order.createOrder(member, delivery, OrderItem.createOrderItem(book, book.getPrice(), 2));
+            em.persist(order);
+            return new Long[]{order.getId(), book.getId()};
+        });
+        Long orderId = ids[0];
+        Long itemId = ids[1];
+        assertThat(stockLedger.getAvailable(itemId)).isEqualTo(-1);
+
+        //when
+        orderService.cancelOrder(orderId);
+        stockLedgerFlusher.flush();
+
+        //then
+        assertThat(stockLedger.getAvailable(itemId)).isEqualTo(10);
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(em.find(Order.class, orderId).getStatus()).isEqualTo(OrderStatus.CANCEL);
+            assertThat(em.find(Item.class, itemId).getStockQuantity()).isEqualTo(10);
+        });
+    }
+}
@@ -0,0 +1,216 @@
+package jpabook.jpashop.domain.stock;
+
+import jpabook.jpashop.domain.exception.NotEnoughStockException;
+import jpabook.jpashop.domain.item.Book;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+
+class StockLedgerTest {
+
+    @Test
+    public void 동시주문_초과판매_없음() throws Exception {
+        //given
+        StockLedger stockLedger = new StockLedger(true, 16);
+        Book book = createBook(1L, 100);
+
+        int threadCount = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threadCount);
+        AtomicInteger success = new AtomicInteger();
+        AtomicInteger soldOut = new AtomicInteger();
+
+        //when
+        //수백개의 스레드가 같은 상품을 동시에 1개씩 주문
+        for (int i = 0; i < threadCount; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    stockLedger.reserve(book, 1);
+                    success.incrementAndGet();
+                } catch (NotEnoughStockException e) {
+                    soldOut.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        start.countDown();
+        done.await(30, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        //then
+        assertThat(success.get()).isEqualTo(100);
+        assertThat(soldOut.get()).isEqualTo(threadCount - 100);
+        assertThat(stockLedger.getAvailable(book.getId())).isEqualTo(0);
+        assertThat(stockLedger.drainPending()).containsEntry(book.getId(), 100L);
+    }
+
+    @Test
+    public void 여러_샤드에_흩어진_재고_예약() throws Exception {
+        //given
+        //재고 10개를 16개 샤드에 나누면 샤드 하나에는 최대 1개뿐이다.
+        StockLedger stockLedger = new StockLedger(true, 16);
+        Book book = createBook(2L, 10);
+
+        //when
+        stockLedger.reserve(book, 7);
+
+        //then
+        assertThatThrownBy(() -> stockLedger.reserve(book, 4))
+                .isInstanceOf(NotEnoughStockException.class);
+        assertThat(stockLedger.getAvailable(book.getId())).isEqualTo(3);
+
+        stockLedger.reserve(book, 3);
+        assertThat(stockLedger.getAvailable(book.getId())).isEqualTo(0);
+    }
+
+    @Test
+    public void 예약취소와_DB반영량() throws Exception {
+        //given
+        StockLedger stockLedger = new StockLedger(true, 4);
+        Book book = createBook(3L, 10);
+        stockLedger.reserve(book, 5);
+
+        //when
+        stockLedger.release(book, 2);
+
+        //then
+        assertThat(stockLedger.getAvailable(book.getId())).isEqualTo(7);
+
+        //DB 반영 실패 시 감소량은 원장에 되돌려진다.
+        assertThatThrownBy(() -> stockLedger.flush(pending -> {
+            assertThat(pending).containsEntry(book.getId(), 3L);
+            throw new IllegalStateException("DB 장애");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(stockLedger.drainPending()).containsEntry(book.getId(), 3L);
+        assertThat(stockLedger.drainPending()).isEmpty();
+    }
+
+    @Test
+    public void 원장에_없는_상품_예약취소() throws Exception {
+        //given
+        //재시작 전에 주문해서 DB 재고가 이미 8개로 줄어든 상품(원장에 없음)
+        StockLedger stockLedger = new StockLedger(true, 4);
+        Book book = createBook(4L, 8);
+
+        //when
+        stockLedger.release(book, 2);
+
+        //then
+        assertThat(stockLedger.getAvailable(book.getId())).isEqualTo(10);
+        assertThat(stockLedger.drainPending()).containsEntry(book.getId(), -2L);     //DB 재고 2개 증가
+    }
+
+    @Test
+    public void 재고수정은_진행중인_DB반영이_끝난뒤_적용() throws Exception {
+        //given
+        StockLedger stockLedger = new StockLedger(true, 4);
+        Book book = createBook(5L, 10);
+        stockLedger.reserve(book, 3);
+
+        CountDownLatch inFlight = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        //when
+        //감소량 3을 꺼내서 DB에 반영하는 중에 관리자가 재고를 20으로 수정, 반영은 실패
+        Future<?> flush = executor.submit(() -> stockLedger.flush(pending -> {
+            inFlight.countDown();
+            try {
+                proceed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException("DB 장애");
+        }));
+        assertThat(inFlight.await(10, TimeUnit.SECONDS)).isTrue();
+        Future<?> reset = executor.submit(() -> stockLedger.reset(book.getId(), 20));
+
+        //then
+        //반영이 끝날 때까지 재고 수정은 기다린다.
+        assertThatThrownBy(() -> reset.get(200, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+        proceed.countDown();
+        assertThatThrownBy(flush::get).hasCauseInstanceOf(IllegalStateException.class);
+        reset.get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        //실패해서 되돌린 감소량은 재고 수정(20이 기준)으로 버려지고 새 원장에 다시 붙지 않는다.
+        assertThat(stockLedger.getAvailable(book.getId())).isEqualTo(20);
+        assertThat(stockLedger.drainPending()).isEmpty();
+    }
+
+    @Test
+    public void 재고수정_커밋직전_이후_예약은_수정한_재고에서_빠짐() throws Exception {
+        //given
+        StockLedger stockLedger = new StockLedger(true, 4);
+        Book book = createBook(6L, 10);
+        stockLedger.reserve(book, 2);       //재고 수정 전 예약(수정한 값에 포함된 것으로 본다)
+
+        //when
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            stockLedger.reset(book.getId(), 20);
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+            //커밋 직전과 커밋 후 원장 교체 사이의 예약
+            stockLedger.reserve(book, 3);
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+            synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        //then
+        assertThat(stockLedger.getAvailable(book.getId())).isEqualTo(17);
+        assertThat(stockLedger.drainPending()).containsOnly(entry(book.getId(), 3L));
+    }
+
+    @Test
+    public void 재고수정_롤백시_감소량_유지() throws Exception {
+        //given
+        StockLedger stockLedger = new StockLedger(true, 4);
+        Book book = createBook(7L, 10);
+        stockLedger.reserve(book, 2);
+
+        //when
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            stockLedger.reset(book.getId(), 20);
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+            synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        //then
+        assertThat(stockLedger.getAvailable(book.getId())).isEqualTo(8);
+        assertThat(stockLedger.drainPending()).containsOnly(entry(book.getId(), 2L));
+    }
+
+
+    private Book createBook(Long id, int stockQuantity) {
+        Book book = new Book();
+        book.setId(id);
+        book.setName("시골JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(stockQuantity);
+        return book;
+    }
+}